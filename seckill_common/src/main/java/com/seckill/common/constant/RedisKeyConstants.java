@@ -12,6 +12,11 @@ import java.util.function.Supplier;
  * <p>
  * 使用 Java 8 函数式接口优化 Key 生成
  * </p>
+ * <p>
+ * 库存 Key（seckill:stock:goodsId）与字符串已秒杀标记 Key（seckill:killed:goodsId:userId）保持原有格式，
+ * 升级时不需要迁移线上数据。需要与库存 Key 在同一 Lua 脚本中访问的 Key 以整个库存 Key 作为 hash tag
+ * （无花括号的 Key 按全名计算槽位），从而与原格式的库存 Key 落在同一槽位，满足 Redis Cluster 的同槽要求
+ * </p>
  *
  * @author seckill
  * @since 2.0.0
@@ -36,6 +41,21 @@ public final class RedisKeyConstants {
      */
     public static final String STOCK_PREFIX = PREFIX + "stock:";
 
+    /**
+     * 库存租约 Key 前缀
+     */
+    public static final String STOCK_LEASE_PREFIX = STOCK_PREFIX + "lease:";
+
+    /**
+     * 持有租约的商品集合 Key
+     */
+    public static final String STOCK_LEASE_GOODS_KEY = STOCK_LEASE_PREFIX + "goods";
+
+    /**
+     * 库存回滚幂等标记 Key 前缀（按库存 Key 的槽位 tag + 订单号）
+     */
+    public static final String STOCK_ROLLBACK_DONE_PREFIX = STOCK_PREFIX + "rollback:done:";
+
     /**
      * 已秒杀标记 Key 前缀
      */
@@ -51,6 +71,11 @@ public final class RedisKeyConstants {
      */
     public static final String SECKILL_LOCK_PREFIX = PREFIX + "lock:seckill:";
 
+    /**
+     * 售罄广播频道（Pub/Sub）
+     */
+    public static final String SOLD_OUT_CHANNEL = PREFIX + "channel:sold-out";
+
     // ==================== 用户相关 ====================
 
     /**
@@ -58,6 +83,28 @@ public final class RedisKeyConstants {
      */
     public static final String USER_TOKEN_PREFIX = PREFIX + "user:token:";
 
+    // ==================== 订单相关 ====================
+
+    /**
+     * 订单支付超时 ZSET Key（member 为订单号，score 为到期时间戳）
+     */
+    public static final String ORDER_TIMEOUT_KEY = PREFIX + "order:timeout";
+
+    /**
+     * 订单读缓存：订单号 -> 订单 Key 前缀
+     */
+    public static final String ORDER_CACHE_NO_PREFIX = PREFIX + "order:cache:no:";
+
+    /**
+     * 订单读缓存：订单ID -> 订单号 Key 前缀
+     */
+    public static final String ORDER_CACHE_ID_PREFIX = PREFIX + "order:cache:id:";
+
+    /**
+     * 订单读缓存：用户ID -> 最近订单列表 Key 前缀
+     */
+    public static final String ORDER_CACHE_USER_PREFIX = PREFIX + "order:cache:user:";
+
     // ==================== 补偿任务相关 ====================
 
     /**
@@ -77,6 +124,11 @@ public final class RedisKeyConstants {
      */
     public static final String WORKER_ID_COUNTER = PREFIX + "snowflake:counter";
 
+    /**
+     * 号段分配 Key 前缀（按业务标识区分）
+     */
+    public static final String ID_SEGMENT_PREFIX = PREFIX + "id:segment:";
+
     // ==================== 过期时间（秒） ====================
 
     /**
@@ -89,6 +141,11 @@ public final class RedisKeyConstants {
      */
     public static final long KILLED_EXPIRE_SECONDS = 7 * 24 * 60 * 60L;
 
+    /**
+     * 库存回滚幂等标记过期时间：7天
+     */
+    public static final long STOCK_ROLLBACK_DONE_EXPIRE_SECONDS = 7 * 24 * 60 * 60L;
+
     /**
      * 分布式锁默认过期时间：10秒
      */
@@ -134,7 +191,87 @@ public final class RedisKeyConstants {
     }
 
     /**
-     * 生成已秒杀标记 Key
+     * 生成库存分片 Key
+     * <p>
+     * 每个分片使用独立的 hash tag，集群模式下分散到不同节点；分片 Key 为分片功能新增，不涉及旧数据
+     * </p>
+     *
+     * @param goodsId    商品ID
+     * @param shardIndex 分片序号
+     * @return Redis Key
+     */
+    public static String stockShardKey(Long goodsId, int shardIndex) {
+        Objects.requireNonNull(goodsId, "goodsId cannot be null");
+        return STOCK_PREFIX + hashTag(goodsId + ":shard:" + shardIndex);
+    }
+
+    /**
+     * 生成库存回滚幂等标记 Key
+     * <p>
+     * 与回补的库存 Key 落在同一槽位，两者可以在同一脚本中访问
+     * </p>
+     *
+     * @param stockKey 回补的库存 Key（主库存或分片）
+     * @param orderNo  订单号
+     * @return Redis Key
+     */
+    public static String stockRollbackDoneKey(String stockKey, Long orderNo) {
+        return STOCK_ROLLBACK_DONE_PREFIX + slotTag(stockKey) + ":"
+                + Objects.requireNonNull(orderNo, "orderNo cannot be null");
+    }
+
+    /**
+     * 生成订单缓存 Key（按订单号）
+     *
+     * @param orderNo 订单号
+     * @return Redis Key
+     */
+    public static String orderCacheNoKey(Long orderNo) {
+        return ORDER_CACHE_NO_PREFIX + orderNo;
+    }
+
+    /**
+     * 生成订单ID到订单号的映射缓存 Key
+     *
+     * @param orderId 订单ID
+     * @return Redis Key
+     */
+    public static String orderCacheIdKey(Long orderId) {
+        return ORDER_CACHE_ID_PREFIX + orderId;
+    }
+
+    /**
+     * 生成用户订单列表缓存 Key
+     *
+     * @param userId 用户ID
+     * @return Redis Key
+     */
+    public static String orderCacheUserKey(Long userId) {
+        return ORDER_CACHE_USER_PREFIX + userId;
+    }
+
+    /**
+     * 生成库存租约登记 Key（Hash：实例ID -> 未售出的租约数量；与库存 Key 同槽位）
+     *
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String stockLeaseKey(Long goodsId) {
+        return STOCK_LEASE_PREFIX + slotTag(stockKey(goodsId));
+    }
+
+    /**
+     * 生成库存租约心跳 Key
+     *
+     * @param instanceId 实例标识
+     * @return Redis Key
+     */
+    public static String stockLeaseHeartbeatKey(String instanceId) {
+        return STOCK_LEASE_PREFIX + "heartbeat:" + Objects.requireNonNull(instanceId, "instanceId cannot be null");
+    }
+
+    /**
+     * 生成已秒杀标记 Key（原有格式，与库存 Key 不同槽位）
      *
      * @param goodsId 商品ID
      * @param userId  用户ID
@@ -146,6 +283,41 @@ public final class RedisKeyConstants {
         return String.join(":", KILLED_PREFIX + goodsId, String.valueOf(userId));
     }
 
+    /**
+     * 生成与库存 Key 同槽位的已秒杀标记 Key
+     * <p>
+     * 供 Redis Cluster 下脚本准入使用；与 {@link #killedKey} 格式不同，切换时原有标记不会被读到
+     * </p>
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @return Redis Key
+     */
+    public static String colocatedKilledKey(Long goodsId, Long userId) {
+        Objects.requireNonNull(userId, "userId cannot be null");
+        return String.join(":", KILLED_PREFIX + slotTag(stockKey(goodsId)), String.valueOf(userId));
+    }
+
+    /**
+     * 生成已秒杀位图 Key（按商品，userId 为偏移量；与未分片的库存 Key 同槽位）
+     *
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String killedBitmapKey(Long goodsId) {
+        return KILLED_PREFIX + "bitmap:" + slotTag(stockKey(goodsId));
+    }
+
+    /**
+     * 生成已秒杀哈希 Key（按商品，userId 为字段；与未分片的库存 Key 同槽位）
+     *
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String killedHashKey(Long goodsId) {
+        return KILLED_PREFIX + "hash:" + slotTag(stockKey(goodsId));
+    }
+
     /**
      * 生成通用分布式锁 Key
      *
@@ -189,6 +361,43 @@ public final class RedisKeyConstants {
         return WORKER_ID_KEY_GEN.apply(Objects.requireNonNull(instanceId, "instanceId cannot be null"));
     }
 
+    /**
+     * 生成号段分配 Key
+     *
+     * @param bizTag 业务标识
+     * @return Redis Key
+     */
+    public static String idSegmentKey(String bizTag) {
+        return ID_SEGMENT_PREFIX + Objects.requireNonNull(bizTag, "bizTag cannot be null");
+    }
+
+    /**
+     * 取 Key 的槽位 tag
+     * <p>
+     * Key 自带 hash tag 时原样返回，否则以整个 Key 作为 tag：Redis Cluster 对无花括号的 Key 按全名计算槽位，
+     * 带上该 tag 的其他 Key 会与它落在同一槽位
+     * </p>
+     *
+     * @param key Redis Key
+     * @return 带花括号的 tag
+     */
+    public static String slotTag(String key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        int start = key.indexOf('{');
+        int end = key.indexOf('}', start + 1);
+        if (start >= 0 && end > start + 1) {
+            return key.substring(start, end + 1);
+        }
+        return hashTag(key);
+    }
+
+    /**
+     * 包装 hash tag
+     */
+    private static String hashTag(Object value) {
+        return "{" + value + "}";
+    }
+
     /**
      * 构建 Key（通用方法，使用 Supplier）
      *
@@ -0,0 +1,72 @@
+package com.seckill.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页结果封装
+ * <p>
+ * 按排序键续查下一页，不使用 OFFSET，深分页的代价与页大小相关而与页码无关；
+ * 总数不做 COUNT(*)，需要时返回优化器估算的近似值
+ * </p>
+ *
+ * @param <T> 数据类型
+ * @author seckill
+ * @since 2.1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResult<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标（没有下一页时为 null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否有下一页
+     */
+    private Boolean hasMore;
+
+    /**
+     * 近似总记录数（未请求时为 null）
+     */
+    private Long approximateTotal;
+
+    /**
+     * 创建游标分页结果
+     *
+     * @param records    当前页数据
+     * @param nextCursor 下一页游标，null 表示没有下一页
+     * @param <T>        数据类型
+     * @return 分页结果
+     */
+    public static <T> CursorPageResult<T> of(List<T> records, String nextCursor) {
+        return new CursorPageResult<>(records, nextCursor, nextCursor != null, null);
+    }
+
+    /**
+     * 创建空分页结果
+     *
+     * @param <T> 数据类型
+     * @return 空分页结果
+     */
+    public static <T> CursorPageResult<T> empty() {
+        return new CursorPageResult<>(Collections.emptyList(), null, false, 0L);
+    }
+}
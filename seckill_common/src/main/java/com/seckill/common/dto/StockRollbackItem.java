@@ -0,0 +1,41 @@
+package com.seckill.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 库存回滚条目
+ * <p>
+ * 批量回滚库存时使用，订单号作为幂等键：同一订单的回滚只生效一次
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockRollbackItem implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 订单号（幂等键）
+     */
+    private Long orderNo;
+
+    /**
+     * 商品ID
+     */
+    private Long goodsId;
+
+    /**
+     * 回滚数量
+     */
+    private Integer count;
+}
@@ -3,6 +3,7 @@ package com.seckill.common.id;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.LongSupplier;
 
 /**
@@ -19,7 +20,7 @@ import java.util.function.LongSupplier;
  * @since 2.0.0
  */
 @Slf4j
-public class DistributedIdGenerator implements LongSupplier {
+public class DistributedIdGenerator implements IdGenerator, LongSupplier {
 
     /**
      * 开始时间戳 (2024-01-01 00:00:00)
@@ -77,6 +78,11 @@ public class DistributedIdGenerator implements LongSupplier {
     private final AtomicLong sequence = new AtomicLong(0);
     private volatile long lastTimestamp = -1L;
 
+    /**
+     * 使用显式锁而非 synchronized，虚拟线程在 synchronized 中会钉住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
     /**
      * 构造函数
      *
@@ -102,29 +108,35 @@ public class DistributedIdGenerator implements LongSupplier {
      *
      * @return 唯一ID
      */
-    public synchronized long nextId() {
-        long timestamp = currentTimeMillis();
-
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException(
-                    String.format("时钟回拨，拒绝生成ID，回拨时间: %d ms", lastTimestamp - timestamp));
-        }
+    @Override
+    public long nextId() {
+        lock.lock();
+        try {
+            long timestamp = currentTimeMillis();
+
+            if (timestamp < lastTimestamp) {
+                throw new RuntimeException(
+                        String.format("时钟回拨，拒绝生成ID，回拨时间: %d ms", lastTimestamp - timestamp));
+            }
 
-        if (timestamp == lastTimestamp) {
-            long seq = sequence.incrementAndGet() & MAX_SEQUENCE;
-            if (seq == 0) {
-                timestamp = waitNextMillis(lastTimestamp);
+            if (timestamp == lastTimestamp) {
+                long seq = sequence.incrementAndGet() & MAX_SEQUENCE;
+                if (seq == 0) {
+                    timestamp = waitNextMillis(lastTimestamp);
+                }
+            } else {
+                sequence.set(0);
             }
-        } else {
-            sequence.set(0);
-        }
 
-        lastTimestamp = timestamp;
+            lastTimestamp = timestamp;
 
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
-                | (datacenterId << DATACENTER_ID_SHIFT)
-                | (workerId << WORKER_ID_SHIFT)
-                | sequence.get();
+            return ((timestamp - EPOCH) << TIMESTAMP_SHIFT)
+                    | (datacenterId << DATACENTER_ID_SHIFT)
+                    | (workerId << WORKER_ID_SHIFT)
+                    | sequence.get();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
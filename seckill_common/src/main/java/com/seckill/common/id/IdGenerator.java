@@ -0,0 +1,54 @@
+package com.seckill.common.id;
+
+/**
+ * ID 生成器
+ * <p>
+ * 业务方只依赖该接口，具体实现（加锁雪花、无锁雪花等）由配置决定
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+public interface IdGenerator {
+
+    /**
+     * 生成下一个ID
+     *
+     * @return 唯一ID
+     */
+    long nextId();
+
+    /**
+     * 生成可按路由键定位分片的ID
+     * <p>
+     * 默认与 {@link #nextId()} 相同；开启分片基因时由 {@link ShardGeneIdGenerator}
+     * 把路由键（用户ID）的低位嵌入ID低位，按订单号即可定位用户所在分片
+     * </p>
+     *
+     * @param routingKey 路由键（用户ID）
+     * @return 唯一ID
+     */
+    default long nextId(long routingKey) {
+        return nextId();
+    }
+
+    /**
+     * 批量生成ID
+     * <p>
+     * 默认逐个生成，实现类可覆盖为一次性预留整段序列
+     * </p>
+     *
+     * @param n 数量
+     * @return 按生成顺序排列的ID
+     */
+    default long[] nextIds(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n 必须大于 0");
+        }
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,189 @@
+package com.seckill.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 无锁雪花 ID 生成器
+ * <p>
+ * 将「时间戳偏移 + 序列号」打包进同一个 AtomicLong，通过 CAS 推进，
+ * 生成的 ID 布局与 {@link DistributedIdGenerator} 完全一致：
+ * </p>
+ * <ul>
+ * <li>同一毫秒内序列号直接 +1，无需加锁</li>
+ * <li>进入新的毫秒时一次 CAS 同时重置时间戳与序列号</li>
+ * <li>当前毫秒序列号耗尽时自旋等待下一毫秒，不会跨毫秒借用</li>
+ * <li>{@link #nextIds(int)} 一次 CAS 预留整段序列号</li>
+ * </ul>
+ * <p>
+ * 可选的线程本地预取：prefetchSize &gt; 0 时每个线程一次预留一段 ID 供后续 nextId 使用，
+ * 进一步减少 CAS 竞争，代价是不同线程间的 ID 不再严格按时间递增，线程结束时未用完的 ID 被丢弃
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+public class LockFreeIdGenerator implements IdGenerator, LongSupplier {
+
+    private static final long EPOCH = 1704067200000L;
+
+    private static final long WORKER_ID_BITS = 5L;
+    private static final long DATACENTER_ID_BITS = 5L;
+    private static final long SEQUENCE_BITS = 12L;
+
+    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+    private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
+    private static final long MAX_SEQUENCE = ~(-1L << SEQUENCE_BITS);
+
+    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
+
+    /**
+     * 机器位（数据中心 + 机器ID），构造时预先计算
+     */
+    private final long nodeBits;
+
+    /**
+     * 高位：距 EPOCH 的毫秒数；低 12 位：该毫秒内最后一次分配的序列号
+     */
+    private final AtomicLong state = new AtomicLong(-1L);
+
+    private final int prefetchSize;
+
+    private final ThreadLocal<PrefetchBlock> prefetchBlock;
+
+    /**
+     * 构造函数（不启用线程本地预取）
+     *
+     * @param workerId     机器ID
+     * @param datacenterId 数据中心ID
+     */
+    public LockFreeIdGenerator(long workerId, long datacenterId) {
+        this(workerId, datacenterId, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     机器ID
+     * @param datacenterId 数据中心ID
+     * @param prefetchSize 线程本地预取数量，0 表示不预取
+     */
+    public LockFreeIdGenerator(long workerId, long datacenterId, int prefetchSize) {
+        if (workerId > MAX_WORKER_ID || workerId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Worker ID 必须在 0 到 %d 之间", MAX_WORKER_ID));
+        }
+        if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Datacenter ID 必须在 0 到 %d 之间", MAX_DATACENTER_ID));
+        }
+        if (prefetchSize < 0 || prefetchSize > MAX_SEQUENCE + 1) {
+            throw new IllegalArgumentException(
+                    String.format("预取数量必须在 0 到 %d 之间", MAX_SEQUENCE + 1));
+        }
+        this.nodeBits = (datacenterId << DATACENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+        this.prefetchSize = prefetchSize;
+        this.prefetchBlock = prefetchSize > 0 ? ThreadLocal.withInitial(PrefetchBlock::new) : null;
+        log.info("初始化无锁ID生成器 - workerId: {}, datacenterId: {}, prefetchSize: {}",
+                workerId, datacenterId, prefetchSize);
+    }
+
+    @Override
+    public long nextId() {
+        if (prefetchBlock == null) {
+            return toId(reserve(1));
+        }
+        PrefetchBlock block = prefetchBlock.get();
+        if (block.remaining == 0) {
+            block.next = reserve(prefetchSize);
+            block.remaining = reservedCount(block.next, prefetchSize);
+        }
+        block.remaining--;
+        return toId(block.next++);
+    }
+
+    @Override
+    public long[] nextIds(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n 必须大于 0");
+        }
+        long[] ids = new long[n];
+        int filled = 0;
+        while (filled < n) {
+            long start = reserve(n - filled);
+            int count = reservedCount(start, n - filled);
+            for (int i = 0; i < count; i++) {
+                ids[filled++] = toId(start + i);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public long getAsLong() {
+        return nextId();
+    }
+
+    /**
+     * 预留最多 count 个连续序列号
+     * <p>
+     * 当前毫秒剩余序列不足 count 时只预留到本毫秒末尾，实际数量见 {@link #reservedCount(long, int)}
+     * </p>
+     *
+     * @return 预留段第一个打包值（时间戳偏移 &lt;&lt; 12 | 序列号）
+     */
+    private long reserve(int count) {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long lastMillis = current >> SEQUENCE_BITS;
+
+            long start;
+            if (now > lastMillis) {
+                start = now << SEQUENCE_BITS;
+            } else if (now == lastMillis) {
+                if ((current & MAX_SEQUENCE) == MAX_SEQUENCE) {
+                    // 本毫秒序列耗尽，等待时钟前进
+                    Thread.onSpinWait();
+                    continue;
+                }
+                start = current + 1;
+            } else {
+                throw new RuntimeException(
+                        String.format("时钟回拨，拒绝生成ID，回拨时间: %d ms", lastMillis - now));
+            }
+
+            long end = start + reservedCount(start, count) - 1;
+            if (state.compareAndSet(current, end)) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * 从 start 起预留 count 个序列时实际可得的数量（不跨毫秒）
+     */
+    private static int reservedCount(long start, int count) {
+        return (int) Math.min(count, MAX_SEQUENCE - (start & MAX_SEQUENCE) + 1);
+    }
+
+    /**
+     * 打包值转换为最终 ID
+     */
+    private long toId(long packed) {
+        return ((packed >> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (packed & MAX_SEQUENCE);
+    }
+
+    /**
+     * 线程本地预取段
+     */
+    private static final class PrefetchBlock {
+        private long next;
+        private int remaining;
+    }
+}
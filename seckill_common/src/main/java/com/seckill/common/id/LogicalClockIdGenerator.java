@@ -0,0 +1,192 @@
+package com.seckill.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 逻辑时钟雪花 ID 生成器
+ * <p>
+ * ID 布局与 {@link DistributedIdGenerator} 一致，但时间戳部分取逻辑时钟而非墙上时钟：
+ * </p>
+ * <ul>
+ * <li>逻辑时钟 = max(墙上时钟, 上次逻辑时钟)，只前进不后退</li>
+ * <li>序列号溢出时直接进位到下一毫秒（借用未来时间），不自旋等待</li>
+ * <li>时钟小幅回拨（NTP 步进调整）时继续沿用逻辑时钟发号，不抛异常</li>
+ * <li>逻辑时钟领先墙上时钟超过 maxLeadMillis 时才拒绝发号，避免长期漂移</li>
+ * <li>启动时先等待 maxLeadMillis：上次运行（或此前持有同一 Worker ID 的实例）借用的未来时间最多这么长，
+ * 等墙上时钟越过后再发号，重启后不会重复发出这段时间内的 ID</li>
+ * </ul>
+ * <p>
+ * 领先量可通过 {@link #leadMillis()} 监控：持续大于 0 说明发号速率长期超过 4096 个/毫秒或时钟发生了回拨
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+public class LogicalClockIdGenerator implements IdGenerator, LongSupplier {
+
+    private static final long EPOCH = 1704067200000L;
+
+    private static final long WORKER_ID_BITS = 5L;
+    private static final long DATACENTER_ID_BITS = 5L;
+    private static final long SEQUENCE_BITS = 12L;
+
+    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+    private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
+    private static final long MAX_SEQUENCE = ~(-1L << SEQUENCE_BITS);
+
+    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
+
+    private final long nodeBits;
+
+    /**
+     * 允许逻辑时钟领先墙上时钟的最大毫秒数
+     */
+    private final long maxLeadMillis;
+
+    /**
+     * 墙上时钟
+     */
+    private final LongSupplier clock;
+
+    /**
+     * 高位：逻辑时钟（距 EPOCH 的毫秒数）；低 12 位：最后一次分配的序列号
+     */
+    private final AtomicLong state = new AtomicLong(-1L);
+
+    /**
+     * 发号时逻辑时钟领先墙上时钟的次数（借用未来时间或吸收回拨）
+     */
+    private final AtomicLong borrowedCount = new AtomicLong();
+
+    /**
+     * 构造函数，返回前等待 maxLeadMillis
+     *
+     * @param workerId      机器ID
+     * @param datacenterId  数据中心ID
+     * @param maxLeadMillis 逻辑时钟最多领先墙上时钟的毫秒数
+     */
+    public LogicalClockIdGenerator(long workerId, long datacenterId, long maxLeadMillis) {
+        this(workerId, datacenterId, maxLeadMillis, System::currentTimeMillis);
+        awaitPreviousLead();
+    }
+
+    /**
+     * 构造函数（指定时钟，不等待，供测试使用）
+     */
+    LogicalClockIdGenerator(long workerId, long datacenterId, long maxLeadMillis, LongSupplier clock) {
+        if (workerId > MAX_WORKER_ID || workerId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Worker ID 必须在 0 到 %d 之间", MAX_WORKER_ID));
+        }
+        if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Datacenter ID 必须在 0 到 %d 之间", MAX_DATACENTER_ID));
+        }
+        if (maxLeadMillis <= 0) {
+            throw new IllegalArgumentException("最大领先时间必须大于 0");
+        }
+        this.nodeBits = (datacenterId << DATACENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+        this.maxLeadMillis = maxLeadMillis;
+        this.clock = clock;
+        log.info("初始化逻辑时钟ID生成器 - workerId: {}, datacenterId: {}, maxLeadMillis: {}",
+                workerId, datacenterId, maxLeadMillis);
+    }
+
+    @Override
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    @Override
+    public long[] nextIds(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n 必须大于 0");
+        }
+        // 逻辑时钟允许跨毫秒进位，一次 CAS 即可预留整段
+        long start = reserve(n);
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = toId(start + i);
+        }
+        return ids;
+    }
+
+    @Override
+    public long getAsLong() {
+        return nextId();
+    }
+
+    /**
+     * 逻辑时钟领先墙上时钟的毫秒数，未领先时为 0
+     */
+    public long leadMillis() {
+        long now = clock.getAsLong() - EPOCH;
+        return Math.max(0L, (state.get() >> SEQUENCE_BITS) - now);
+    }
+
+    /**
+     * 逻辑时钟领先墙上时钟时发号的累计次数
+     */
+    public long borrowedCount() {
+        return borrowedCount.get();
+    }
+
+    /**
+     * 预留 count 个连续打包值（逻辑时钟 &lt;&lt; 12 | 序列号），返回第一个
+     */
+    private long reserve(int count) {
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - EPOCH;
+            long lastMillis = current >> SEQUENCE_BITS;
+
+            long start;
+            if (now > lastMillis) {
+                start = now << SEQUENCE_BITS;
+            } else {
+                // 同一毫秒、序列溢出或时钟回拨：沿用逻辑时钟继续递增，溢出自然进位到下一毫秒
+                start = current + 1;
+            }
+
+            long end = start + count - 1;
+            long lead = (end >> SEQUENCE_BITS) - now;
+            if (lead > maxLeadMillis) {
+                throw new RuntimeException(
+                        String.format("逻辑时钟领先墙上时钟过多，拒绝生成ID，领先时间: %d ms", lead));
+            }
+
+            if (state.compareAndSet(current, end)) {
+                if ((end >> SEQUENCE_BITS) > now) {
+                    borrowedCount.incrementAndGet();
+                }
+                return start;
+            }
+        }
+    }
+
+    /**
+     * 等待墙上时钟越过上次运行可能借用的未来时间
+     */
+    private void awaitPreviousLead() {
+        long deadline = clock.getAsLong() + maxLeadMillis;
+        long remaining;
+        while ((remaining = deadline - clock.getAsLong()) > 0) {
+            try {
+                Thread.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待逻辑时钟领先区间时被中断", e);
+            }
+        }
+    }
+
+    private long toId(long packed) {
+        return ((packed >> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (packed & MAX_SEQUENCE);
+    }
+}
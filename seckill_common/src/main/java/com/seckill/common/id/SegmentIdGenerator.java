@@ -0,0 +1,173 @@
+package com.seckill.common.id;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 号段 ID 生成器（双缓冲）
+ * <p>
+ * 每个实例通过 Redis INCRBY 一次领取 step 个连续 ID，本地原子自增发号：
+ * </p>
+ * <ul>
+ * <li>发号只是一次 AtomicLong 自增，不依赖时钟，不会因时钟回拨报错，也没有自旋等待</li>
+ * <li>号段由 Redis 全局分配，实例数不受 Worker ID 32 个上限约束</li>
+ * <li>当前号段消耗到 prefetchRatio 时由后台线程预取下一号段，切换时通常无需等待</li>
+ * </ul>
+ * <p>
+ * 代价：ID 只保证全局唯一、单实例内递增，不同实例之间不保证按时间有序；
+ * 实例重启时未用完的号段被丢弃
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdGenerator, LongSupplier {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String segmentKey;
+    private final long step;
+
+    /**
+     * 当前号段内发出第几个 ID 时触发预取
+     */
+    private final long prefetchOffset;
+
+    private volatile Segment current;
+
+    /**
+     * 预取中的下一号段，null 表示尚未触发预取
+     */
+    private final AtomicReference<CompletableFuture<Segment>> nextSegment = new AtomicReference<>();
+
+    private final ReentrantLock switchLock = new ReentrantLock();
+
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "id-segment-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 构造函数，同步领取第一个号段
+     *
+     * @param redisTemplate Redis 模板
+     * @param bizTag        业务标识，不同标识的号段相互独立
+     * @param step          号段长度
+     * @param prefetchRatio 当前号段消耗到该比例时预取下一号段，取值 (0, 1)
+     */
+    public SegmentIdGenerator(StringRedisTemplate redisTemplate, String bizTag, long step, double prefetchRatio) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("号段长度必须大于 0");
+        }
+        if (prefetchRatio <= 0 || prefetchRatio >= 1) {
+            throw new IllegalArgumentException("预取比例必须在 0 到 1 之间");
+        }
+        this.redisTemplate = redisTemplate;
+        this.segmentKey = RedisKeyConstants.idSegmentKey(bizTag);
+        this.step = step;
+        this.prefetchOffset = Math.max(1L, (long) (step * prefetchRatio));
+        this.current = loadSegment();
+        log.info("初始化号段ID生成器 - bizTag: {}, step: {}, prefetchRatio: {}", bizTag, step, prefetchRatio);
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            long id = segment.cursor.getAndIncrement();
+            if (id <= segment.end) {
+                if (id == segment.start + prefetchOffset) {
+                    triggerPrefetch();
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    @Override
+    public long getAsLong() {
+        return nextId();
+    }
+
+    /**
+     * 停止预取线程（Spring 销毁 Bean 时自动调用）
+     */
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * 异步预取下一号段，只有第一个到达预取点的线程会真正提交任务
+     */
+    private void triggerPrefetch() {
+        CompletableFuture<Segment> future = new CompletableFuture<>();
+        if (!nextSegment.compareAndSet(null, future)) {
+            return;
+        }
+        prefetchExecutor.execute(() -> {
+            try {
+                future.complete(loadSegment());
+            } catch (Exception e) {
+                log.warn("预取号段失败，切换时将同步领取 - key: {}, error: {}", segmentKey, e.getMessage());
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 当前号段耗尽，切换到预取号段（预取未完成时等待，预取失败时同步领取）
+     */
+    private void switchSegment(Segment exhausted) {
+        switchLock.lock();
+        try {
+            if (current != exhausted) {
+                return;
+            }
+            Segment next = Optional.ofNullable(nextSegment.getAndSet(null))
+                    .map(future -> future.exceptionally(e -> null).join())
+                    .orElseGet(this::loadSegment);
+            current = next;
+            log.debug("切换号段 - key: {}, range: [{}, {}]", segmentKey, next.start, next.end);
+        } finally {
+            switchLock.unlock();
+        }
+    }
+
+    /**
+     * 从 Redis 领取一个号段
+     */
+    private Segment loadSegment() {
+        Long max = redisTemplate.opsForValue().increment(segmentKey, step);
+        if (max == null) {
+            throw new IllegalStateException("领取号段失败 - key: " + segmentKey);
+        }
+        return new Segment(max - step + 1, max);
+    }
+
+    /**
+     * 号段 [start, end]
+     */
+    private static final class Segment {
+        private final long start;
+        private final long end;
+        private final AtomicLong cursor;
+
+        private Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.cursor = new AtomicLong(start);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.seckill.common.killed;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.Collections;
+
+/**
+ * 位图标记存储
+ * <p>
+ * 每个商品一个位图，userId 作为位偏移量，每个用户仅占 1 bit。
+ * 位图大小由最大 userId 决定（约 maxUserId / 8 字节），适合自增的稠密用户ID；
+ * userId 超出 Redis 位图上限（2^32 - 1）时拒绝写入
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@RequiredArgsConstructor
+public class BitmapKilledMarkStore implements KilledMarkStore {
+
+    /**
+     * Redis 位图最大偏移量
+     */
+    private static final long MAX_OFFSET = (1L << 32) - 1;
+
+    private static final String MARK_LUA = "redis.call('setbit', KEYS[1], ARGV[1], 1) " +
+            "redis.call('expire', KEYS[1], ARGV[2]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> MARK_SCRIPT = new DefaultRedisScript<>(MARK_LUA, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public boolean hasKilled(Long goodsId, Long userId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .getBit(RedisKeyConstants.killedBitmapKey(goodsId), offset(userId)));
+    }
+
+    @Override
+    public void markKilled(Long goodsId, Long userId) {
+        redisTemplate.execute(MARK_SCRIPT, Collections.singletonList(RedisKeyConstants.killedBitmapKey(goodsId)),
+                member(userId), String.valueOf(RedisKeyConstants.KILLED_EXPIRE_SECONDS));
+    }
+
+    @Override
+    public void removeKilledMark(Long goodsId, Long userId) {
+        redisTemplate.opsForValue().setBit(RedisKeyConstants.killedBitmapKey(goodsId), offset(userId), false);
+    }
+
+    @Override
+    public KilledStoreType type() {
+        return KilledStoreType.BITMAP;
+    }
+
+    @Override
+    public String storeKey(Long goodsId, Long userId) {
+        return RedisKeyConstants.killedBitmapKey(goodsId);
+    }
+
+    @Override
+    public String member(Long userId) {
+        return String.valueOf(offset(userId));
+    }
+
+    private long offset(Long userId) {
+        if (userId == null || userId < 0 || userId > MAX_OFFSET) {
+            throw new IllegalArgumentException("userId 超出位图偏移量范围: " + userId);
+        }
+        return userId;
+    }
+}
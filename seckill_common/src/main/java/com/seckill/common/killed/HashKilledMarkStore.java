@@ -0,0 +1,63 @@
+package com.seckill.common.killed;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * 哈希标记存储
+ * <p>
+ * 每个商品一个哈希，userId 作为字段。对 userId 分布没有要求，
+ * 内存开销介于字符串 key 与位图之间，且省去了每个用户一个 key 的元数据开销
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@RequiredArgsConstructor
+public class HashKilledMarkStore implements KilledMarkStore {
+
+    private static final String MARK_LUA = "redis.call('hset', KEYS[1], ARGV[1], '1') " +
+            "redis.call('expire', KEYS[1], ARGV[2]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> MARK_SCRIPT = new DefaultRedisScript<>(MARK_LUA, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public boolean hasKilled(Long goodsId, Long userId) {
+        return Boolean.TRUE.equals(
+                redisTemplate.opsForHash().hasKey(RedisKeyConstants.killedHashKey(goodsId), member(userId)));
+    }
+
+    @Override
+    public void markKilled(Long goodsId, Long userId) {
+        redisTemplate.execute(MARK_SCRIPT, Collections.singletonList(RedisKeyConstants.killedHashKey(goodsId)),
+                member(userId), String.valueOf(RedisKeyConstants.KILLED_EXPIRE_SECONDS));
+    }
+
+    @Override
+    public void removeKilledMark(Long goodsId, Long userId) {
+        redisTemplate.opsForHash().delete(RedisKeyConstants.killedHashKey(goodsId), member(userId));
+    }
+
+    @Override
+    public KilledStoreType type() {
+        return KilledStoreType.HASH;
+    }
+
+    @Override
+    public String storeKey(Long goodsId, Long userId) {
+        return RedisKeyConstants.killedHashKey(goodsId);
+    }
+
+    @Override
+    public String member(Long userId) {
+        return String.valueOf(Objects.requireNonNull(userId, "userId cannot be null"));
+    }
+}
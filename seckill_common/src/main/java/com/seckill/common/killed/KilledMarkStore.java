@@ -0,0 +1,81 @@
+package com.seckill.common.killed;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 已秒杀标记存储
+ * <p>
+ * 统一「一人一单」标记的读写入口，库存服务的秒杀流程与订单服务的补偿任务共用同一实现，
+ * 两个服务必须配置相同的存储类型（seckill.killed.store）
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+public interface KilledMarkStore {
+
+    /**
+     * 检查用户是否已秒杀该商品
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @return true-已秒杀
+     */
+    boolean hasKilled(Long goodsId, Long userId);
+
+    /**
+     * 标记用户已秒杀
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     */
+    void markKilled(Long goodsId, Long userId);
+
+    /**
+     * 清除已秒杀标记
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     */
+    void removeKilledMark(Long goodsId, Long userId);
+
+    /**
+     * 存储类型
+     *
+     * @return 存储类型
+     */
+    KilledStoreType type();
+
+    /**
+     * 标记所在的 Redis Key（供 Lua 脚本使用）
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @return Redis Key
+     */
+    String storeKey(Long goodsId, Long userId);
+
+    /**
+     * 标记在 Key 内的成员（位图为偏移量，哈希为字段，字符串 key 无成员返回空串）
+     *
+     * @param userId 用户ID
+     * @return 成员
+     */
+    String member(Long userId);
+
+    /**
+     * 按存储类型创建实现
+     *
+     * @param type              存储类型
+     * @param redisTemplate     Redis 模板
+     * @param colocateWithStock 字符串 key 是否与库存 key 同槽位（位图与哈希始终同槽位）
+     * @return 标记存储
+     */
+    static KilledMarkStore create(KilledStoreType type, StringRedisTemplate redisTemplate, boolean colocateWithStock) {
+        return switch (type) {
+            case BITMAP -> new BitmapKilledMarkStore(redisTemplate);
+            case HASH -> new HashKilledMarkStore(redisTemplate);
+            default -> new StringKilledMarkStore(redisTemplate, colocateWithStock);
+        };
+    }
+}
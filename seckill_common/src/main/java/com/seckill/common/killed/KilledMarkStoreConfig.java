@@ -0,0 +1,40 @@
+package com.seckill.common.killed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 已秒杀标记存储配置
+ * <p>
+ * 库存服务与订单服务共用（均扫描 com.seckill.common），两个服务的 seckill.killed.store
+ * 与 seckill.killed.colocate-with-stock 需保持一致
+ * </p>
+ * <p>
+ * Redis Cluster 下使用脚本准入（seckill.admission.mode=script）且存储类型为 string 时，需开启
+ * colocate-with-stock，让标记 key 与库存 key 落在同一槽位。开启后 key 格式改变，已有标记不会被读到，
+ * 只能在没有进行中活动时切换（或先把旧 key 迁移为新格式）
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Configuration
+public class KilledMarkStoreConfig {
+
+    @Value("${seckill.killed.store:string}")
+    private String storeType;
+
+    @Value("${seckill.killed.colocate-with-stock:false}")
+    private boolean colocateWithStock;
+
+    @Bean
+    public KilledMarkStore killedMarkStore(StringRedisTemplate redisTemplate) {
+        KilledStoreType type = KilledStoreType.of(storeType);
+        log.info("已秒杀标记存储类型: {}, 与库存同槽位: {}", type, colocateWithStock);
+        return KilledMarkStore.create(type, redisTemplate, colocateWithStock);
+    }
+}
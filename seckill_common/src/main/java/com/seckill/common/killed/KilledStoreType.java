@@ -0,0 +1,49 @@
+package com.seckill.common.killed;
+
+import java.util.Arrays;
+
+/**
+ * 已秒杀标记存储类型
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+public enum KilledStoreType {
+
+    /**
+     * 每个用户一个字符串 key：seckill:killed:goodsId:userId（同槽位格式为 seckill:killed:{seckill:stock:goodsId}:userId）
+     */
+    STRING,
+
+    /**
+     * 每个商品一个位图，以 userId 为偏移量：seckill:killed:bitmap:{seckill:stock:goodsId}
+     */
+    BITMAP,
+
+    /**
+     * 每个商品一个哈希，以 userId 为字段：seckill:killed:hash:{seckill:stock:goodsId}
+     */
+    HASH;
+
+    /**
+     * 按配置值解析存储类型（忽略大小写，未知值回退为 STRING）
+     *
+     * @param value 配置值
+     * @return 存储类型
+     */
+    public static KilledStoreType of(String value) {
+        return Arrays.stream(values())
+                .filter(type -> type.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElse(STRING);
+    }
+
+    /**
+     * Lua 脚本中使用的类型标识
+     *
+     * @return 小写类型名
+     */
+    public String code() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,65 @@
+package com.seckill.common.killed;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串 key 标记存储（默认）
+ * <p>
+ * 每个成功用户一个带过期时间的 key，实现简单，但用户量大时 key 数量与内存开销最高
+ * </p>
+ * <p>
+ * 默认沿用原有 key 格式；开启 colocateWithStock 后改用与库存 key 同槽位的格式，
+ * 供 Redis Cluster 下的脚本准入使用
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@RequiredArgsConstructor
+public class StringKilledMarkStore implements KilledMarkStore {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final boolean colocateWithStock;
+
+    @Override
+    public boolean hasKilled(Long goodsId, Long userId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key(goodsId, userId)));
+    }
+
+    @Override
+    public void markKilled(Long goodsId, Long userId) {
+        redisTemplate.opsForValue().set(key(goodsId, userId), "1",
+                RedisKeyConstants.KILLED_EXPIRE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void removeKilledMark(Long goodsId, Long userId) {
+        redisTemplate.delete(key(goodsId, userId));
+    }
+
+    @Override
+    public KilledStoreType type() {
+        return KilledStoreType.STRING;
+    }
+
+    @Override
+    public String storeKey(Long goodsId, Long userId) {
+        return key(goodsId, userId);
+    }
+
+    @Override
+    public String member(Long userId) {
+        return "";
+    }
+
+    private String key(Long goodsId, Long userId) {
+        return colocateWithStock
+                ? RedisKeyConstants.colocatedKilledKey(goodsId, userId)
+                : RedisKeyConstants.killedKey(goodsId, userId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.seckill.common.constant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis Key 常量单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("Redis Key 常量单元测试")
+public class RedisKeyConstantsTest {
+
+    @Test
+    @DisplayName("库存与字符串已秒杀标记保持原有格式")
+    void testLegacyFormats() {
+        assertEquals("seckill:stock:1", RedisKeyConstants.stockKey(1L));
+        assertEquals("seckill:killed:1:100", RedisKeyConstants.killedKey(1L, 100L));
+    }
+
+    @Test
+    @DisplayName("同脚本访问的 Key 与原格式库存 Key 同槽位")
+    void testColocatedWithStockKey() {
+        String tag = "{seckill:stock:1}";
+
+        assertEquals(tag, RedisKeyConstants.slotTag(RedisKeyConstants.stockKey(1L)));
+        assertEquals("seckill:killed:" + tag + ":100", RedisKeyConstants.colocatedKilledKey(1L, 100L));
+        assertEquals("seckill:killed:bitmap:" + tag, RedisKeyConstants.killedBitmapKey(1L));
+        assertEquals("seckill:killed:hash:" + tag, RedisKeyConstants.killedHashKey(1L));
+        assertEquals("seckill:stock:lease:" + tag, RedisKeyConstants.stockLeaseKey(1L));
+        assertEquals("seckill:stock:rollback:done:" + tag + ":9",
+                RedisKeyConstants.stockRollbackDoneKey(RedisKeyConstants.stockKey(1L), 9L));
+    }
+
+    @Test
+    @DisplayName("分片 Key 沿用自身的 hash tag")
+    void testShardKeyTag() {
+        String shardKey = RedisKeyConstants.stockShardKey(1L, 2);
+
+        assertEquals("seckill:stock:{1:shard:2}", shardKey);
+        assertEquals("{1:shard:2}", RedisKeyConstants.slotTag(shardKey));
+        assertEquals("seckill:stock:rollback:done:{1:shard:2}:9",
+                RedisKeyConstants.stockRollbackDoneKey(shardKey, 9L));
+    }
+}
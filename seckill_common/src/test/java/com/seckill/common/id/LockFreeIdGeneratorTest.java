@@ -0,0 +1,78 @@
+package com.seckill.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 无锁 ID 生成器单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("无锁ID生成器单元测试")
+public class LockFreeIdGeneratorTest {
+
+    @Test
+    @DisplayName("ID 布局与加锁实现一致")
+    void testLayoutCompatible() {
+        long id = new LockFreeIdGenerator(3, 2).nextId();
+
+        assertEquals(3, (id >> 12) & 0x1F);
+        assertEquals(2, (id >> 17) & 0x1F);
+        assertTrue(new DistributedIdGenerator(3, 2).nextId() >= id);
+    }
+
+    @Test
+    @DisplayName("批量生成严格递增")
+    void testNextIdsMonotonic() {
+        long[] ids = new LockFreeIdGenerator(1, 1).nextIds(10_000);
+
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+    }
+
+    @Test
+    @DisplayName("并发生成无重复（含预取与批量）")
+    void testConcurrentUnique() throws Exception {
+        for (int prefetchSize : new int[]{0, 100}) {
+            LockFreeIdGenerator generator = new LockFreeIdGenerator(1, 1, prefetchSize);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[20_000];
+                    for (int i = 0; i < 10_000; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    System.arraycopy(generator.nextIds(10_000), 0, ids, 10_000, 10_000);
+                    return ids;
+                }));
+            }
+
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                for (long id : future.get(30, TimeUnit.SECONDS)) {
+                    assertTrue(seen.add(id), "重复ID: " + id);
+                }
+            }
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("非法参数")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeIdGenerator(32, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeIdGenerator(1, 1, 5000));
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeIdGenerator(1, 1).nextIds(0));
+    }
+}
@@ -0,0 +1,108 @@
+package com.seckill.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 逻辑时钟 ID 生成器单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("逻辑时钟ID生成器单元测试")
+public class LogicalClockIdGeneratorTest {
+
+    private static final long EPOCH = 1704067200000L;
+
+    /**
+     * 每毫秒序列号容量
+     */
+    private static final int PER_MILLIS = 4096;
+
+    /**
+     * 可手动调整的墙上时钟
+     */
+    private final AtomicLong now = new AtomicLong(EPOCH + 1_000_000L);
+
+    private LogicalClockIdGenerator generator(long maxLeadMillis) {
+        return new LogicalClockIdGenerator(1, 1, maxLeadMillis, now::get);
+    }
+
+    @Test
+    @DisplayName("序列号溢出时借用未来时间，ID 仍严格递增")
+    void testBorrowFutureMillis() {
+        LogicalClockIdGenerator generator = generator(10);
+
+        long[] ids = generator.nextIds(PER_MILLIS * 3);
+
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertEquals(now.get() - EPOCH, ids[0] >> 22);
+        assertEquals(now.get() - EPOCH + 2, ids[ids.length - 1] >> 22);
+        assertEquals(2, generator.leadMillis());
+        assertEquals(1, generator.borrowedCount());
+    }
+
+    @Test
+    @DisplayName("时钟回拨时沿用逻辑时钟继续递增，墙上时钟追上后恢复")
+    void testClockRollback() {
+        LogicalClockIdGenerator generator = generator(10);
+        long before = generator.nextId();
+
+        now.addAndGet(-5);
+        long during = generator.nextId();
+
+        assertTrue(during > before);
+        assertEquals(5, generator.leadMillis());
+        assertEquals(1, generator.borrowedCount());
+
+        now.addAndGet(10);
+        long after = generator.nextId();
+
+        assertTrue(after > during);
+        assertEquals(now.get() - EPOCH, after >> 22);
+        assertEquals(0, generator.leadMillis());
+        assertEquals(1, generator.borrowedCount());
+    }
+
+    @Test
+    @DisplayName("回拨超过最大领先时间时拒绝发号，时钟恢复后继续")
+    void testRollbackBeyondMaxLead() {
+        LogicalClockIdGenerator generator = generator(10);
+        long before = generator.nextId();
+
+        now.addAndGet(-11);
+        assertThrows(RuntimeException.class, generator::nextId);
+
+        now.addAndGet(11);
+        assertTrue(generator.nextId() > before);
+    }
+
+    @Test
+    @DisplayName("批量预留超过最大领先时间时整批拒绝，不占用逻辑时钟")
+    void testNextIdsBeyondMaxLead() {
+        LogicalClockIdGenerator generator = generator(10);
+
+        assertThrows(RuntimeException.class, () -> generator.nextIds(PER_MILLIS * 12));
+
+        assertEquals(0, generator.leadMillis());
+        assertEquals(now.get() - EPOCH, generator.nextId() >> 22);
+    }
+
+    @Test
+    @DisplayName("启动时等待最大领先时间，避开上次运行借用的未来时间")
+    void testRestartWaitsOutMaxLead() {
+        long start = System.nanoTime();
+
+        new LogicalClockIdGenerator(1, 1, 50);
+
+        // 等待按毫秒时钟计算，留出时钟粒度的误差
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 45);
+    }
+}
@@ -0,0 +1,132 @@
+package com.seckill.common.id;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 号段 ID 生成器单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("号段ID生成器单元测试")
+public class SegmentIdGeneratorTest {
+
+    private static final String BIZ_TAG = "order";
+    private static final long STEP = 10L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    /**
+     * 模拟 Redis 中的号段计数器
+     */
+    private final AtomicLong counter = new AtomicLong();
+
+    private final Answer<Long> incrBy = inv -> counter.addAndGet(inv.<Long>getArgument(1));
+
+    private SegmentIdGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (generator != null) {
+            generator.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("跨多次号段切换仍连续递增")
+    void testMonotonicAcrossRefills() {
+        when(valueOperations.increment(RedisKeyConstants.idSegmentKey(BIZ_TAG), STEP)).thenAnswer(incrBy);
+        generator = new SegmentIdGenerator(redisTemplate, BIZ_TAG, STEP, 0.5);
+
+        // 单线程按号段顺序消费，预取的号段依次接上
+        for (long expected = 1; expected <= STEP * 100; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+    }
+
+    @Test
+    @DisplayName("预取失败时切换号段同步领取，不丢号不重号")
+    void testPrefetchFailureFallback() {
+        when(valueOperations.increment(RedisKeyConstants.idSegmentKey(BIZ_TAG), STEP))
+                .thenAnswer(incrBy)
+                .thenThrow(new RedisConnectionFailureException("Redis 不可用"))
+                .thenAnswer(incrBy);
+        generator = new SegmentIdGenerator(redisTemplate, BIZ_TAG, STEP, 0.5);
+
+        for (long expected = 1; expected <= STEP * 3; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+    }
+
+    @Test
+    @DisplayName("并发生成跨号段无重复，单线程内递增")
+    void testConcurrentUnique() throws Exception {
+        when(valueOperations.increment(RedisKeyConstants.idSegmentKey(BIZ_TAG), 100L)).thenAnswer(incrBy);
+        generator = new SegmentIdGenerator(redisTemplate, BIZ_TAG, 100L, 0.2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[10_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> all = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(all.add(ids[i]), "重复 ID: " + ids[i]);
+                if (i > 0) {
+                    assertTrue(ids[i] > ids[i - 1]);
+                }
+            }
+        }
+        executor.shutdown();
+        assertEquals(80_000, all.size());
+    }
+
+    @Test
+    @DisplayName("号段长度与预取比例校验")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentIdGenerator(redisTemplate, BIZ_TAG, 0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new SegmentIdGenerator(redisTemplate, BIZ_TAG, STEP, 1.0));
+    }
+}
@@ -0,0 +1,83 @@
+package com.seckill.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分片基因 ID 生成器单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("分片基因ID生成器单元测试")
+public class ShardGeneIdGeneratorTest {
+
+    @Test
+    @DisplayName("ID 低位等于用户ID基因")
+    void testGeneEmbedded() {
+        ShardGeneIdGenerator generator = ShardGeneIdGenerator.masking(new LockFreeIdGenerator(1, 1), 4);
+
+        for (long userId = 1000; userId < 1100; userId++) {
+            long id = generator.nextId(userId);
+            assertEquals(ShardGeneIdGenerator.geneOf(userId, 4), ShardGeneIdGenerator.geneOf(id, 4));
+        }
+    }
+
+    @Test
+    @DisplayName("并发生成无重复，且保持递增块")
+    void testConcurrentUnique() throws Exception {
+        ShardGeneIdGenerator generator = ShardGeneIdGenerator.masking(new LockFreeIdGenerator(1, 1), 3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long userId = t;
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[5_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId(userId + i);
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        Set<Long> blocks = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            for (long id : future.get(30, TimeUnit.SECONDS)) {
+                assertTrue(seen.add(id), "重复ID: " + id);
+                assertTrue(blocks.add(id >>> 3), "对齐块被重复使用: " + id);
+            }
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("号段模式左移拼接基因")
+    void testShifting() {
+        AtomicLong segment = new AtomicLong(100);
+        ShardGeneIdGenerator generator = ShardGeneIdGenerator.shifting(segment::incrementAndGet, 2);
+
+        assertEquals((101L << 2) | 3, generator.nextId(7));
+        assertEquals(102L << 2, generator.nextId());
+
+        ShardGeneIdGenerator overflow = ShardGeneIdGenerator.shifting(() -> Long.MAX_VALUE >>> 1, 2);
+        assertThrows(IllegalStateException.class, () -> overflow.nextId(1));
+    }
+
+    @Test
+    @DisplayName("非法基因位数")
+    void testInvalidGeneBits() {
+        IdGenerator delegate = new LockFreeIdGenerator(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> ShardGeneIdGenerator.masking(delegate, 0));
+        assertThrows(IllegalArgumentException.class, () -> ShardGeneIdGenerator.masking(delegate, 11));
+    }
+}
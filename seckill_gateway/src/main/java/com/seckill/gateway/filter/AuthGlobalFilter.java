@@ -66,7 +66,8 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
      * 管理员接口路径（需要 admin 角色）
      */
     private static final Set<String> ADMIN_PATHS = Set.of(
-            "/api/stock/seckill/init/**");
+            "/api/stock/seckill/init/**",
+            "/api/order/admin/**");
 
     /**
      * 获取签名密钥
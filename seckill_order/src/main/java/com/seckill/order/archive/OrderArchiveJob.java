@@ -0,0 +1,89 @@
+package com.seckill.order.archive;
+
+import com.seckill.order.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 历史订单归档任务
+ * <p>
+ * 开启 seckill.order-archive.enabled 后定时把已结束的历史订单从热表迁入 seckill_order_archive：
+ * </p>
+ * <ul>
+ * <li>已收货 / 已取消 / 已超时且创建时间早于 now - retention-days 的订单可归档</li>
+ * <li>每批在一个事务内锁定最多 chunk-size 条（走 (status, deleted, create_time) 索引，SKIP LOCKED），
+ * INSERT ... SELECT 复制到归档表后从热表物理删除，分表时依次处理各分片</li>
+ * <li>热表只保留进行中与近期订单，uk_user_goods 等索引的大小不再随历史增长，写入与索引维护成本保持稳定</li>
+ * <li>查询在热表未命中时回查归档表，见 seckill.order-archive.read-fallback</li>
+ * </ul>
+ * <p>
+ * 每轮最多处理 max-chunks 批，批间暂停 chunk-pause-ms，避免长时间占用数据库与复制带宽
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderArchiveJob {
+
+    private final OrderService orderService;
+
+    @Value("${seckill.order-archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.order-archive.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${seckill.order-archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${seckill.order-archive.max-chunks:20}")
+    private int maxChunks;
+
+    @Value("${seckill.order-archive.chunk-pause-ms:100}")
+    private long chunkPauseMs;
+
+    /**
+     * 归档历史订单，剩余的留到下一轮
+     */
+    @Scheduled(fixedDelayString = "${seckill.order-archive.interval-ms:60000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime deadline = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        for (int i = 0; i < maxChunks; i++) {
+            int archived = orderService.archiveFinishedOrders(deadline, chunkSize);
+            total += archived;
+            if (archived < chunkSize || !pause()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("历史订单归档完成 - archived: {}, deadline: {}", total, deadline);
+        }
+    }
+
+    /**
+     * 批间暂停
+     *
+     * @return false-线程被中断
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
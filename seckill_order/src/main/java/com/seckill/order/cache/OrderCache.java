@@ -0,0 +1,274 @@
+package com.seckill.order.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seckill.common.constant.RedisKeyConstants;
+import com.seckill.order.entity.SeckillOrder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 订单读缓存（本地 + Redis 两级）
+ * <p>
+ * 秒杀结束后用户反复刷新订单页，订单详情和订单列表改为读穿缓存，不再每次查询主库：
+ * </p>
+ * <ul>
+ * <li>第一级为容量有限、短 TTL 的本地缓存，同一 Key 的并发未命中只回源一次</li>
+ * <li>第二级为 Redis（订单号 -> 订单，订单ID -> 订单号，用户ID -> 订单列表），多实例共享</li>
+ * <li>下单、支付、取消、超时等写操作在事务提交后删除对应的 Redis Key 和本实例本地缓存，
+ * 并延迟再删一次，避免并发读在提交前回源写回旧值；其他实例的本地缓存由短 TTL 兜底</li>
+ * <li>Redis 异常时降级为直接查询数据库</li>
+ * </ul>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderCache {
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${seckill.order-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.order-cache.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${seckill.order-cache.local-ttl-seconds:2}")
+    private long localTtlSeconds;
+
+    @Value("${seckill.order-cache.redis-ttl-seconds:60}")
+    private long redisTtlSeconds;
+
+    @Value("${seckill.order-cache.user-list-max-size:100}")
+    private int userListMaxSize;
+
+    @Value("${seckill.order-cache.double-delete-delay-ms:500}")
+    private long doubleDeleteDelayMillis;
+
+    private Cache<Long, SeckillOrder> orders;
+    private Cache<Long, Long> orderNos;
+    private Cache<Long, List<SeckillOrder>> userOrders;
+    private ScheduledExecutorService delayedEvictor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        orders = newLocalCache();
+        orderNos = newLocalCache();
+        userOrders = newLocalCache();
+        delayedEvictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-cache-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("订单读缓存已启用 - localMaxSize: {}, localTtlSeconds: {}, redisTtlSeconds: {}",
+                localMaxSize, localTtlSeconds, redisTtlSeconds);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (delayedEvictor != null) {
+            delayedEvictor.shutdownNow();
+        }
+    }
+
+    /**
+     * 按订单号查询
+     *
+     * @param orderNo 订单号
+     * @param loader  未命中时的数据库查询
+     * @return 订单
+     */
+    public Optional<SeckillOrder> getByOrderNo(Long orderNo, Function<Long, SeckillOrder> loader) {
+        if (!enabled) {
+            return Optional.ofNullable(loader.apply(orderNo));
+        }
+        return Optional.ofNullable(orders.get(orderNo, no -> readThrough(
+                RedisKeyConstants.orderCacheNoKey(no),
+                json -> JSON.parseObject(json, SeckillOrder.class),
+                () -> loader.apply(no))));
+    }
+
+    /**
+     * 按订单ID查询（ID -> 订单号的映射不会变化，订单本身仍按订单号缓存和失效）
+     *
+     * @param orderId 订单ID
+     * @param loader  未命中时的数据库查询
+     * @return 订单
+     */
+    public Optional<SeckillOrder> getById(Long orderId, Function<Long, SeckillOrder> loader) {
+        if (!enabled) {
+            return Optional.ofNullable(loader.apply(orderId));
+        }
+        Long orderNo = orderNos.get(orderId, id -> readRedis(RedisKeyConstants.orderCacheIdKey(id))
+                .map(Long::valueOf)
+                .orElse(null));
+        if (orderNo != null) {
+            return getByOrderNo(orderNo, no -> loader.apply(orderId));
+        }
+
+        SeckillOrder order = loader.apply(orderId);
+        if (order != null) {
+            orderNos.put(orderId, order.getOrderNo());
+            writeRedis(RedisKeyConstants.orderCacheIdKey(orderId), String.valueOf(order.getOrderNo()));
+        }
+        return Optional.ofNullable(order);
+    }
+
+    /**
+     * 查询用户订单列表
+     *
+     * @param userId 用户ID
+     * @param loader 未命中时的数据库查询
+     * @return 订单列表
+     */
+    public List<SeckillOrder> listByUserId(Long userId, Function<Long, List<SeckillOrder>> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        return userOrders.get(userId, id -> {
+            String key = RedisKeyConstants.orderCacheUserKey(id);
+            return readRedis(key)
+                    .map(json -> JSON.parseArray(json, SeckillOrder.class))
+                    .orElseGet(() -> {
+                        List<SeckillOrder> list = loader.apply(id);
+                        // 订单过多的用户只做本地短时缓存，避免 Redis 大 Value
+                        if (list.size() <= userListMaxSize) {
+                            writeRedis(key, JSON.toJSONString(list));
+                        }
+                        return list;
+                    });
+        });
+    }
+
+    /**
+     * 订单变更后失效订单和所属用户的列表（事务提交后执行）
+     *
+     * @param orderNo 订单号
+     * @param userId  用户ID（未知时传 null）
+     */
+    public void evict(Long orderNo, Long userId) {
+        if (!enabled) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(2);
+        Optional.ofNullable(orderNo).map(RedisKeyConstants::orderCacheNoKey).ifPresent(keys::add);
+        Optional.ofNullable(userId).map(RedisKeyConstants::orderCacheUserKey).ifPresent(keys::add);
+        afterCommit(() -> {
+            Optional.ofNullable(orderNo).ifPresent(orders::invalidate);
+            Optional.ofNullable(userId).ifPresent(userOrders::invalidate);
+            deleteRedis(keys);
+        });
+    }
+
+    /**
+     * 批量订单变更后失效（事务提交后执行）
+     *
+     * @param changed 变更的订单（需包含 orderNo、userId）
+     */
+    public void evictAll(Collection<SeckillOrder> changed) {
+        if (!enabled || changed.isEmpty()) {
+            return;
+        }
+        List<Long> nos = changed.stream().map(SeckillOrder::getOrderNo).distinct().toList();
+        List<Long> users = changed.stream().map(SeckillOrder::getUserId).distinct().toList();
+        List<String> keys = new ArrayList<>(nos.size() + users.size());
+        nos.forEach(no -> keys.add(RedisKeyConstants.orderCacheNoKey(no)));
+        users.forEach(userId -> keys.add(RedisKeyConstants.orderCacheUserKey(userId)));
+        afterCommit(() -> {
+            orders.invalidateAll(nos);
+            userOrders.invalidateAll(users);
+            deleteRedis(keys);
+        });
+    }
+
+    private <K, V> Cache<K, V> newLocalCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+    }
+
+    /**
+     * 先读 Redis，未命中时回源并写回 Redis；回源结果为 null 时不缓存
+     */
+    private <V> V readThrough(String key, Function<String, V> parser, Supplier<V> loader) {
+        Optional<V> cached = readRedis(key).map(parser);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        V value = loader.get();
+        if (value != null) {
+            writeRedis(key, JSON.toJSONString(value));
+        }
+        return value;
+    }
+
+    private Optional<String> readRedis(String key) {
+        try {
+            return Optional.ofNullable(redisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            log.warn("读取订单缓存失败，回源数据库 - key: {}, error: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeRedis(String key, String value) {
+        try {
+            redisTemplate.opsForValue().set(key, value, redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入订单缓存失败 - key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    private void deleteRedis(List<String> keys) {
+        Runnable delete = () -> {
+            try {
+                redisTemplate.delete(keys);
+            } catch (Exception e) {
+                // 删除失败时旧值最多保留 redis-ttl-seconds
+                log.warn("删除订单缓存失败 - keys: {}, error: {}", keys, e.getMessage());
+            }
+        };
+        delete.run();
+        // 延迟双删：覆盖提交前已回源、提交后才写回 Redis 的并发读
+        delayedEvictor.schedule(delete, doubleDeleteDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
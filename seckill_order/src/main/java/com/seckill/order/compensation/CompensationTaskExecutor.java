@@ -2,19 +2,29 @@ package com.seckill.order.compensation;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.common.entity.CompensationTask;
+import com.seckill.common.killed.KilledMarkStore;
+import com.seckill.common.result.Result;
 import com.seckill.order.feign.StockFeignClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.function.BiConsumer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -28,6 +38,14 @@ import java.util.function.Consumer;
  * <li>BiConsumer 处理任务执行</li>
  * <li>Map 存储任务处理器</li>
  * </ul>
+ * <p>
+ * 每轮按页认领到期任务（每页 page-size 条，最多 max-pages 页），一次 MGET 加载后交给固定大小的工作线程池并行执行；
+ * 单轮开销只与到期任务数相关，与积压总量无关。
+ * </p>
+ * <p>
+ * 调度线程只负责认领与提交，不等待任务执行完成；每轮认领数不超过工作线程池的剩余容量（workers + queue-capacity），
+ * 调度线程不会被补偿任务占用，也不会阻塞同一调度线程池上的其他定时任务。
+ * </p>
  *
  * @author seckill
  * @since 2.0.0
@@ -39,36 +57,126 @@ public class CompensationTaskExecutor {
 
     private final CompensationTaskService compensationTaskService;
     private final StockFeignClient stockFeignClient;
-    private final StringRedisTemplate redisTemplate;
+    private final KilledMarkStore killedMarkStore;
+
+    @Value("${seckill.compensation.page-size:200}")
+    private int pageSize;
+
+    @Value("${seckill.compensation.max-pages:50}")
+    private int maxPages;
 
-    private static final String KILLED_KEY_PREFIX = "seckill:killed:";
+    @Value("${seckill.compensation.workers:8}")
+    private int workers;
+
+    @Value("${seckill.compensation.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${seckill.compensation.claim-lease-ms:300000}")
+    private long claimLeaseMillis;
+
+    private ExecutorService workerPool;
+
+    /**
+     * 已提交尚未执行完成的任务数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     /**
      * 任务处理器映射（使用 Java 8 Lambda）
      */
     private final Map<String, Consumer<JSONObject>> taskHandlers = Map.of(
             "STOCK_ROLLBACK", this::handleStockRollback,
+            "STOCK_ROLLBACK_BATCH", this::handleStockRollbackBatch,
             "KILLED_MARK_REMOVE", this::handleKilledMarkRemove,
             "STOCK_SYNC", this::handleStockSync);
 
+    @PostConstruct
+    public void start() {
+        AtomicInteger seq = new AtomicInteger();
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "compensation-worker-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 未执行完的任务租约过期后被再次认领
+        workerPool.shutdownNow();
+    }
+
     /**
-     * 定时执行补偿任务（每分钟）
+     * 定时执行补偿任务
      */
-    @Scheduled(fixedDelay = 60000)
+    @Scheduled(fixedDelayString = "${seckill.compensation.poll-interval-ms:5000}")
     public void executeCompensationTasks() {
         log.debug("开始执行补偿任务扫描");
 
-        Set<String> taskIds = compensationTaskService.getPendingTaskIds();
+        compensationTaskService.migrateLegacyPending(pageSize);
+
+        int submitted = 0;
+        for (int page = 0; page < maxPages; page++) {
+            // 只认领工作线程池还能容纳的数量，其余到期任务留在队列中等下一轮
+            int limit = Math.min(pageSize, workers + queueCapacity - inFlight.get());
+            if (limit <= 0) {
+                break;
+            }
+            List<String> taskIds = compensationTaskService.claimDueTasks(limit, claimLeaseMillis);
+            if (taskIds.isEmpty()) {
+                break;
+            }
+            Map<String, CompensationTask> tasks = compensationTaskService.getTasks(taskIds);
+
+            taskIds.forEach(taskId -> Optional.ofNullable(tasks.get(taskId))
+                    .ifPresentOrElse(this::submit, () -> compensationTaskService.removeOrphan(taskId)));
 
-        // 使用 Stream API 处理任务
-        taskIds.stream()
-                .map(compensationTaskService::getTask)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(this::shouldExecute)
-                .forEach(this::processTask);
+            submitted += taskIds.size();
+            if (taskIds.size() < limit) {
+                break;
+            }
+        }
 
-        log.debug("补偿任务扫描完成 - 待处理: {}", taskIds.size());
+        if (submitted > 0) {
+            log.info("补偿任务扫描完成 - 提交: {}, 执行中: {}, 剩余: {}",
+                    submitted, inFlight.get(), compensationTaskService.pendingCount());
+        }
+    }
+
+    /**
+     * 提交到工作线程池，不等待执行完成
+     */
+    private void submit(CompensationTask task) {
+        inFlight.incrementAndGet();
+        try {
+            workerPool.execute(() -> {
+                try {
+                    dispatch(task);
+                } catch (Exception e) {
+                    log.error("补偿任务调度失败 - taskId: {}", task.getTaskId(), e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            // 停机中，重新登记等待下次认领
+            compensationTaskService.reschedule(task);
+        }
+    }
+
+    /**
+     * 执行到期任务，未到期或已结束的任务按当前状态重新登记
+     */
+    private void dispatch(CompensationTask task) {
+        if (shouldExecute(task)) {
+            processTask(task);
+        } else {
+            compensationTaskService.reschedule(task);
+        }
     }
 
     /**
@@ -76,7 +184,7 @@ public class CompensationTaskExecutor {
      */
     private boolean shouldExecute(CompensationTask task) {
         return task.getStatus() == CompensationTask.Status.PENDING
-                && task.getNextExecuteTime().isBefore(LocalDateTime.now())
+                && !task.getNextExecuteTime().isAfter(LocalDateTime.now())
                 && task.getRetryCount() < task.getMaxRetries();
     }
 
@@ -98,7 +206,12 @@ public class CompensationTaskExecutor {
                                         CompensationTask.Status.SUCCESS);
                                 log.info("补偿任务执行成功 - taskId: {}", task.getTaskId());
                             },
-                            () -> log.warn("未知任务类型 - taskType: {}", task.getTaskType()));
+                            () -> {
+                                // 未知类型不会再被执行，直接结束以免反复认领
+                                log.warn("未知任务类型 - taskType: {}", task.getTaskType());
+                                compensationTaskService.updateTaskStatus(task.getTaskId(),
+                                        CompensationTask.Status.FAILED);
+                            });
 
         } catch (Exception e) {
             log.error("补偿任务执行失败 - taskId: {}", task.getTaskId(), e);
@@ -115,13 +228,48 @@ public class CompensationTaskExecutor {
 
     /**
      * 处理库存回滚
+     * <p>
+     * 合并任务的负载只有商品ID，回滚数量取自按商品累计的值；旧版任务负载中自带数量
+     * </p>
      */
     private void handleStockRollback(JSONObject payload) {
         Long goodsId = payload.getLong("goodsId");
         Integer count = payload.getInteger("count");
 
-        stockFeignClient.rollbackStock(goodsId, count);
-        log.info("库存回滚成功 - goodsId: {}, count: {}", goodsId, count);
+        if (count != null) {
+            stockFeignClient.rollbackStock(goodsId, count);
+            log.info("库存回滚成功 - goodsId: {}, count: {}", goodsId, count);
+            return;
+        }
+
+        int delta = compensationTaskService.takeStockRollbackDelta(goodsId);
+        if (delta <= 0) {
+            return;
+        }
+        try {
+            Result<Boolean> result = stockFeignClient.rollbackStock(goodsId, delta);
+            if (result == null || !result.isSuccess()) {
+                throw new IllegalStateException("库存回滚失败: " + Optional.ofNullable(result).map(Result::getMessage).orElse("无响应"));
+            }
+        } catch (RuntimeException e) {
+            // 归还数量，下次重试时与新累加的数量一起回滚
+            compensationTaskService.restoreStockRollbackDelta(goodsId, delta);
+            throw e;
+        }
+        log.info("库存回滚成功 - goodsId: {}, count: {}", goodsId, delta);
+    }
+
+    /**
+     * 处理批量库存回滚（库存服务按订单号幂等，重试不会重复回补）
+     */
+    private void handleStockRollbackBatch(JSONObject payload) {
+        List<StockRollbackItem> items = payload.getJSONArray("items").toJavaList(StockRollbackItem.class);
+
+        Result<Map<Long, Integer>> result = stockFeignClient.rollbackStockBatch(items);
+        if (result == null || !result.isSuccess()) {
+            throw new IllegalStateException("批量库存回滚失败: " + Optional.ofNullable(result).map(Result::getMessage).orElse("无响应"));
+        }
+        log.info("批量库存回滚成功 - size: {}, applied: {}", items.size(), result.getData());
     }
 
     /**
@@ -131,8 +279,7 @@ public class CompensationTaskExecutor {
         Long userId = payload.getLong("userId");
         Long goodsId = payload.getLong("goodsId");
 
-        String key = KILLED_KEY_PREFIX + goodsId + ":" + userId;
-        redisTemplate.delete(key);
+        killedMarkStore.removeKilledMark(goodsId, userId);
         log.info("清除秒杀标记成功 - userId: {}, goodsId: {}", userId, goodsId);
     }
 
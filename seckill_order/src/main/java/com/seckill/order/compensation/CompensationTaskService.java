@@ -1,30 +1,49 @@
 package com.seckill.order.compensation;
 
+import com.alibaba.fastjson.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.common.entity.CompensationTask;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 补偿任务服务
  * <p>
- * 使用 Java 8 特性重构：
+ * 任务存储结构：
  * </p>
  * <ul>
- * <li>ConcurrentHashMap 线程安全</li>
- * <li>Optional 处理空值</li>
- * <li>Supplier 延迟初始化</li>
+ * <li>{@code seckill:compensation:task:{taskId}} 任务 JSON</li>
+ * <li>{@code seckill:compensation:due} 以下次执行时间为分数的 ZSET，执行器按分数分页认领，
+ * 不再每轮全量扫描</li>
+ * <li>{@code seckill:compensation:rollback:delta} 按商品累计的待回滚数量，
+ * 同一商品的库存回滚合并为一个任务，积压时任务数不随失败次数增长</li>
  * </ul>
+ * <p>
+ * 本地缓存有容量上限并写入后过期；旧版 SET {@code seckill:compensation:pending} 中的任务
+ * 由执行器分批迁移到 ZSET。
+ * </p>
  *
  * @author seckill
  * @since 2.0.0
@@ -37,19 +56,78 @@ public class CompensationTaskService {
     private final StringRedisTemplate redisTemplate;
 
     private static final String TASK_KEY_PREFIX = "seckill:compensation:task:";
-    private static final String PENDING_SET_KEY = "seckill:compensation:pending";
+    private static final String DUE_ZSET_KEY = "seckill:compensation:due";
+    private static final String ROLLBACK_DELTA_KEY = "seckill:compensation:rollback:delta";
+    private static final String LEGACY_PENDING_SET_KEY = "seckill:compensation:pending";
+    private static final String STOCK_ROLLBACK_TASK_PREFIX = "stock-rollback-goods-";
     private static final long TASK_EXPIRE_HOURS = 24L;
 
     /**
-     * 内存缓存（用于快速访问）
+     * Lua 脚本：累加商品待回滚数量，商品尚无排队任务时登记
+     * <p>
+     * KEYS[1] 待回滚数量 HASH，KEYS[2] 到期 ZSET；ARGV[1] 商品ID，ARGV[2] 数量，ARGV[3] 任务ID，ARGV[4] 执行时间
+     * </p>
+     */
+    private static final String COALESCE_LUA = "redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) " +
+            "if redis.call('zscore', KEYS[2], ARGV[3]) then return 0 end " +
+            "redis.call('zadd', KEYS[2], ARGV[4], ARGV[3]) " +
+            "return 1";
+
+    /**
+     * Lua 脚本：取出并清空商品待回滚数量
+     */
+    private static final String TAKE_DELTA_LUA = "local v = redis.call('hget', KEYS[1], ARGV[1]) " +
+            "if not v then return 0 end " +
+            "redis.call('hdel', KEYS[1], ARGV[1]) " +
+            "return tonumber(v)";
+
+    /**
+     * Lua 脚本：认领到期任务，分数改为租约到期时间
+     * <p>
+     * KEYS[1] 到期 ZSET；ARGV[1] 当前时间，ARGV[2] 最大认领数，ARGV[3] 租约到期时间
+     * </p>
+     */
+    private static final String CLAIM_LUA = "local ids = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "for _, id in ipairs(ids) do redis.call('zadd', KEYS[1], ARGV[3], id) end " +
+            "return ids";
+
+    /**
+     * Lua 脚本：结束任务；合并任务在执行期间又累加了数量时保留并返回 0
+     * <p>
+     * KEYS[1] 到期 ZSET，KEYS[2] 待回滚数量 HASH；ARGV[1] 任务ID，ARGV[2] 商品ID（非合并任务为空串）
+     * </p>
+     */
+    private static final String COMPLETE_LUA = "if ARGV[2] ~= '' and redis.call('hexists', KEYS[2], ARGV[2]) == 1 then return 0 end " +
+            "redis.call('zrem', KEYS[1], ARGV[1]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> COALESCE_SCRIPT = new DefaultRedisScript<>(COALESCE_LUA, Long.class);
+    private static final DefaultRedisScript<Long> TAKE_DELTA_SCRIPT = new DefaultRedisScript<>(TAKE_DELTA_LUA, Long.class);
+    private static final DefaultRedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(COMPLETE_LUA, Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(CLAIM_LUA, List.class);
+
+    @Value("${seckill.compensation.cache-max-size:10000}")
+    private long cacheMaxSize;
+
+    /**
+     * 内存缓存（用于快速访问，有容量上限）
      */
-    private final Map<String, CompensationTask> taskCache = new ConcurrentHashMap<>();
+    private Cache<String, CompensationTask> taskCache;
 
     /**
      * 任务 ID 生成器
      */
     private static final Supplier<String> TASK_ID_GENERATOR = () -> UUID.randomUUID().toString().replace("-", "");
 
+    @PostConstruct
+    public void init() {
+        taskCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(TASK_EXPIRE_HOURS))
+                .build();
+    }
+
     /**
      * 创建补偿任务
      */
@@ -57,33 +135,46 @@ public class CompensationTaskService {
         Objects.requireNonNull(taskType, "taskType cannot be null");
         Objects.requireNonNull(bizKey, "bizKey cannot be null");
 
-        String taskId = TASK_ID_GENERATOR.get();
+        CompensationTask task = newTask(TASK_ID_GENERATOR.get(), taskType, bizKey, payload);
 
-        CompensationTask task = CompensationTask.builder()
-                .taskId(taskId)
-                .taskType(taskType)
-                .bizKey(bizKey)
-                .payload(payload)
-                .status(CompensationTask.Status.PENDING)
-                .retryCount(0)
-                .maxRetries(3)
-                .createTime(LocalDateTime.now())
-                .nextExecuteTime(LocalDateTime.now())
-                .build();
-
-        // 存储到 Redis 和本地缓存
+        // 存储到 Redis 和本地缓存，并登记执行时间
         saveTask(task);
+        schedule(task);
 
-        log.info("创建补偿任务 - taskId: {}, taskType: {}, bizKey: {}", taskId, taskType, bizKey);
-        return taskId;
+        log.info("创建补偿任务 - taskId: {}, taskType: {}, bizKey: {}", task.getTaskId(), taskType, bizKey);
+        return task.getTaskId();
     }
 
     /**
      * 创建库存回滚任务
+     * <p>
+     * 同一商品的回滚数量累加到一个待执行任务上，执行时一次回滚累计值
+     * </p>
      */
     public String createStockRollbackTask(Long goodsId, Integer count) {
-        String payload = String.format("{\"goodsId\":%d,\"count\":%d}", goodsId, count);
-        return createTask("STOCK_ROLLBACK", "goods:" + goodsId, payload);
+        String taskId = STOCK_ROLLBACK_TASK_PREFIX + goodsId;
+        Long created = redisTemplate.execute(COALESCE_SCRIPT,
+                List.of(ROLLBACK_DELTA_KEY, DUE_ZSET_KEY),
+                String.valueOf(goodsId), String.valueOf(count), taskId,
+                String.valueOf(System.currentTimeMillis()));
+
+        if (Long.valueOf(1L).equals(created)) {
+            saveTask(newTask(taskId, "STOCK_ROLLBACK", "goods:" + goodsId,
+                    String.format("{\"goodsId\":%d}", goodsId)));
+            log.info("创建补偿任务 - taskId: {}, taskType: STOCK_ROLLBACK, goodsId: {}, count: {}", taskId, goodsId, count);
+        } else {
+            redisTemplate.expire(TASK_KEY_PREFIX + taskId, TASK_EXPIRE_HOURS, TimeUnit.HOURS);
+            log.info("库存回滚合并到已有补偿任务 - taskId: {}, goodsId: {}, count: {}", taskId, goodsId, count);
+        }
+        return taskId;
+    }
+
+    /**
+     * 创建批量库存回滚任务（按订单号幂等，可安全重试）
+     */
+    public String createStockRollbackBatchTask(List<StockRollbackItem> items) {
+        String payload = JSON.toJSONString(Map.of("items", items));
+        return createTask("STOCK_ROLLBACK_BATCH", "orders:" + items.get(0).getOrderNo(), payload);
     }
 
     /**
@@ -94,30 +185,96 @@ public class CompensationTaskService {
         return createTask("KILLED_MARK_REMOVE", "user:" + userId + ":goods:" + goodsId, payload);
     }
 
+    /**
+     * 取出商品累计的待回滚数量（取出后清零）
+     */
+    public int takeStockRollbackDelta(Long goodsId) {
+        Long delta = redisTemplate.execute(TAKE_DELTA_SCRIPT, List.of(ROLLBACK_DELTA_KEY), String.valueOf(goodsId));
+        return Optional.ofNullable(delta).map(Long::intValue).orElse(0);
+    }
+
+    /**
+     * 回滚失败时归还取出的数量
+     */
+    public void restoreStockRollbackDelta(Long goodsId, int count) {
+        redisTemplate.opsForHash().increment(ROLLBACK_DELTA_KEY, String.valueOf(goodsId), count);
+    }
+
     /**
      * 获取任务
      */
     public Optional<CompensationTask> getTask(String taskId) {
         // 优先从缓存获取
-        return Optional.ofNullable(taskCache.get(taskId))
+        return Optional.ofNullable(taskCache.getIfPresent(taskId))
                 .or(() -> loadFromRedis(taskId));
     }
 
+    /**
+     * 批量从 Redis 加载任务（一次 MGET，跳过本地缓存以读取其他实例的最新状态）
+     *
+     * @return taskId -> 任务，不存在的任务不在结果中
+     */
+    public Map<String, CompensationTask> getTasks(List<String> taskIds) {
+        List<String> jsons = redisTemplate.opsForValue().multiGet(
+                taskIds.stream().map(id -> TASK_KEY_PREFIX + id).collect(Collectors.toList()));
+        if (jsons == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, CompensationTask> tasks = new HashMap<>(taskIds.size() * 2);
+        for (int i = 0; i < taskIds.size(); i++) {
+            Optional.ofNullable(CompensationTask.fromJson(jsons.get(i))).ifPresent(task -> {
+                tasks.put(task.getTaskId(), task);
+                taskCache.put(task.getTaskId(), task);
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * 认领到期任务
+     * <p>
+     * 认领后分数改为租约到期时间，认领者宕机时租约过期后可被再次认领；多实例间不会同时执行同一任务
+     * </p>
+     *
+     * @param limit        最大认领数
+     * @param leaseMillis  租约时长（毫秒）
+     * @return 认领到的任务 ID
+     */
+    public List<String> claimDueTasks(int limit, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        @SuppressWarnings("unchecked")
+        List<String> claimed = redisTemplate.execute(CLAIM_SCRIPT, List.of(DUE_ZSET_KEY),
+                String.valueOf(now), String.valueOf(limit), String.valueOf(now + leaseMillis));
+        return Optional.ofNullable(claimed).orElse(Collections.emptyList());
+    }
+
     /**
      * 更新任务状态
+     * <p>
+     * 状态变更基于 Redis 中的最新任务读改写，不读本地缓存，避免用其他实例已更新过的旧副本覆盖
+     * </p>
      */
     public void updateTaskStatus(String taskId, CompensationTask.Status status) {
-        getTask(taskId).ifPresent(task -> {
+        loadFromRedis(taskId).ifPresent(task -> {
             task.setStatus(status);
             task.setUpdateTime(LocalDateTime.now());
 
             if (status == CompensationTask.Status.SUCCESS || status == CompensationTask.Status.FAILED) {
-                // 从待处理集合移除
-                redisTemplate.opsForSet().remove(PENDING_SET_KEY, taskId);
+                // 从到期队列移除；失败时合并任务的累计数量保留，下次创建同商品任务时继续回滚
+                String goodsId = status == CompensationTask.Status.SUCCESS ? coalescedGoodsId(taskId) : "";
+                Long removed = redisTemplate.execute(COMPLETE_SCRIPT, List.of(DUE_ZSET_KEY, ROLLBACK_DELTA_KEY),
+                        taskId, goodsId);
+                if (Long.valueOf(0L).equals(removed)) {
+                    // 执行期间又有新的回滚数量累加，任务重新排队
+                    task.setStatus(CompensationTask.Status.PENDING);
+                    task.setRetryCount(0);
+                    task.setNextExecuteTime(LocalDateTime.now());
+                    schedule(task);
+                }
             }
 
             saveTask(task);
-            log.info("更新任务状态 - taskId: {}, status: {}", taskId, status);
+            log.info("更新任务状态 - taskId: {}, status: {}", taskId, task.getStatus());
         });
     }
 
@@ -125,26 +282,123 @@ public class CompensationTaskService {
      * 增加重试次数
      */
     public void incrementRetry(String taskId) {
-        getTask(taskId).ifPresent(task -> {
+        loadFromRedis(taskId).ifPresent(task -> {
             task.setRetryCount(task.getRetryCount() + 1);
             task.setNextExecuteTime(LocalDateTime.now().plusMinutes(
                     (long) Math.pow(2, task.getRetryCount())));
             task.setUpdateTime(LocalDateTime.now());
             saveTask(task);
+            schedule(task);
             log.info("增加任务重试次数 - taskId: {}, retryCount: {}", taskId, task.getRetryCount());
         });
     }
 
+    /**
+     * 按任务当前状态重新登记（认领到未到期或已结束的任务时使用）
+     */
+    public void reschedule(CompensationTask task) {
+        if (task.isPending() && task.canRetry()) {
+            schedule(task);
+        } else {
+            redisTemplate.opsForZSet().remove(DUE_ZSET_KEY, task.getTaskId());
+        }
+    }
+
+    /**
+     * 处理任务 JSON 已过期的队列条目
+     * <p>
+     * 合并任务仍有累计数量时重建任务，否则从队列移除
+     * </p>
+     */
+    public void removeOrphan(String taskId) {
+        String goodsId = coalescedGoodsId(taskId);
+        if (!goodsId.isEmpty() && Boolean.TRUE.equals(redisTemplate.opsForHash().hasKey(ROLLBACK_DELTA_KEY, goodsId))) {
+            CompensationTask task = newTask(taskId, "STOCK_ROLLBACK", "goods:" + goodsId,
+                    String.format("{\"goodsId\":%s}", goodsId));
+            saveTask(task);
+            schedule(task);
+            log.warn("重建过期的库存回滚补偿任务 - taskId: {}", taskId);
+            return;
+        }
+        redisTemplate.opsForZSet().remove(DUE_ZSET_KEY, taskId);
+        log.warn("补偿任务已过期，从队列移除 - taskId: {}", taskId);
+    }
+
+    /**
+     * 将旧版待处理 SET 中的任务分批迁移到到期 ZSET
+     * <p>
+     * 先登记再从 SET 移除，迁移中断时重复登记无副作用
+     * </p>
+     *
+     * @param limit 本次最多迁移的任务数
+     * @return 迁移的任务数
+     */
+    public int migrateLegacyPending(int limit) {
+        List<String> taskIds = new ArrayList<>(Optional.ofNullable(
+                        redisTemplate.opsForSet().distinctRandomMembers(LEGACY_PENDING_SET_KEY, limit))
+                .orElse(Collections.emptySet()));
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        Map<String, CompensationTask> tasks = getTasks(taskIds);
+        tasks.values().stream()
+                .filter(CompensationTask::isPending)
+                .forEach(this::schedule);
+        redisTemplate.opsForSet().remove(LEGACY_PENDING_SET_KEY, taskIds.toArray());
+        log.info("迁移旧版补偿任务 - scanned: {}, pending: {}", taskIds.size(),
+                tasks.values().stream().filter(CompensationTask::isPending).count());
+        return taskIds.size();
+    }
+
+    /**
+     * 队列中的任务数
+     */
+    public long pendingCount() {
+        return Optional.ofNullable(redisTemplate.opsForZSet().zCard(DUE_ZSET_KEY)).orElse(0L);
+    }
+
+    private CompensationTask newTask(String taskId, String taskType, String bizKey, String payload) {
+        return CompensationTask.builder()
+                .taskId(taskId)
+                .taskType(taskType)
+                .bizKey(bizKey)
+                .payload(payload)
+                .status(CompensationTask.Status.PENDING)
+                .retryCount(0)
+                .maxRetries(3)
+                .createTime(LocalDateTime.now())
+                .nextExecuteTime(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 合并任务对应的商品ID，非合并任务返回空串
+     */
+    private String coalescedGoodsId(String taskId) {
+        return taskId.startsWith(STOCK_ROLLBACK_TASK_PREFIX)
+                ? taskId.substring(STOCK_ROLLBACK_TASK_PREFIX.length())
+                : "";
+    }
+
     /**
      * 保存任务到 Redis
      */
     private void saveTask(CompensationTask task) {
         String key = TASK_KEY_PREFIX + task.getTaskId();
         redisTemplate.opsForValue().set(key, task.toJson(), TASK_EXPIRE_HOURS, TimeUnit.HOURS);
-        redisTemplate.opsForSet().add(PENDING_SET_KEY, task.getTaskId());
         taskCache.put(task.getTaskId(), task);
     }
 
+    /**
+     * 按下次执行时间登记到到期队列
+     */
+    private void schedule(CompensationTask task) {
+        long score = Optional.ofNullable(task.getNextExecuteTime())
+                .map(t -> t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElseGet(System::currentTimeMillis);
+        redisTemplate.opsForZSet().add(DUE_ZSET_KEY, task.getTaskId(), score);
+    }
+
     /**
      * 从 Redis 加载任务
      */
@@ -157,12 +411,4 @@ public class CompensationTaskService {
                     return task;
                 });
     }
-
-    /**
-     * 获取所有待处理任务 ID
-     */
-    public java.util.Set<String> getPendingTaskIds() {
-        return Optional.ofNullable(redisTemplate.opsForSet().members(PENDING_SET_KEY))
-                .orElse(java.util.Collections.emptySet());
-    }
 }
@@ -1,8 +1,17 @@
 package com.seckill.order.config;
 
 import com.seckill.common.id.DistributedIdGenerator;
+import com.seckill.common.id.IdGenerator;
+import com.seckill.common.id.LockFreeIdGenerator;
+import com.seckill.common.id.LogicalClockIdGenerator;
+import com.seckill.common.id.SegmentIdGenerator;
+import com.seckill.common.id.ShardGeneIdGenerator;
 import com.seckill.common.id.WorkerIdAllocator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +45,43 @@ public class DistributedIdConfig {
     @Value("${snowflake.datacenter-id:1}")
     private long datacenterId;
 
+    /**
+     * 生成器实现：locked（默认）-加锁雪花，lock-free-CAS 无锁雪花，segment-Redis 号段，
+     * logical-clock-逻辑时钟雪花（借用未来时间、容忍小幅回拨）
+     */
+    @Value("${snowflake.mode:locked}")
+    private String mode;
+
+    /**
+     * 无锁模式下每个线程的预取数量，0 表示不预取
+     */
+    @Value("${snowflake.prefetch-size:0}")
+    private int prefetchSize;
+
+    /**
+     * 逻辑时钟模式下允许领先墙上时钟的最大毫秒数
+     */
+    @Value("${snowflake.max-lead-millis:2000}")
+    private long maxLeadMillis;
+
+    /**
+     * 号段模式业务标识，库存与订单服务共用同一标识即共享同一号段序列
+     */
+    @Value("${snowflake.segment.biz-tag:order-no}")
+    private String segmentBizTag;
+
+    @Value("${snowflake.segment.step:10000}")
+    private long segmentStep;
+
+    @Value("${snowflake.segment.prefetch-ratio:0.2}")
+    private double segmentPrefetchRatio;
+
+    /**
+     * 订单号中嵌入的分片基因位数（用户ID低位），0 表示不嵌入；库存与订单服务必须一致
+     */
+    @Value("${seckill.shard.gene-bits:0}")
+    private int shardGeneBits;
+
     /**
      * 实例 ID 生成器
      */
@@ -58,9 +104,45 @@ public class DistributedIdConfig {
     }
 
     @Bean
-    public DistributedIdGenerator distributedIdGenerator(WorkerIdAllocator workerIdAllocator) {
+    public IdGenerator distributedIdGenerator(WorkerIdAllocator workerIdAllocator, StringRedisTemplate redisTemplate,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        IdGenerator generator = createGenerator(workerIdAllocator, redisTemplate, meterRegistry);
+        if (shardGeneBits <= 0) {
+            return generator;
+        }
+        return "segment".equalsIgnoreCase(mode)
+                ? ShardGeneIdGenerator.shifting(generator, shardGeneBits)
+                : ShardGeneIdGenerator.masking(generator, shardGeneBits);
+    }
+
+    private IdGenerator createGenerator(WorkerIdAllocator workerIdAllocator, StringRedisTemplate redisTemplate,
+                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        if ("segment".equalsIgnoreCase(mode)) {
+            log.info("创建号段 ID 生成器 - bizTag: {}, step: {}", segmentBizTag, segmentStep);
+            return new SegmentIdGenerator(redisTemplate, segmentBizTag, segmentStep, segmentPrefetchRatio);
+        }
         long workerId = workerIdAllocator.allocate();
-        log.info("创建分布式 ID 生成器 - workerId: {}, datacenterId: {}", workerId, datacenterId);
-        return new DistributedIdGenerator(workerId, datacenterId);
+        log.info("创建分布式 ID 生成器 - mode: {}, workerId: {}, datacenterId: {}", mode, workerId, datacenterId);
+        if ("logical-clock".equalsIgnoreCase(mode)) {
+            LogicalClockIdGenerator generator = new LogicalClockIdGenerator(workerId, datacenterId, maxLeadMillis);
+            meterRegistry.ifAvailable(registry -> bindClockMetrics(generator, registry));
+            return generator;
+        }
+        return "lock-free".equalsIgnoreCase(mode)
+                ? new LockFreeIdGenerator(workerId, datacenterId, prefetchSize)
+                : new DistributedIdGenerator(workerId, datacenterId);
+    }
+
+    /**
+     * 暴露逻辑时钟领先量，持续领先说明发号超过单机上限或发生了时钟回拨
+     */
+    private void bindClockMetrics(LogicalClockIdGenerator generator, MeterRegistry registry) {
+        Gauge.builder("seckill.id.clock.lead", generator, LogicalClockIdGenerator::leadMillis)
+                .description("逻辑时钟领先墙上时钟的毫秒数")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("seckill.id.clock.borrowed", generator, LogicalClockIdGenerator::borrowedCount)
+                .description("逻辑时钟领先墙上时钟时的发号次数")
+                .register(registry);
     }
 }
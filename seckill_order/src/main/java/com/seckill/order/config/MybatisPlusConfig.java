@@ -3,8 +3,10 @@ package com.seckill.order.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.DynamicTableNameInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.seckill.order.shard.OrderShardRouter;
 import org.apache.ibatis.reflection.MetaObject;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,9 +27,15 @@ public class MybatisPlusConfig {
      * MybatisPlus 插件配置
      */
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(OrderShardRouter shardRouter) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
 
+        // 订单分表：逻辑表名替换为当前分片的物理表（需在分页插件之前）
+        if (shardRouter.isEnabled()) {
+            interceptor.addInnerInterceptor(new DynamicTableNameInnerInterceptor(
+                    (sql, tableName) -> shardRouter.resolveTableName(tableName)));
+        }
+
         // 分页插件
         PaginationInnerInterceptor paginationInterceptor = new PaginationInnerInterceptor(DbType.MYSQL);
         paginationInterceptor.setMaxLimit(500L);
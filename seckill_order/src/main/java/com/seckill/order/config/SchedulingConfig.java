@@ -0,0 +1,19 @@
+package com.seckill.order.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * <p>
+ * 开启 @Scheduled：补偿任务执行、订单超时恢复与扫描、历史订单归档。
+ * 这些任务共用 spring.task.scheduling 线程池，单个任务不应在调度线程上长时间阻塞
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,9 +1,11 @@
 package com.seckill.order.controller;
 
+import com.seckill.common.dto.CursorPageResult;
 import com.seckill.common.exception.BusinessException;
 import com.seckill.common.result.Result;
 import com.seckill.common.result.ResultCode;
 import com.seckill.order.compensation.CompensationTaskService;
+import com.seckill.order.dto.OrderSearchQuery;
 import com.seckill.order.feign.StockFeignClient;
 import com.seckill.order.security.UserContext;
 import com.seckill.order.service.OrderService;
@@ -11,6 +13,7 @@ import com.seckill.order.vo.OrderVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
@@ -47,6 +50,29 @@ public class OrderController {
         return Result.success(orderService.listByUserId(userId));
     }
 
+    @Operation(summary = "游标分页查询当前用户订单", description = "按创建时间倒序，使用上一页返回的 nextCursor 查询下一页")
+    @Parameter(name = "cursor", description = "上一页返回的游标，首页不传")
+    @Parameter(name = "pageSize", description = "每页数量（1-100）")
+    @GetMapping("/page")
+    public Result<CursorPageResult<OrderVO>> pageMyOrders(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", defaultValue = "20") Integer pageSize) {
+        Long userId = UserContext.getUserId();
+        if (userId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+        if (pageSize < 1 || pageSize > 100) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "每页数量需在1-100之间");
+        }
+        return Result.success(orderService.pageByUserId(userId, cursor, pageSize));
+    }
+
+    @Operation(summary = "管理端订单搜索", description = "按商品 / 状态 / 创建时间范围游标分页搜索，可选返回近似总数")
+    @GetMapping("/admin/search")
+    public Result<CursorPageResult<OrderVO>> searchOrders(@Valid OrderSearchQuery query) {
+        return Result.success(orderService.searchOrders(query));
+    }
+
     @Operation(summary = "根据用户ID查询订单列表（内部调用）")
     @Parameter(name = "userId", description = "用户ID", required = true)
     @GetMapping("/list/{userId}")
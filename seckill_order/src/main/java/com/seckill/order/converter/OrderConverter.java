@@ -0,0 +1,59 @@
+package com.seckill.order.converter;
+
+import com.seckill.common.constant.OrderStatus;
+import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.vo.OrderVO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * 订单 VO 转换器
+ * <p>
+ * 由 MapStruct 在编译期生成逐字段 getter/setter 调用，替代 BeanUtils.copyProperties 的反射拷贝；
+ * VO 新增未映射字段时编译失败。状态描述按状态值查预置表
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface OrderConverter {
+
+    /**
+     * 状态描述，下标为 {@link OrderStatus} 的取值
+     */
+    List<String> STATUS_DESCRIPTIONS = List.of("待支付", "已支付", "已发货", "已收货", "已取消", "已超时");
+
+    /**
+     * 订单转 VO
+     *
+     * @param order 订单
+     * @return 订单 VO
+     */
+    @Mapping(target = "statusDesc", source = "status", qualifiedByName = "orderStatusDesc")
+    OrderVO toVO(SeckillOrder order);
+
+    /**
+     * 订单列表转 VO 列表
+     *
+     * @param orders 订单列表
+     * @return 订单 VO 列表
+     */
+    List<OrderVO> toVOList(List<SeckillOrder> orders);
+
+    /**
+     * 状态描述
+     */
+    @Named("orderStatusDesc")
+    default String statusDesc(Integer status) {
+        if (status == null || status < OrderStatus.UNPAID || status >= STATUS_DESCRIPTIONS.size()) {
+            return "未知";
+        }
+        return STATUS_DESCRIPTIONS.get(status);
+    }
+}
@@ -0,0 +1,31 @@
+package com.seckill.order.converter;
+
+import com.seckill.order.entity.SeckillUser;
+import com.seckill.order.vo.UserVO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * 用户 VO 转换器
+ * <p>
+ * 由 MapStruct 在编译期生成，密码等敏感字段不在 VO 中，不会被拷贝
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserConverter {
+
+    /**
+     * 用户转 VO
+     *
+     * @param user  用户
+     * @param token 登录令牌，查询用户信息时为 null
+     * @return 用户 VO
+     */
+    @Mapping(target = "token", source = "token")
+    UserVO toVO(SeckillUser user, String token);
+}
@@ -0,0 +1,67 @@
+package com.seckill.order.dto;
+
+import com.seckill.common.exception.BusinessException;
+import com.seckill.common.result.ResultCode;
+import com.seckill.order.entity.SeckillOrder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 订单游标：按 (create_time, id) 倒序续查的位置
+ * <p>
+ * 对外编码为 URL 安全的 Base64 字符串，客户端原样回传
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 上一页最后一条订单的创建时间
+     */
+    private final LocalDateTime createTime;
+
+    /**
+     * 上一页最后一条订单的ID
+     */
+    private final Long id;
+
+    /**
+     * 以订单作为续查位置
+     *
+     * @param order 上一页最后一条订单
+     * @return 编码后的游标
+     */
+    public static String encode(SeckillOrder order) {
+        String raw = order.getCreateTime() + SEPARATOR + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 编码后的游标，为空表示首页
+     * @return 续查位置，首页为 null
+     */
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, idx)), Long.valueOf(raw.substring(idx + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.seckill.order.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 管理端订单搜索条件 DTO
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Data
+@Schema(description = "管理端订单搜索条件")
+public class OrderSearchQuery implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "商品ID", example = "1")
+    private Long goodsId;
+
+    @Schema(description = "订单状态: 0-待支付, 1-已支付, 2-已发货, 3-已收货, 4-已取消, 5-已超时", example = "1")
+    private Integer status;
+
+    @Schema(description = "创建时间起（含）", example = "2026-10-01 00:00:00")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    @Schema(description = "创建时间止（不含）", example = "2026-10-02 00:00:00")
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    @Schema(description = "上一页返回的游标，首页为空")
+    private String cursor;
+
+    @Schema(description = "每页数量", example = "20")
+    @Min(value = 1, message = "每页数量最小为1")
+    @Max(value = 100, message = "每页数量最大为100")
+    private Integer pageSize = 20;
+
+    @Schema(description = "是否返回近似总数（优化器估算，不执行 COUNT）", example = "false")
+    private Boolean withTotal = false;
+}
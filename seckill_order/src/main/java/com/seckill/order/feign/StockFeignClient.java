@@ -1,10 +1,15 @@
 package com.seckill.order.feign;
 
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.common.result.Result;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 库存服务 Feign 客户端
  * <p>
@@ -40,6 +45,18 @@ public interface StockFeignClient {
         Result<Boolean> rollbackStock(@RequestParam("goodsId") Long goodsId,
                         @RequestParam("count") Integer count);
 
+        /**
+         * 按订单批量回滚库存（幂等）
+         * <p>
+         * 同一订单号的回滚只生效一次，补偿任务重试不会重复回补库存
+         * </p>
+         *
+         * @param items 回滚条目
+         * @return 实际生效的回滚数量，按商品汇总
+         */
+        @PostMapping("/stock/rollback/batch")
+        Result<Map<Long, Integer>> rollbackStockBatch(@RequestBody List<StockRollbackItem> items);
+
         /**
          * 同步库存到 MySQL
          * <p>
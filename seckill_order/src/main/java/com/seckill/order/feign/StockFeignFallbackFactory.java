@@ -1,11 +1,15 @@
 package com.seckill.order.feign;
 
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.common.result.Result;
 import com.seckill.common.result.ResultCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 库存服务 Feign 降级工厂
  * <p>
@@ -41,6 +45,13 @@ public class StockFeignFallbackFactory implements FallbackFactory<StockFeignClie
                         "库存服务暂时不可用，回滚操作已记录，稍后自动重试");
             }
 
+            @Override
+            public Result<Map<Long, Integer>> rollbackStockBatch(List<StockRollbackItem> items) {
+                log.error("批量库存回滚降级处理 - size: {}, error: {}", items.size(), cause.getMessage());
+                return Result.error(ResultCode.SERVICE_UNAVAILABLE.getCode(),
+                        "库存服务暂时不可用，回滚操作已记录，稍后自动重试");
+            }
+
             @Override
             public Result<Boolean> syncDeductStock(Long goodsId, Integer count) {
                 log.error("库存同步降级处理 - goodsId: {}, count: {}, error: {}",
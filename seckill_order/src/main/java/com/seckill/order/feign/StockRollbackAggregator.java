@@ -0,0 +1,149 @@
+package com.seckill.order.feign;
+
+import com.seckill.common.dto.StockRollbackItem;
+import com.seckill.common.result.Result;
+import com.seckill.order.compensation.CompensationTaskService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存回滚聚合器
+ * <p>
+ * 将短时间窗口内（默认 200 条或 50ms）提交的按订单回滚合并为一次
+ * {@link StockFeignClient#rollbackStockBatch} 调用，库存服务侧再按商品合并为一条 UPDATE：
+ * </p>
+ * <ul>
+ * <li>超时波峰时远程调用次数从「每订单一次」降为「每窗口一次」</li>
+ * <li>每个条目带订单号，库存服务按订单号幂等，失败后整批转为补偿任务重试不会重复回补</li>
+ * <li>队列已满或已停止时直接为该条目创建补偿任务，不阻塞调用方</li>
+ * </ul>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockRollbackAggregator {
+
+    private final StockFeignClient stockFeignClient;
+    private final CompensationTaskService compensationTaskService;
+
+    @Value("${seckill.stock-rollback.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.stock-rollback.batch.max-size:200}")
+    private int maxBatchSize;
+
+    @Value("${seckill.stock-rollback.batch.window-millis:50}")
+    private long windowMillis;
+
+    @Value("${seckill.stock-rollback.batch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<StockRollbackItem> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::flushLoop, "stock-rollback-aggregator");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("库存回滚聚合已启用 - maxBatchSize: {}, windowMillis: {}", maxBatchSize, windowMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+    }
+
+    /**
+     * 是否启用聚合回滚
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 提交按订单回滚
+     *
+     * @param orderNo 订单号
+     * @param goodsId 商品ID
+     * @param count   回滚数量
+     */
+    public void submit(Long orderNo, Long goodsId, Integer count) {
+        StockRollbackItem item = new StockRollbackItem(orderNo, goodsId, count);
+        if (!running || !queue.offer(item)) {
+            log.warn("库存回滚聚合队列不可用，创建补偿任务 - orderNo: {}, goodsId: {}", orderNo, goodsId);
+            compensationTaskService.createStockRollbackBatchTask(List.of(item));
+        }
+    }
+
+    private void flushLoop() {
+        List<StockRollbackItem> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    StockRollbackItem next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(new ArrayList<>(batch));
+            } catch (InterruptedException e) {
+                // 停机中断时已取出的条目仍需提交
+                flush(new ArrayList<>(batch));
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // 停机时剩余条目同步提交一次，失败的转为补偿任务
+        List<StockRollbackItem> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        flush(rest);
+    }
+
+    private void flush(List<StockRollbackItem> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            Result<Map<Long, Integer>> result = stockFeignClient.rollbackStockBatch(batch);
+            if (result == null || !result.isSuccess()) {
+                throw new IllegalStateException(Optional.ofNullable(result).map(Result::getMessage).orElse("无响应"));
+            }
+            log.info("库存批量回滚成功 - size: {}, applied: {}", batch.size(), result.getData());
+        } catch (Exception e) {
+            log.error("库存批量回滚失败，创建补偿任务 - size: {}, error: {}", batch.size(), e.getMessage());
+            compensationTaskService.createStockRollbackBatchTask(batch);
+        }
+    }
+}
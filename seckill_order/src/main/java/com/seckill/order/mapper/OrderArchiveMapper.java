@@ -0,0 +1,146 @@
+package com.seckill.order.mapper;
+
+import com.seckill.order.dto.OrderCursor;
+import com.seckill.order.entity.SeckillOrder;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订单归档 Mapper
+ * <p>
+ * 归档表 seckill_order_archive 不分表；搬迁语句中的 seckill_order 由分表插件替换为当前分片的物理表
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Mapper
+public interface OrderArchiveMapper {
+
+    /**
+     * 归档表与热表共有的列
+     */
+    String COLUMNS = "id, order_no, user_id, goods_id, goods_name, goods_img, goods_price, goods_count, " +
+            "total_amount, channel, status, create_time, pay_time, update_time, deleted";
+
+    /**
+     * 锁定一批可归档的订单
+     * <p>
+     * 走 idx_status_deleted_create_time 索引按创建时间顺序扫描，只读索引不回表；
+     * SKIP LOCKED 让多个实例并行归档不同的行
+     * </p>
+     *
+     * @param status   已结束的订单状态
+     * @param deadline 创建时间上限
+     * @param limit    最大行数
+     * @return 订单ID
+     */
+    @Select("SELECT id FROM seckill_order " +
+            "WHERE status = #{status} AND deleted = 0 AND create_time < #{deadline} " +
+            "ORDER BY create_time LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<Long> selectArchivableIdsForUpdate(@Param("status") Integer status,
+                                            @Param("deadline") LocalDateTime deadline,
+                                            @Param("limit") int limit);
+
+    /**
+     * 把热表中的订单复制到归档表（订单号已归档的行被忽略）
+     *
+     * @param ids 订单ID
+     * @return 写入归档表的行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO seckill_order_archive (" + COLUMNS + ") " +
+            "SELECT " + COLUMNS + " FROM seckill_order WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 从热表物理删除已归档的订单
+     *
+     * @param ids 订单ID
+     * @return 删除的行数
+     */
+    @Delete("<script>" +
+            "DELETE FROM seckill_order WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteFromHot(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按订单号查询归档订单
+     *
+     * @param orderNo 订单号
+     * @return 订单，不存在时为 null
+     */
+    @Select("SELECT " + COLUMNS + " FROM seckill_order_archive WHERE order_no = #{orderNo} AND deleted = 0")
+    SeckillOrder selectByOrderNo(@Param("orderNo") Long orderNo);
+
+    /**
+     * 按订单ID查询归档订单
+     *
+     * @param id 订单ID
+     * @return 订单，不存在时为 null
+     */
+    @Select("SELECT " + COLUMNS + " FROM seckill_order_archive WHERE id = #{id} AND deleted = 0")
+    SeckillOrder selectById(@Param("id") Long id);
+
+    /**
+     * 查询用户的全部归档订单（创建时间倒序）
+     *
+     * @param userId 用户ID
+     * @return 订单列表
+     */
+    @Select("SELECT " + COLUMNS + " FROM seckill_order_archive WHERE user_id = #{userId} AND deleted = 0 " +
+            "ORDER BY create_time DESC, id DESC")
+    List<SeckillOrder> selectByUserId(@Param("userId") Long userId);
+
+    /**
+     * 按游标分页查询用户归档订单（创建时间倒序）
+     *
+     * @param userId 用户ID
+     * @param cursor 续查位置，首页为 null
+     * @param limit  最大行数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT " + COLUMNS + " FROM seckill_order_archive WHERE user_id = #{userId} AND deleted = 0" +
+            OrderMapper.CURSOR_CONDITION +
+            " ORDER BY create_time DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<SeckillOrder> selectPageByUser(@Param("userId") Long userId,
+                                        @Param("cursor") OrderCursor cursor,
+                                        @Param("limit") int limit);
+
+    /**
+     * 查询已有归档订单的用户 + 商品组合
+     * <p>
+     * 归档后的订单已离开热表的 uk_user_goods，下单前据此去重；走 idx_user_goods 索引
+     * </p>
+     *
+     * @param orders 待创建的订单（需包含 user_id、goods_id）
+     * @return 归档订单（仅 order_no、user_id、goods_id）
+     */
+    @Select("<script>" +
+            "SELECT order_no, user_id, goods_id FROM seckill_order_archive WHERE (user_id, goods_id) IN " +
+            "<foreach collection='orders' item='o' open='(' separator=',' close=')'>(#{o.userId}, #{o.goodsId})</foreach>" +
+            "</script>")
+    List<SeckillOrder> selectByUserGoods(@Param("orders") Collection<SeckillOrder> orders);
+
+    /**
+     * 用户是否有某商品的归档订单
+     *
+     * @param userId  用户ID
+     * @param goodsId 商品ID
+     * @return 存在时为 1，否则为 null
+     */
+    @Select("SELECT 1 FROM seckill_order_archive WHERE user_id = #{userId} AND goods_id = #{goodsId} LIMIT 1")
+    Integer existsByUserAndGoods(@Param("userId") Long userId, @Param("goodsId") Long goodsId);
+}
@@ -1,10 +1,20 @@
 package com.seckill.order.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.seckill.order.dto.OrderCursor;
+import com.seckill.order.dto.OrderSearchQuery;
 import com.seckill.order.entity.SeckillOrder;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 订单 Mapper
@@ -16,12 +26,192 @@ import org.apache.ibatis.annotations.Select;
 public interface OrderMapper extends BaseMapper<SeckillOrder> {
 
     /**
-     * 查询用户对某商品的订单
+     * 游标条件：(create_time, id) 倒序时严格位于游标之后
+     */
+    String CURSOR_CONDITION = "<if test='cursor != null'> AND (create_time &lt; #{cursor.createTime} " +
+            "OR (create_time = #{cursor.createTime} AND id &lt; #{cursor.id}))</if>";
+
+    /**
+     * 管理端搜索条件
+     */
+    String SEARCH_CONDITION = "WHERE deleted = 0" +
+            "<if test='q.goodsId != null'> AND goods_id = #{q.goodsId}</if>" +
+            "<if test='q.status != null'> AND status = #{q.status}</if>" +
+            "<if test='q.startTime != null'> AND create_time &gt;= #{q.startTime}</if>" +
+            "<if test='q.endTime != null'> AND create_time &lt; #{q.endTime}</if>";
+
+    /**
+     * 用户是否已有某商品的订单
+     * <p>
+     * 只查 uk_user_goods 覆盖索引，不回表读取整行
+     * </p>
      *
      * @param userId  用户ID
      * @param goodsId 商品ID
-     * @return 订单
+     * @return 存在时为 1，否则为 null
+     */
+    @Select("SELECT 1 FROM seckill_order WHERE user_id = #{userId} AND goods_id = #{goodsId} LIMIT 1")
+    Integer existsByUserAndGoods(@Param("userId") Long userId, @Param("goodsId") Long goodsId);
+
+    /**
+     * 批量插入订单，唯一键（uk_order_no / uk_user_goods）冲突的行被忽略
+     * <p>
+     * 单条多值 INSERT，update_time 与 deleted 使用列默认值；id 为空时自增，分表时取订单号
+     * </p>
+     *
+     * @param orders 订单列表
+     * @return 实际插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO seckill_order (id, order_no, user_id, goods_id, goods_name, goods_img, goods_price, " +
+            "goods_count, total_amount, channel, status, create_time) VALUES " +
+            "<foreach collection='orders' item='o' separator=','>" +
+            "(#{o.id}, #{o.orderNo}, #{o.userId}, #{o.goodsId}, #{o.goodsName}, #{o.goodsImg}, #{o.goodsPrice}, " +
+            "#{o.goodsCount}, #{o.totalAmount}, #{o.channel}, #{o.status}, #{o.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("orders") List<SeckillOrder> orders);
+
+    /**
+     * 查询已存在的订单号
+     *
+     * @param orderNos 订单号集合
+     * @return 已存在的订单号
+     */
+    @Select("<script>" +
+            "SELECT order_no FROM seckill_order WHERE order_no IN " +
+            "<foreach collection='orderNos' item='orderNo' open='(' separator=',' close=')'>#{orderNo}</foreach>" +
+            "</script>")
+    List<Long> selectExistingOrderNos(@Param("orderNos") Collection<Long> orderNos);
+
+    /**
+     * 锁定一批超时未处理的订单
+     * <p>
+     * 走 idx_status_deleted_create_time 索引按创建时间顺序扫描；SKIP LOCKED 跳过其他实例或支付事务已锁定的行，
+     * 多个实例可以并行扫描不同的行
+     * </p>
+     *
+     * @param status   订单状态
+     * @param deadline 创建时间上限
+     * @param limit    最大行数
+     * @return 订单（仅 id、order_no、user_id、goods_id、goods_count）
+     */
+    @Select("SELECT id, order_no, user_id, goods_id, goods_count FROM seckill_order " +
+            "WHERE status = #{status} AND create_time < #{deadline} AND deleted = 0 " +
+            "ORDER BY create_time LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<SeckillOrder> selectByStatusBeforeForUpdate(@Param("status") Integer status,
+                                                     @Param("deadline") LocalDateTime deadline,
+                                                     @Param("limit") int limit);
+
+    /**
+     * 锁定给定 ID 中仍处于指定状态的订单
+     * <p>
+     * 按主键加行锁；已被支付 / 取消的行不返回。锁定期间支付 / 取消的条件更新需等待本事务提交，
+     * 提交后状态条件不再满足，不会覆盖已超时状态
+     * </p>
+     *
+     * @param ids    订单ID
+     * @param status 订单状态
+     * @return 锁定的订单 ID
+     */
+    @Select("<script>" +
+            "SELECT id FROM seckill_order WHERE status = #{status} AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " FOR UPDATE" +
+            "</script>")
+    List<Long> selectIdsByStatusForUpdate(@Param("ids") Collection<Long> ids,
+                                          @Param("status") Integer status);
+
+    /**
+     * 按状态条件批量变更订单状态
+     *
+     * @param ids        订单ID
+     * @param fromStatus 当前状态（不满足的行不更新）
+     * @param toStatus   新状态
+     * @return 更新的行数
+     */
+    @Update("<script>" +
+            "UPDATE seckill_order SET status = #{toStatus} WHERE status = #{fromStatus} AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int updateStatusBatch(@Param("ids") Collection<Long> ids,
+                          @Param("fromStatus") Integer fromStatus,
+                          @Param("toStatus") Integer toStatus);
+
+    /**
+     * 按状态条件变更单个订单状态（支付 / 取消）
+     * <p>
+     * 只有当前仍为 fromStatus 的行才更新，被超时扫描等并发变更过的订单返回 0
+     * </p>
+     *
+     * @param id         订单ID
+     * @param fromStatus 当前状态
+     * @param toStatus   新状态
+     * @param payTime    支付时间，非支付变更传 null
+     * @return 更新的行数
+     */
+    @Update("<script>" +
+            "UPDATE seckill_order SET status = #{toStatus}" +
+            "<if test='payTime != null'>, pay_time = #{payTime}</if>" +
+            " WHERE id = #{id} AND status = #{fromStatus}" +
+            "</script>")
+    int updateStatusIfMatch(@Param("id") Long id,
+                            @Param("fromStatus") Integer fromStatus,
+                            @Param("toStatus") Integer toStatus,
+                            @Param("payTime") LocalDateTime payTime);
+
+    /**
+     * 按游标分页查询用户订单（创建时间倒序）
+     * <p>
+     * 子查询只扫描 idx_user_deleted_create_time 覆盖索引取出一页的 ID，再按主键回表，
+     * 扫描行数与页大小相关而与翻页深度无关
+     * </p>
+     *
+     * @param userId 用户ID
+     * @param cursor 续查位置，首页为 null
+     * @param limit  最大行数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT o.* FROM seckill_order o JOIN (" +
+            "SELECT id FROM seckill_order WHERE user_id = #{userId} AND deleted = 0" + CURSOR_CONDITION +
+            " ORDER BY create_time DESC, id DESC LIMIT #{limit}" +
+            ") t ON o.id = t.id ORDER BY o.create_time DESC, o.id DESC" +
+            "</script>")
+    List<SeckillOrder> selectPageByUser(@Param("userId") Long userId,
+                                        @Param("cursor") OrderCursor cursor,
+                                        @Param("limit") int limit);
+
+    /**
+     * 管理端按商品 / 状态 / 时间范围游标分页搜索（创建时间倒序）
+     * <p>
+     * 子查询按条件组合分别命中 idx_goods_deleted_create_time_status、idx_status_deleted_create_time
+     * 或 idx_deleted_create_time，只读索引取出一页的 ID 后再回表
+     * </p>
+     *
+     * @param q      搜索条件
+     * @param cursor 续查位置，首页为 null
+     * @param limit  最大行数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT o.* FROM seckill_order o JOIN (" +
+            "SELECT id FROM seckill_order " + SEARCH_CONDITION + CURSOR_CONDITION +
+            " ORDER BY create_time DESC, id DESC LIMIT #{limit}" +
+            ") t ON o.id = t.id ORDER BY o.create_time DESC, o.id DESC" +
+            "</script>")
+    List<SeckillOrder> searchPage(@Param("q") OrderSearchQuery q,
+                                  @Param("cursor") OrderCursor cursor,
+                                  @Param("limit") int limit);
+
+    /**
+     * 管理端搜索的执行计划，用优化器的行数估算代替 COUNT(*)
+     *
+     * @param q 搜索条件
+     * @return EXPLAIN 结果
      */
-    @Select("SELECT * FROM seckill_order WHERE user_id = #{userId} AND goods_id = #{goodsId} LIMIT 1")
-    SeckillOrder selectByUserAndGoods(@Param("userId") Long userId, @Param("goodsId") Long goodsId);
+    @Select("<script>" +
+            "EXPLAIN SELECT id FROM seckill_order " + SEARCH_CONDITION +
+            "</script>")
+    List<Map<String, Object>> explainSearch(@Param("q") OrderSearchQuery q);
 }
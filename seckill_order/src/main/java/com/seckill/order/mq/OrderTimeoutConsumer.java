@@ -3,10 +3,9 @@ package com.seckill.order.mq;
 import com.alibaba.fastjson.JSON;
 import com.seckill.common.constant.OrderStatus;
 import com.seckill.common.dto.OrderTimeoutMessage;
-import com.seckill.order.compensation.CompensationTaskService;
 import com.seckill.order.entity.SeckillOrder;
-import com.seckill.order.feign.StockFeignClient;
 import com.seckill.order.service.OrderService;
+import com.seckill.order.timeout.OrderTimeoutHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
@@ -15,7 +14,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
-import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -26,8 +24,11 @@ import java.util.function.Predicate;
  * <ul>
  * <li>Optional 链式调用</li>
  * <li>Predicate 条件判断</li>
- * <li>Consumer 副作用处理</li>
  * </ul>
+ * <p>
+ * 订单超时模式为时间轮（seckill.order.timeout.mode=wheel）时不再发送延时消息，
+ * 本消费者只处理切换前已发出的消息
+ * </p>
  *
  * @author seckill
  * @since 2.0.0
@@ -39,8 +40,7 @@ import java.util.function.Predicate;
 public class OrderTimeoutConsumer implements RocketMQListener<String> {
 
     private final OrderService orderService;
-    private final StockFeignClient stockFeignClient;
-    private final CompensationTaskService compensationTaskService;
+    private final OrderTimeoutHandler orderTimeoutHandler;
 
     /**
      * 订单未支付判断条件
@@ -58,43 +58,11 @@ public class OrderTimeoutConsumer implements RocketMQListener<String> {
             Optional.ofNullable(message.getOrderNo())
                     .flatMap(orderNo -> Optional.ofNullable(orderService.getByOrderNo(orderNo)))
                     .filter(IS_UNPAID)
-                    .ifPresent(this::handleTimeout);
+                    .ifPresent(orderTimeoutHandler::handleTimeout);
 
         } catch (Exception e) {
             log.error("处理订单超时消息失败: {}", messageBody, e);
             throw e;
         }
     }
-
-    /**
-     * 处理超时（使用 Consumer 封装副作用）
-     */
-    private void handleTimeout(SeckillOrder order) {
-        Long orderNo = order.getOrderNo();
-
-        // 超时处理消费者
-        Consumer<SeckillOrder> timeoutHandler = o -> {
-            // 1. 更新订单状态为超时
-            boolean updated = orderService.updateOrderStatus(o.getId(), OrderStatus.TIMEOUT);
-
-            // 2. 回滚库存
-            Optional.of(updated)
-                    .filter(Boolean::booleanValue)
-                    .ifPresent(success -> {
-                        try {
-                            stockFeignClient.rollbackStock(o.getGoodsId(), o.getGoodsCount());
-                            log.info("订单超时处理完成，库存已回滚 - orderNo: {}, goodsId: {}, count: {}",
-                                    orderNo, o.getGoodsId(), o.getGoodsCount());
-                        } catch (Exception e) {
-                            log.error("回滚库存失败，创建补偿任务 - orderNo: {}, goodsId: {}", orderNo, o.getGoodsId(), e);
-                            // 创建补偿任务，等待后续自动重试
-                            compensationTaskService.createStockRollbackTask(
-                                    o.getGoodsId(), o.getGoodsCount());
-                        }
-                    });
-        };
-
-        timeoutHandler.accept(order);
-        log.info("订单超时取消成功 - orderNo: {}, userId: {}", orderNo, order.getUserId());
-    }
 }
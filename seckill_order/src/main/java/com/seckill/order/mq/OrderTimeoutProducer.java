@@ -2,8 +2,12 @@ package com.seckill.order.mq;
 
 import com.alibaba.fastjson.JSON;
 import com.seckill.common.dto.OrderTimeoutMessage;
+import com.seckill.order.timeout.OrderTimeoutScheduler;
+import com.seckill.order.timeout.OrderTimeoutSweeper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.support.MessageBuilder;
@@ -12,7 +16,9 @@ import org.springframework.stereotype.Component;
 /**
  * 订单超时消息生产者
  * <p>
- * 发送延时消息用于订单超时检测
+ * 发送延时消息用于订单超时检测；
+ * 订单超时模式为时间轮（seckill.order.timeout.mode=wheel）时改为登记到 {@link OrderTimeoutScheduler}，不再发送消息；
+ * 扫描模式（sweep）下由 {@link OrderTimeoutSweeper} 按创建时间批量过期，无需逐单登记
  * </p>
  *
  * @author seckill
@@ -24,6 +30,8 @@ import org.springframework.stereotype.Component;
 public class OrderTimeoutProducer {
 
     private final RocketMQTemplate rocketMQTemplate;
+    private final OrderTimeoutScheduler timeoutScheduler;
+    private final OrderTimeoutSweeper timeoutSweeper;
 
     /**
      * 订单超时 Topic
@@ -70,6 +78,14 @@ public class OrderTimeoutProducer {
      * @param count   购买数量
      */
     public void sendTimeoutMessage(Long orderNo, Long userId, Long goodsId, Integer count) {
+        if (timeoutSweeper.isEnabled()) {
+            return;
+        }
+        if (timeoutScheduler.isEnabled()) {
+            scheduleTimeout(orderNo);
+            return;
+        }
+
         OrderTimeoutMessage message = new OrderTimeoutMessage();
         message.setOrderNo(orderNo);
         message.setUserId(userId);
@@ -101,6 +117,70 @@ public class OrderTimeoutProducer {
         }
     }
 
+    /**
+     * 发送订单超时检测消息（异步）
+     * <p>
+     * 批量消费时使用，不阻塞消费线程等待 Broker 响应；
+     * 发送失败只记录日志，与同步发送一致由补偿任务处理
+     * </p>
+     *
+     * @param orderNo 订单号
+     * @param userId  用户ID
+     * @param goodsId 商品ID
+     * @param count   购买数量
+     */
+    public void sendTimeoutMessageAsync(Long orderNo, Long userId, Long goodsId, Integer count) {
+        if (timeoutSweeper.isEnabled()) {
+            return;
+        }
+        if (timeoutScheduler.isEnabled()) {
+            scheduleTimeout(orderNo);
+            return;
+        }
+
+        OrderTimeoutMessage message = new OrderTimeoutMessage();
+        message.setOrderNo(orderNo);
+        message.setUserId(userId);
+        message.setGoodsId(goodsId);
+        message.setCount(count);
+        message.setTimestamp(System.currentTimeMillis());
+
+        try {
+            rocketMQTemplate.asyncSend(
+                    timeoutTopic,
+                    MessageBuilder.withPayload(JSON.toJSONString(message))
+                            .setHeader("KEYS", String.valueOf(orderNo))
+                            .build(),
+                    new SendCallback() {
+                        @Override
+                        public void onSuccess(SendResult sendResult) {
+                            log.debug("发送订单超时检测消息成功 - orderNo: {}, delayLevel: {}",
+                                    orderNo, timeoutDelayLevel);
+                        }
+
+                        @Override
+                        public void onException(Throwable e) {
+                            log.error("发送订单超时检测消息失败 - orderNo: {}, error: {}", orderNo, e.getMessage());
+                        }
+                    },
+                    3000,
+                    timeoutDelayLevel);
+        } catch (Exception e) {
+            log.error("发送订单超时检测消息失败 - orderNo: {}, error: {}", orderNo, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 登记到时间轮，失败不抛异常，与发送消息失败的处理一致
+     */
+    private void scheduleTimeout(Long orderNo) {
+        try {
+            timeoutScheduler.schedule(orderNo);
+        } catch (Exception e) {
+            log.error("登记订单超时失败 - orderNo: {}, error: {}", orderNo, e.getMessage(), e);
+        }
+    }
+
     /**
      * 根据超时分钟数获取延迟级别
      *
@@ -0,0 +1,269 @@
+package com.seckill.order.mq;
+
+import com.alibaba.fastjson.JSON;
+import com.seckill.common.dto.SeckillMessage;
+import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.service.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultLitePullConsumer;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.consumer.ConsumeFromWhere;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 秒杀消息批量消费者
+ * <p>
+ * 开启 seckill.mq.batch-consume.enabled 后代替 {@link SeckillMessageConsumer}，
+ * 使用 Lite Pull 模式每次拉取最多 pull-batch-size 条消息整批落库：
+ * </p>
+ * <ul>
+ * <li>批内按用户 + 商品去重，重复投递只保留第一条</li>
+ * <li>整批一条多值 INSERT IGNORE 写入，唯一键冲突的订单按幂等跳过，不再逐条 SELECT 校验</li>
+ * <li>超时检测消息改为异步发送，不阻塞消费线程</li>
+ * <li>整批失败时逐条重试，只有仍失败的消息所在批次回退位点重新拉取</li>
+ * <li>同一条消息累计失败 max-attempts 次后转发到死信 Topic，不再阻塞其所在队列</li>
+ * </ul>
+ * <p>
+ * 与单条消费共用消费组，切换模式后从原有位点继续消费
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "seckill.mq.batch-consume.enabled", havingValue = "true")
+public class SeckillBatchMessageConsumer {
+
+    private static final String CONSUMER_GROUP = "seckill-order-consumer-group";
+
+    private final OrderService orderService;
+    private final OrderTimeoutProducer orderTimeoutProducer;
+    private final RocketMQTemplate rocketMQTemplate;
+
+    @Value("${rocketmq.name-server}")
+    private String nameServer;
+
+    @Value("${seckill.mq.topic:seckill-order-topic}")
+    private String seckillTopic;
+
+    @Value("${seckill.mq.batch-consume.pull-batch-size:256}")
+    private int pullBatchSize;
+
+    @Value("${seckill.mq.batch-consume.poll-timeout-ms:1000}")
+    private long pollTimeoutMillis;
+
+    @Value("${seckill.mq.batch-consume.retry-interval-ms:1000}")
+    private long retryIntervalMillis;
+
+    @Value("${seckill.mq.batch-consume.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${seckill.mq.batch-consume.dead-letter-topic:seckill-order-dead-letter-topic}")
+    private String deadLetterTopic;
+
+    /**
+     * 逐条处理失败的消息及其累计失败次数（仅消费线程访问）
+     */
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+
+    private DefaultLitePullConsumer consumer;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws MQClientException {
+        consumer = new DefaultLitePullConsumer(CONSUMER_GROUP);
+        consumer.setNamesrvAddr(nameServer);
+        consumer.setPullBatchSize(pullBatchSize);
+        consumer.setAutoCommit(false);
+        consumer.setConsumeFromWhere(ConsumeFromWhere.CONSUME_FROM_LAST_OFFSET);
+        consumer.subscribe(seckillTopic, "*");
+        consumer.start();
+
+        running = true;
+        worker = new Thread(this::consumeLoop, "seckill-batch-consumer");
+        worker.start();
+        log.info("秒杀消息批量消费已启用 - topic: {}, pullBatchSize: {}", seckillTopic, pullBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        // 等待当前批次处理完成后再关闭，避免位点未提交导致整批重复消费
+        worker.join(pollTimeoutMillis + retryIntervalMillis + 5000);
+        consumer.shutdown();
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            List<MessageExt> messages;
+            try {
+                messages = consumer.poll(pollTimeoutMillis);
+            } catch (Exception e) {
+                log.error("拉取秒杀消息失败，稍后重试", e);
+                pause();
+                continue;
+            }
+            if (messages.isEmpty()) {
+                continue;
+            }
+            try {
+                if (consume(messages)) {
+                    consumer.commitSync();
+                    continue;
+                }
+            } catch (Exception e) {
+                log.error("处理秒杀消息失败 - size: {}", messages.size(), e);
+            }
+            log.warn("秒杀消息处理未完成，回退位点重试 - size: {}", messages.size());
+            rewind(messages);
+            pause();
+        }
+    }
+
+    /**
+     * 处理拉取到的消息：先整批处理，整批失败时逐条处理
+     *
+     * @return true-全部消息已落库或转入死信，可以提交位点
+     */
+    boolean consume(List<MessageExt> messages) {
+        try {
+            consumeBatch(messages);
+            if (!failedAttempts.isEmpty()) {
+                messages.forEach(message -> failedAttempts.remove(message.getMsgId()));
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("批量处理秒杀消息失败，改为逐条处理 - size: {}", messages.size(), e);
+        }
+
+        boolean completed = true;
+        for (MessageExt message : messages) {
+            try {
+                consumeOne(message);
+                failedAttempts.remove(message.getMsgId());
+            } catch (Exception e) {
+                int attempts = failedAttempts.merge(message.getMsgId(), 1, Integer::sum);
+                log.error("处理秒杀消息失败 - msgId: {}, attempts: {}", message.getMsgId(), attempts, e);
+                if (attempts >= maxAttempts && sendToDeadLetter(message)) {
+                    failedAttempts.remove(message.getMsgId());
+                } else {
+                    completed = false;
+                }
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * 处理一批消息
+     */
+    void consumeBatch(List<MessageExt> messages) {
+        // 批内去重：同一用户同一商品只保留第一条
+        Map<String, SeckillOrder> orders = new LinkedHashMap<>();
+        messages.forEach(message -> parseOrder(message)
+                .ifPresent(order -> orders.putIfAbsent(order.getUserId() + ":" + order.getGoodsId(), order)));
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        List<SeckillOrder> created = orderService.createOrdersBatch(new ArrayList<>(orders.values()));
+        log.info("批量创建订单 - messages: {}, orders: {}, created: {}",
+                messages.size(), orders.size(), created.size());
+
+        // 发送订单超时延时消息（未支付则自动取消）
+        created.forEach(order -> orderTimeoutProducer.sendTimeoutMessageAsync(
+                order.getOrderNo(), order.getUserId(), order.getGoodsId(), order.getGoodsCount()));
+    }
+
+    /**
+     * 处理单条消息，重复消息按幂等跳过
+     */
+    private void consumeOne(MessageExt message) {
+        parseOrder(message)
+                .filter(orderService::createOrder)
+                .ifPresent(order -> orderTimeoutProducer.sendTimeoutMessageAsync(
+                        order.getOrderNo(), order.getUserId(), order.getGoodsId(), order.getGoodsCount()));
+    }
+
+    /**
+     * 转发多次处理失败的消息到死信 Topic，等待人工处理
+     *
+     * @return true-转发成功
+     */
+    private boolean sendToDeadLetter(MessageExt message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            SendResult result = rocketMQTemplate.syncSend(deadLetterTopic, body);
+            if (result != null && result.getSendStatus() == SendStatus.SEND_OK) {
+                log.error("秒杀消息多次处理失败，已转入死信 - msgId: {}, topic: {}, body: {}",
+                        message.getMsgId(), deadLetterTopic, body);
+                return true;
+            }
+            log.error("转发死信消息失败 - msgId: {}, result: {}", message.getMsgId(), result);
+        } catch (Exception e) {
+            log.error("转发死信消息失败 - msgId: {}", message.getMsgId(), e);
+        }
+        return false;
+    }
+
+    /**
+     * 解析消息为订单，无法解析的消息记录日志后跳过，避免一条坏消息阻塞整批
+     */
+    private Optional<SeckillOrder> parseOrder(MessageExt message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            return Optional.ofNullable(JSON.parseObject(body, SeckillMessage.class))
+                    .map(SeckillMessageConsumer::buildOrder);
+        } catch (Exception e) {
+            log.error("秒杀消息解析失败，跳过 - msgId: {}, body: {}", message.getMsgId(), body, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 把本批消息涉及的队列回退到批内最小位点
+     */
+    private void rewind(List<MessageExt> messages) {
+        Map<MessageQueue, Long> offsets = new HashMap<>();
+        messages.forEach(message -> offsets.merge(
+                new MessageQueue(message.getTopic(), message.getBrokerName(), message.getQueueId()),
+                message.getQueueOffset(), Math::min));
+        offsets.forEach((queue, offset) -> {
+            try {
+                consumer.seek(queue, offset);
+            } catch (MQClientException e) {
+                log.error("回退消费位点失败 - queue: {}, offset: {}", queue, offset, e);
+            }
+        });
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
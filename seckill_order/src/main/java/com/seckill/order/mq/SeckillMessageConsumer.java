@@ -9,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
 import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +28,9 @@ import java.util.function.Supplier;
  * <li>Supplier 延迟计算</li>
  * <li>Lambda 简化代码</li>
  * </ul>
+ * <p>
+ * 开启批量消费（seckill.mq.batch-consume.enabled=true）后由 {@link SeckillBatchMessageConsumer} 代替
+ * </p>
  *
  * @author seckill
  * @since 2.0.0
@@ -34,6 +38,7 @@ import java.util.function.Supplier;
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "seckill.mq.batch-consume.enabled", havingValue = "false", matchIfMissing = true)
 @RocketMQMessageListener(topic = "${seckill.mq.topic:seckill-order-topic}", consumerGroup = "seckill-order-consumer-group")
 public class SeckillMessageConsumer implements RocketMQListener<String> {
 
@@ -52,17 +57,12 @@ public class SeckillMessageConsumer implements RocketMQListener<String> {
             SeckillMessage message = Optional.ofNullable(messageSupplier.get())
                     .orElseThrow(() -> new IllegalArgumentException("消息解析失败"));
 
-            // 幂等性校验
-            if (isOrderExists(message.getUserId(), message.getGoodsId())) {
-                log.warn("订单已存在，跳过 - userId: {}, goodsId: {}",
-                        message.getUserId(), message.getGoodsId());
+            // 创建订单：直接插入，唯一键冲突即重复消息，按幂等跳过
+            SeckillOrder order = buildOrder(message);
+            if (!orderService.createOrder(order)) {
                 return;
             }
 
-            // 创建订单
-            SeckillOrder order = buildOrder(message);
-            orderService.save(order);
-
             log.info("创建订单成功 - orderNo: {}, userId: {}, goodsId: {}",
                     order.getOrderNo(), order.getUserId(), order.getGoodsId());
 
@@ -77,17 +77,10 @@ public class SeckillMessageConsumer implements RocketMQListener<String> {
         }
     }
 
-    /**
-     * 检查订单是否已存在
-     */
-    private boolean isOrderExists(Long userId, Long goodsId) {
-        return orderService.hasOrder(userId, goodsId);
-    }
-
     /**
      * 构建订单（使用 Optional 处理可选字段）
      */
-    private SeckillOrder buildOrder(SeckillMessage message) {
+    static SeckillOrder buildOrder(SeckillMessage message) {
         SeckillOrder order = new SeckillOrder();
 
         // 使用 Optional 处理可选字段和默认值
@@ -117,7 +110,7 @@ public class SeckillMessageConsumer implements RocketMQListener<String> {
     /**
      * 解析渠道字符串为整数
      */
-    private Integer parseChannel(String channel) {
+    private static Integer parseChannel(String channel) {
         return Optional.ofNullable(channel)
                 .filter(c -> !c.isEmpty())
                 .map(c -> {
@@ -5,6 +5,10 @@ package com.seckill.order.security;
  * <p>
  * 用于在同一请求线程中传递用户信息
  * </p>
+ * <p>
+ * 虚拟线程模式下每个请求独占一个虚拟线程，ThreadLocal 仍然有效；
+ * 由 LoginInterceptor 在请求结束时清理，不会随线程复用泄漏
+ * </p>
  *
  * @author seckill
  * @since 1.0.0
@@ -1,9 +1,13 @@
 package com.seckill.order.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.seckill.common.dto.CursorPageResult;
+import com.seckill.order.dto.OrderSearchQuery;
 import com.seckill.order.entity.SeckillOrder;
 import com.seckill.order.vo.OrderVO;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,6 +26,24 @@ public interface OrderService extends IService<SeckillOrder> {
      */
     List<OrderVO> listByUserId(Long userId);
 
+    /**
+     * 游标分页查询用户订单（创建时间倒序）
+     *
+     * @param userId   用户ID
+     * @param cursor   上一页返回的游标，首页为空
+     * @param pageSize 每页数量
+     * @return 订单分页
+     */
+    CursorPageResult<OrderVO> pageByUserId(Long userId, String cursor, int pageSize);
+
+    /**
+     * 管理端订单搜索（创建时间倒序，游标分页）
+     *
+     * @param query 搜索条件
+     * @return 订单分页，按需附带近似总数
+     */
+    CursorPageResult<OrderVO> searchOrders(OrderSearchQuery query);
+
     /**
      * 查询订单详情
      *
@@ -47,6 +69,18 @@ public interface OrderService extends IService<SeckillOrder> {
      */
     boolean hasOrder(Long userId, Long goodsId);
 
+    /**
+     * 创建订单（幂等）
+     * <p>
+     * 直接插入，依赖 uk_order_no / uk_user_goods 唯一约束去重，不再先查询是否已存在；
+     * 冲突时回查订单号，只有同一用户、同一商品的订单才视为重复消息，其他冲突抛出异常
+     * </p>
+     *
+     * @param order 订单
+     * @return true-新建成功，false-订单已存在（重复消息）
+     */
+    boolean createOrder(SeckillOrder order);
+
     /**
      * 根据订单号查询订单实体
      *
@@ -55,6 +89,25 @@ public interface OrderService extends IService<SeckillOrder> {
      */
     SeckillOrder getByOrderNo(Long orderNo);
 
+    /**
+     * 按订单号批量查询仍待支付的订单（分表时按分片分组查询）
+     *
+     * @param orderNos 订单号
+     * @return 待支付订单
+     */
+    List<SeckillOrder> listUnpaidByOrderNos(Collection<Long> orderNos);
+
+    /**
+     * 将仍待支付的订单按状态条件置为已超时（分表时按分片分组更新）
+     * <p>
+     * 只有从待支付变更为已超时的订单才会返回，已被并发支付 / 取消的订单不在其中，调用方只为返回的订单回滚库存
+     * </p>
+     *
+     * @param orders 待支付订单（需包含 id、order_no）
+     * @return 实际置为已超时的订单
+     */
+    List<SeckillOrder> timeoutUnpaidOrders(Collection<SeckillOrder> orders);
+
     /**
      * 更新订单状态
      *
@@ -79,4 +132,33 @@ public interface OrderService extends IService<SeckillOrder> {
      * @return true-取消成功
      */
     boolean cancelOrder(Long orderNo);
+
+    /**
+     * 批量创建订单
+     * <p>
+     * 单条多值 INSERT IGNORE 写入，订单号或用户 + 商品重复的订单按幂等跳过
+     * </p>
+     *
+     * @param orders 订单列表（需已设置订单号）
+     * @return 已落库的订单（包含此前已写入的重复投递订单）
+     */
+    List<SeckillOrder> createOrdersBatch(List<SeckillOrder> orders);
+
+    /**
+     * 批量置超时：一批创建时间早于 deadline 的待支付订单置为已超时
+     *
+     * @param deadline 创建时间上限
+     * @param limit    本批最大订单数
+     * @return 本批置为超时的订单（仅 id、orderNo、userId、goodsId、goodsCount）
+     */
+    List<SeckillOrder> expireUnpaidOrders(LocalDateTime deadline, int limit);
+
+    /**
+     * 批量归档：一批创建时间早于 deadline 的已结束订单（已收货 / 已取消 / 已超时）迁入归档表并从热表删除
+     *
+     * @param deadline 创建时间上限
+     * @param limit    本批最大订单数
+     * @return 本批归档的订单数
+     */
+    int archiveFinishedOrders(LocalDateTime deadline, int limit);
 }
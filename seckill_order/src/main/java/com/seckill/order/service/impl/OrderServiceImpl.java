@@ -3,27 +3,42 @@ package com.seckill.order.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.seckill.common.constant.OrderStatus;
+import com.seckill.common.dto.CursorPageResult;
 import com.seckill.common.exception.BusinessException;
-import com.seckill.common.id.DistributedIdGenerator;
+import com.seckill.common.id.IdGenerator;
 import com.seckill.common.result.ResultCode;
+import com.seckill.order.cache.OrderCache;
+import com.seckill.order.converter.OrderConverter;
+import com.seckill.order.dto.OrderCursor;
+import com.seckill.order.dto.OrderSearchQuery;
 import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.mapper.OrderArchiveMapper;
 import com.seckill.order.mapper.OrderMapper;
+import com.seckill.order.shard.OrderShardRouter;
 import com.seckill.order.service.OrderService;
 import com.seckill.order.vo.OrderVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 订单服务实现
@@ -46,7 +61,31 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> implements OrderService {
 
     private final OrderMapper orderMapper;
-    private final DistributedIdGenerator idGenerator;
+    private final IdGenerator idGenerator;
+    private final OrderCache orderCache;
+    private final OrderShardRouter shardRouter;
+    private final OrderArchiveMapper orderArchiveMapper;
+    private final OrderConverter orderConverter;
+
+    /**
+     * 热表未命中时回查归档表，默认随归档任务开启
+     */
+    @Value("${seckill.order-archive.read-fallback:${seckill.order-archive.enabled:false}}")
+    private boolean archiveReadFallback;
+
+    /**
+     * 游标分页排序：创建时间倒序，同一时间按 ID 倒序
+     */
+    private static final Comparator<SeckillOrder> CURSOR_ORDER = Comparator
+            .comparing(SeckillOrder::getCreateTime)
+            .thenComparing(SeckillOrder::getId)
+            .reversed();
+
+    /**
+     * 可归档的已结束状态
+     */
+    private static final List<Integer> ARCHIVABLE_STATUSES =
+            List.of(OrderStatus.RECEIVED, OrderStatus.CANCELLED, OrderStatus.TIMEOUT);
 
     /**
      * 状态转换规则映射（使用 Java 8 Map.of 风格初始化）
@@ -56,48 +95,129 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
             OrderStatus.PAID, Set.of(OrderStatus.SHIPPED),
             OrderStatus.SHIPPED, Set.of(OrderStatus.RECEIVED));
 
-    /**
-     * 状态描述映射
-     */
-    private static final Map<Integer, String> STATUS_DESCRIPTIONS = Map.of(
-            OrderStatus.UNPAID, "待支付",
-            OrderStatus.PAID, "已支付",
-            OrderStatus.SHIPPED, "已发货",
-            OrderStatus.RECEIVED, "已收货",
-            OrderStatus.CANCELLED, "已取消",
-            OrderStatus.TIMEOUT, "已超时");
-
     @Override
     public List<OrderVO> listByUserId(Long userId) {
+        return orderConverter.toVOList(orderCache.listByUserId(userId, this::selectByUserId));
+    }
+
+    /**
+     * 内部方法：查询用户订单（按创建时间倒序）
+     */
+    private List<SeckillOrder> selectByUserId(Long userId) {
         LambdaQueryWrapper<SeckillOrder> wrapper = new LambdaQueryWrapper<SeckillOrder>()
                 .eq(SeckillOrder::getUserId, userId)
                 .orderByDesc(SeckillOrder::getCreateTime);
+        List<SeckillOrder> hot = shardRouter.route(userId, () -> this.list(wrapper));
+        if (!archiveReadFallback) {
+            return hot;
+        }
+        List<SeckillOrder> archived = orderArchiveMapper.selectByUserId(userId);
+        return archived.isEmpty() ? hot : mergeByCursorOrder(hot, archived, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public CursorPageResult<OrderVO> pageByUserId(Long userId, String cursor, int pageSize) {
+        // 多取一条判断是否有下一页
+        OrderCursor position = OrderCursor.decode(cursor);
+        List<SeckillOrder> rows = shardRouter.route(userId,
+                () -> orderMapper.selectPageByUser(userId, position, pageSize + 1));
+        if (archiveReadFallback) {
+            // 热表与归档表各取一页后归并，ID 在两表间不重复
+            rows = mergeByCursorOrder(rows, orderArchiveMapper.selectPageByUser(userId, position, pageSize + 1),
+                    pageSize + 1);
+        }
+        return toCursorPage(rows, pageSize);
+    }
+
+    /**
+     * 按 (create_time, id) 倒序归并两个结果集并截取
+     */
+    private List<SeckillOrder> mergeByCursorOrder(List<SeckillOrder> first, List<SeckillOrder> second, int limit) {
+        return Stream.concat(first.stream(), second.stream())
+                .sorted(CURSOR_ORDER)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 热表未命中时回查归档表
+     */
+    private SeckillOrder orArchived(SeckillOrder hot, Supplier<SeckillOrder> archived) {
+        return hot != null || !archiveReadFallback ? hot : archived.get();
+    }
 
-        // 使用 Stream API 转换
-        return this.list(wrapper).stream()
-                .map(this::convertToVO)
+    @Override
+    public CursorPageResult<OrderVO> searchOrders(OrderSearchQuery query) {
+        int pageSize = query.getPageSize();
+        OrderCursor position = OrderCursor.decode(query.getCursor());
+        // 分表时每个分片取同一游标之后的一页，归并后截取；订单ID即订单号，跨分片唯一
+        List<SeckillOrder> rows = shardRouter.allShards().stream()
+                .flatMap(shard -> shardRouter.onShard(shard,
+                        () -> orderMapper.searchPage(query, position, pageSize + 1)).stream())
+                .sorted(CURSOR_ORDER)
+                .limit(pageSize + 1L)
                 .collect(Collectors.toList());
+        CursorPageResult<OrderVO> page = toCursorPage(rows, pageSize);
+        if (Boolean.TRUE.equals(query.getWithTotal())) {
+            page.setApproximateTotal(estimateSearchTotal(query));
+        }
+        return page;
+    }
+
+    /**
+     * 截取一页并生成下一页游标
+     */
+    private CursorPageResult<OrderVO> toCursorPage(List<SeckillOrder> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<SeckillOrder> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? OrderCursor.encode(page.get(page.size() - 1)) : null;
+        return CursorPageResult.of(page.stream().map(orderConverter::toVO).collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * 用执行计划的行数估算（rows * filtered%）代替 COUNT(*)
+     */
+    private Long estimateSearchTotal(OrderSearchQuery query) {
+        return shardRouter.allShards().stream()
+                .mapToLong(shard -> shardRouter.onShard(shard, () -> estimateShardTotal(query)))
+                .sum();
+    }
+
+    private long estimateShardTotal(OrderSearchQuery query) {
+        return orderMapper.explainSearch(query).stream()
+                .findFirst()
+                .map(plan -> {
+                    long rows = Optional.ofNullable(plan.get("rows"))
+                            .map(v -> ((Number) v).longValue())
+                            .orElse(0L);
+                    double filtered = Optional.ofNullable(plan.get("filtered"))
+                            .map(v -> ((Number) v).doubleValue())
+                            .orElse(100D);
+                    return Math.round(rows * filtered / 100);
+                })
+                .orElse(0L);
     }
 
     @Override
     public OrderVO getOrderById(Long orderId) {
         // 使用 Optional 处理空值
-        return Optional.ofNullable(this.getById(orderId))
-                .map(this::convertToVO)
+        return orderCache.getById(orderId, id -> orArchived(shardRouter.route(id, () -> this.getById(id)),
+                        () -> orderArchiveMapper.selectById(id)))
+                .map(orderConverter::toVO)
                 .orElseThrow(() -> new BusinessException(ResultCode.ORDER_NOT_EXIST));
     }
 
     @Override
     public OrderVO getOrderByOrderNo(Long orderNo) {
-        return findByOrderNo(orderNo)
-                .map(this::convertToVO)
+        return orderCache.getByOrderNo(orderNo, no -> findByOrderNo(no).orElse(null))
+                .map(orderConverter::toVO)
                 .orElseThrow(() -> new BusinessException(ResultCode.ORDER_NOT_EXIST));
     }
 
     @Override
     public boolean hasOrder(Long userId, Long goodsId) {
-        return Optional.ofNullable(orderMapper.selectByUserAndGoods(userId, goodsId))
-                .isPresent();
+        return shardRouter.route(userId, () -> orderMapper.existsByUserAndGoods(userId, goodsId)) != null
+                || (archiveReadFallback && orderArchiveMapper.existsByUserAndGoods(userId, goodsId) != null);
     }
 
     @Override
@@ -106,7 +226,7 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
         // 使用 Optional 处理默认值
         Optional.ofNullable(entity.getOrderNo())
                 .orElseGet(() -> {
-                    Long orderNo = idGenerator.nextId();
+                    Long orderNo = idGenerator.nextId(entity.getUserId());
                     entity.setOrderNo(orderNo);
                     return orderNo;
                 });
@@ -117,17 +237,122 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
                     return OrderStatus.UNPAID;
                 });
 
-        boolean result = super.save(entity);
+        // 分表时订单ID取订单号，按ID访问也能定位分片，且跨分片唯一
+        if (shardRouter.isEnabled()) {
+            entity.setId(entity.getOrderNo());
+        }
+        boolean result = shardRouter.route(entity.getUserId(), () -> super.save(entity));
 
         // 使用 Lambda 简化日志
         Optional.of(result)
                 .filter(Boolean::booleanValue)
-                .ifPresent(r -> log.info("订单创建成功 - orderNo: {}, userId: {}, goodsId: {}",
-                        entity.getOrderNo(), entity.getUserId(), entity.getGoodsId()));
+                .ifPresent(r -> {
+                    orderCache.evict(entity.getOrderNo(), entity.getUserId());
+                    log.info("订单创建成功 - orderNo: {}, userId: {}, goodsId: {}",
+                            entity.getOrderNo(), entity.getUserId(), entity.getGoodsId());
+                });
 
         return result;
     }
 
+    @Override
+    public boolean createOrder(SeckillOrder order) {
+        Long archivedOrderNo = archivedUserGoods(List.of(order)).get(userGoodsKey(order));
+        if (archivedOrderNo != null) {
+            if (archivedOrderNo.equals(order.getOrderNo())) {
+                log.warn("订单已归档，跳过 - orderNo: {}, userId: {}, goodsId: {}",
+                        order.getOrderNo(), order.getUserId(), order.getGoodsId());
+                return false;
+            }
+            log.error("用户已有该商品的归档订单 - orderNo: {}, userId: {}, goodsId: {}, archivedOrderNo: {}",
+                    order.getOrderNo(), order.getUserId(), order.getGoodsId(), archivedOrderNo);
+            throw new BusinessException(ResultCode.REPEAT_ORDER);
+        }
+        try {
+            return save(order);
+        } catch (DuplicateKeyException e) {
+            // 同一订单号、同一用户与商品的订单已存在，说明是此前的投递已创建，按幂等成功处理
+            SeckillOrder existing = findByOrderNo(order.getOrderNo()).orElse(null);
+            if (existing != null && Objects.equals(existing.getUserId(), order.getUserId())
+                    && Objects.equals(existing.getGoodsId(), order.getGoodsId())) {
+                log.warn("订单已存在，跳过 - orderNo: {}, userId: {}, goodsId: {}",
+                        order.getOrderNo(), order.getUserId(), order.getGoodsId());
+                return false;
+            }
+            // 其他冲突不是重复消息，不能吞掉：用户已有该商品的另一笔订单，或订单号与其他订单碰撞
+            log.error("订单唯一键冲突 - orderNo: {}, userId: {}, goodsId: {}, existing: {}",
+                    order.getOrderNo(), order.getUserId(), order.getGoodsId(), existing, e);
+            if (existing == null) {
+                throw new BusinessException(ResultCode.REPEAT_ORDER);
+            }
+            throw new IllegalStateException("订单号冲突: " + order.getOrderNo(), e);
+        }
+    }
+
+    @Override
+    public List<SeckillOrder> createOrdersBatch(List<SeckillOrder> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        // 用户 + 商品已有归档订单的不再插入，与 uk_user_goods 冲突的行一样不出现在结果中
+        Map<String, Long> archived = archivedUserGoods(orders);
+        if (!archived.isEmpty()) {
+            log.warn("用户已有该商品的归档订单，跳过 - size: {}, archived: {}", orders.size(), archived);
+            orders = orders.stream()
+                    .filter(order -> !archived.containsKey(userGoodsKey(order)))
+                    .collect(Collectors.toList());
+            if (orders.isEmpty()) {
+                return orders;
+            }
+        }
+        orders.stream()
+                .filter(order -> order.getStatus() == null)
+                .forEach(order -> order.setStatus(OrderStatus.UNPAID));
+        if (shardRouter.isEnabled()) {
+            orders.forEach(order -> order.setId(order.getOrderNo()));
+        }
+
+        // 每个分片一条多值 INSERT
+        Map<Integer, List<SeckillOrder>> byShard = shardRouter.groupByShard(orders, SeckillOrder::getUserId);
+        int inserted = byShard.entrySet().stream()
+                .mapToInt(e -> shardRouter.onShard(e.getKey(), () -> orderMapper.insertIgnoreBatch(e.getValue())))
+                .sum();
+        orderCache.evictAll(orders);
+        if (inserted == orders.size()) {
+            log.info("批量创建订单成功 - size: {}", inserted);
+            return orders;
+        }
+
+        // 部分行因唯一键冲突被忽略：按订单号回查，用户 + 商品冲突（订单号不同）的订单不会出现在结果中
+        Set<Long> persisted = new HashSet<>();
+        byShard.forEach((shard, shardOrders) -> persisted.addAll(shardRouter.onShard(shard,
+                () -> orderMapper.selectExistingOrderNos(
+                        shardOrders.stream().map(SeckillOrder::getOrderNo).collect(Collectors.toList())))));
+        List<SeckillOrder> created = orders.stream()
+                .filter(order -> persisted.contains(order.getOrderNo()))
+                .collect(Collectors.toList());
+        log.info("批量创建订单完成 - size: {}, inserted: {}, skipped: {}",
+                orders.size(), inserted, orders.size() - created.size());
+        return created;
+    }
+
+    /**
+     * 回查归档表中已有订单的用户 + 商品组合（归档后的订单不在热表的 uk_user_goods 中）
+     *
+     * @return 用户:商品 -> 归档订单号，未开启归档读取时为空
+     */
+    private Map<String, Long> archivedUserGoods(Collection<SeckillOrder> orders) {
+        if (!archiveReadFallback) {
+            return Map.of();
+        }
+        return orderArchiveMapper.selectByUserGoods(orders).stream()
+                .collect(Collectors.toMap(OrderServiceImpl::userGoodsKey, SeckillOrder::getOrderNo, (a, b) -> a));
+    }
+
+    private static String userGoodsKey(SeckillOrder order) {
+        return order.getUserId() + ":" + order.getGoodsId();
+    }
+
     @Override
     public SeckillOrder getByOrderNo(Long orderNo) {
         return findByOrderNo(orderNo).orElse(null);
@@ -139,12 +364,53 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
     private Optional<SeckillOrder> findByOrderNo(Long orderNo) {
         LambdaQueryWrapper<SeckillOrder> wrapper = new LambdaQueryWrapper<SeckillOrder>()
                 .eq(SeckillOrder::getOrderNo, orderNo);
-        return Optional.ofNullable(this.getOne(wrapper));
+        return Optional.ofNullable(orArchived(shardRouter.route(orderNo, () -> this.getOne(wrapper)),
+                () -> orderArchiveMapper.selectByOrderNo(orderNo)));
+    }
+
+    @Override
+    public List<SeckillOrder> listUnpaidByOrderNos(Collection<Long> orderNos) {
+        List<SeckillOrder> unpaid = new ArrayList<>();
+        shardRouter.groupByShard(orderNos, orderNo -> orderNo).forEach((shard, shardOrderNos) ->
+                unpaid.addAll(shardRouter.onShard(shard, () -> this.list(new LambdaQueryWrapper<SeckillOrder>()
+                        .in(SeckillOrder::getOrderNo, shardOrderNos)
+                        .eq(SeckillOrder::getStatus, OrderStatus.UNPAID)))));
+        return unpaid;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<SeckillOrder> timeoutUnpaidOrders(Collection<SeckillOrder> orders) {
+        List<SeckillOrder> timedOut = new ArrayList<>();
+        shardRouter.groupByShard(orders, SeckillOrder::getOrderNo).forEach((shard, shardOrders) ->
+                timedOut.addAll(shardRouter.onShard(shard, () -> timeoutUnpaidOrdersInShard(shardOrders))));
+        orderCache.evictAll(timedOut);
+        return timedOut;
+    }
+
+    private List<SeckillOrder> timeoutUnpaidOrdersInShard(List<SeckillOrder> orders) {
+        // 先锁定仍待支付的行：并发支付已提交的行不返回；锁定后支付 / 取消的条件更新需等待本事务提交，
+        // 提交后其 status 条件不再满足，更新 0 行
+        Set<Long> locked = new HashSet<>(orderMapper.selectIdsByStatusForUpdate(
+                orders.stream().map(SeckillOrder::getId).collect(Collectors.toList()), OrderStatus.UNPAID));
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+        int updated = orderMapper.updateStatusBatch(locked, OrderStatus.UNPAID, OrderStatus.TIMEOUT);
+        if (updated != locked.size()) {
+            throw new IllegalStateException(String.format("批量置超时行数不一致，locked: %d, updated: %d",
+                    locked.size(), updated));
+        }
+        return orders.stream().filter(order -> locked.contains(order.getId())).collect(Collectors.toList());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean updateOrderStatus(Long orderId, Integer newStatus) {
+        return shardRouter.route(orderId, () -> doUpdateOrderStatus(orderId, newStatus));
+    }
+
+    private boolean doUpdateOrderStatus(Long orderId, Integer newStatus) {
         return Optional.ofNullable(this.getById(orderId))
                 .filter(order -> isValidStatusTransition(order.getStatus(), newStatus))
                 .map(order -> {
@@ -154,6 +420,7 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
 
                     boolean success = this.updateById(updateOrder);
                     if (success) {
+                        orderCache.evict(order.getOrderNo(), order.getUserId());
                         log.info("订单状态更新成功 - orderId: {}, oldStatus: {}, newStatus: {}",
                                 orderId, order.getStatus(), newStatus);
                     }
@@ -168,6 +435,10 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean payOrder(Long orderNo) {
+        return shardRouter.route(orderNo, () -> doPayOrder(orderNo));
+    }
+
+    private boolean doPayOrder(Long orderNo) {
         SeckillOrder order = findByOrderNo(orderNo)
                 .orElseThrow(() -> new BusinessException(ResultCode.ORDER_NOT_EXIST));
 
@@ -178,23 +449,25 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
             throw new BusinessException(ResultCode.ORDER_STATUS_ERROR.getCode(), "订单状态不正确，无法支付");
         }
 
-        SeckillOrder updateOrder = new SeckillOrder();
-        updateOrder.setId(order.getId());
-        updateOrder.setStatus(OrderStatus.PAID);
-        updateOrder.setPayTime(LocalDateTime.now());
-
-        boolean success = this.updateById(updateOrder);
-
-        Optional.of(success)
-                .filter(Boolean::booleanValue)
-                .ifPresent(s -> log.info("订单支付成功 - orderNo: {}, userId: {}", orderNo, order.getUserId()));
+        // 状态条件更新：读取后被超时扫描置为已超时（库存已回滚）的订单不能再支付
+        int updated = orderMapper.updateStatusIfMatch(order.getId(), OrderStatus.UNPAID, OrderStatus.PAID,
+                LocalDateTime.now());
+        if (updated == 0) {
+            throw new BusinessException(ResultCode.ORDER_STATUS_ERROR.getCode(), "订单状态已变更，无法支付");
+        }
 
-        return success;
+        orderCache.evict(orderNo, order.getUserId());
+        log.info("订单支付成功 - orderNo: {}, userId: {}", orderNo, order.getUserId());
+        return true;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean cancelOrder(Long orderNo) {
+        return shardRouter.route(orderNo, () -> doCancelOrder(orderNo));
+    }
+
+    private boolean doCancelOrder(Long orderNo) {
         SeckillOrder order = findByOrderNo(orderNo)
                 .orElseThrow(() -> new BusinessException(ResultCode.ORDER_NOT_EXIST));
 
@@ -205,17 +478,81 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
             throw new BusinessException(ResultCode.ORDER_STATUS_ERROR.getCode(), "只能取消待支付的订单");
         }
 
-        SeckillOrder updateOrder = new SeckillOrder();
-        updateOrder.setId(order.getId());
-        updateOrder.setStatus(OrderStatus.CANCELLED);
+        // 状态条件更新：读取后已被支付或置为超时的订单不能再取消
+        int updated = orderMapper.updateStatusIfMatch(order.getId(), OrderStatus.UNPAID, OrderStatus.CANCELLED, null);
+        if (updated == 0) {
+            throw new BusinessException(ResultCode.ORDER_STATUS_ERROR.getCode(), "订单状态已变更，无法取消");
+        }
 
-        boolean success = this.updateById(updateOrder);
+        orderCache.evict(orderNo, order.getUserId());
+        log.info("订单取消成功 - orderNo: {}, userId: {}", orderNo, order.getUserId());
+        return true;
+    }
 
-        Optional.of(success)
-                .filter(Boolean::booleanValue)
-                .ifPresent(s -> log.info("订单取消成功 - orderNo: {}, userId: {}", orderNo, order.getUserId()));
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<SeckillOrder> expireUnpaidOrders(LocalDateTime deadline, int limit) {
+        // 分表时依次处理各分片，合计不超过 limit；同一数据源，仍在一个事务内
+        List<SeckillOrder> expired = new ArrayList<>();
+        for (Integer shard : shardRouter.allShards()) {
+            int remaining = limit - expired.size();
+            if (remaining <= 0) {
+                break;
+            }
+            expired.addAll(shardRouter.onShard(shard, () -> expireUnpaidOrdersInShard(deadline, remaining)));
+        }
+        orderCache.evictAll(expired);
+        return expired;
+    }
+
+    private List<SeckillOrder> expireUnpaidOrdersInShard(LocalDateTime deadline, int limit) {
+        // 先锁定再更新：支付 / 取消的条件更新在锁上等待，本事务提交后不再满足 status 条件；UPDATE 仍带状态条件兜底
+        List<SeckillOrder> expired = orderMapper.selectByStatusBeforeForUpdate(OrderStatus.UNPAID, deadline, limit);
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        int updated = orderMapper.updateStatusBatch(
+                expired.stream().map(SeckillOrder::getId).collect(Collectors.toList()),
+                OrderStatus.UNPAID, OrderStatus.TIMEOUT);
+        if (updated != expired.size()) {
+            throw new IllegalStateException(String.format("批量置超时行数不一致，locked: %d, updated: %d",
+                    expired.size(), updated));
+        }
+        return expired;
+    }
 
-        return success;
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int archiveFinishedOrders(LocalDateTime deadline, int limit) {
+        int archived = 0;
+        for (Integer shard : shardRouter.allShards()) {
+            for (Integer status : ARCHIVABLE_STATUSES) {
+                int remaining = limit - archived;
+                if (remaining <= 0) {
+                    return archived;
+                }
+                archived += shardRouter.onShard(shard, () -> archiveInShard(status, deadline, remaining));
+            }
+        }
+        return archived;
+    }
+
+    private int archiveInShard(Integer status, LocalDateTime deadline, int limit) {
+        // 先锁定再搬迁：复制到归档表后从热表物理删除，同一事务内完成
+        List<Long> ids = orderArchiveMapper.selectArchivableIdsForUpdate(status, deadline, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = orderArchiveMapper.copyToArchive(ids);
+        int deleted = orderArchiveMapper.deleteFromHot(ids);
+        if (deleted != ids.size()) {
+            throw new IllegalStateException(String.format("归档删除行数不一致，locked: %d, deleted: %d",
+                    ids.size(), deleted));
+        }
+        if (copied != ids.size()) {
+            log.warn("部分订单此前已归档 - status: {}, locked: {}, copied: {}", status, ids.size(), copied);
+        }
+        return deleted;
     }
 
     /**
@@ -227,17 +564,4 @@ public class OrderServiceImpl extends ServiceImpl<OrderMapper, SeckillOrder> imp
                 .map(allowedStatuses -> allowedStatuses.contains(newStatus))
                 .orElse(false);
     }
-
-    /**
-     * 转换为 VO（使用方法引用）
-     */
-    private OrderVO convertToVO(SeckillOrder order) {
-        OrderVO vo = new OrderVO();
-        BeanUtils.copyProperties(order, vo);
-
-        // 使用 Map.getOrDefault 获取状态描述
-        vo.setStatusDesc(STATUS_DESCRIPTIONS.getOrDefault(order.getStatus(), "未知"));
-
-        return vo;
-    }
 }
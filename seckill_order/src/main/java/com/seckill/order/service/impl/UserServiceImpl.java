@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.seckill.common.constant.UserStatus;
 import com.seckill.common.exception.BusinessException;
 import com.seckill.common.result.ResultCode;
+import com.seckill.order.converter.UserConverter;
 import com.seckill.order.dto.LoginDTO;
 import com.seckill.order.dto.RegisterDTO;
 import com.seckill.order.entity.SeckillUser;
@@ -34,6 +35,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SeckillUser> implem
 
     private final JwtUtil jwtUtil;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final UserConverter userConverter;
 
     @Override
     public UserVO login(LoginDTO dto) {
@@ -68,7 +70,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SeckillUser> implem
         String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole());
 
         log.info("用户登录成功: {}", dto.getUsername());
-        return toVO(user, token);
+        return userConverter.toVO(user, token);
     }
 
     @Override
@@ -105,7 +107,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SeckillUser> implem
         String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole());
 
         log.info("用户注册成功: {}", dto.getUsername());
-        return toVO(user, token);
+        return userConverter.toVO(user, token);
     }
 
     @Override
@@ -114,20 +116,6 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SeckillUser> implem
         if (user == null) {
             throw new BusinessException(ResultCode.USER_NOT_EXIST);
         }
-        return toVO(user, null);
-    }
-
-    /**
-     * 转换为 VO
-     */
-    private UserVO toVO(SeckillUser user, String token) {
-        UserVO vo = new UserVO();
-        vo.setId(user.getId());
-        vo.setUsername(user.getUsername());
-        vo.setNickname(user.getNickname());
-        vo.setPhone(user.getPhone());
-        vo.setAvatar(user.getAvatar());
-        vo.setToken(token);
-        return vo;
+        return userConverter.toVO(user, null);
     }
 }
@@ -0,0 +1,166 @@
+package com.seckill.order.shard;
+
+import com.seckill.common.id.ShardGeneIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 订单分表路由
+ * <p>
+ * 开启 seckill.shard.enabled 后订单按用户ID分布到 table-count 张物理表：
+ * </p>
+ * <ul>
+ * <li>分片号 = (路由键低 gene-bits 位) % table-count，路由键可以是用户ID、订单号或订单ID，
+ * 三者低位相同（订单号由 {@link ShardGeneIdGenerator} 嵌入用户ID基因，订单ID取订单号）</li>
+ * <li>物理表名由 table-pattern 生成，默认 {@code seckill_order_%d}；
+ * 配置为 {@code seckill_order_%d.seckill_order} 即为同一 MySQL 实例上的 N 个库</li>
+ * <li>路由结果放在线程上下文中，由 MyBatis-Plus 动态表名插件替换 SQL 中的 seckill_order；
+ * 开启分表后未指定路由的 SQL 直接报错，避免误写逻辑表</li>
+ * </ul>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+public class OrderShardRouter {
+
+    /**
+     * 逻辑表名
+     */
+    public static final String LOGICAL_TABLE = "seckill_order";
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    @Value("${seckill.shard.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.shard.gene-bits:0}")
+    private int geneBits;
+
+    @Value("${seckill.shard.table-count:4}")
+    private int tableCount;
+
+    @Value("${seckill.shard.table-pattern:seckill_order_%d}")
+    private String tablePattern;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (geneBits <= 0 || tableCount <= 0 || (1L << geneBits) % tableCount != 0) {
+            throw new IllegalStateException(String.format(
+                    "分表数必须整除 2^gene-bits - geneBits: %d, tableCount: %d", geneBits, tableCount));
+        }
+        log.info("订单分表已启用 - tableCount: {}, geneBits: {}, tablePattern: {}", tableCount, geneBits, tablePattern);
+    }
+
+    /**
+     * 是否启用分表
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 路由键所在分片
+     *
+     * @param shardKey 用户ID / 订单号 / 订单ID
+     * @return 分片号
+     */
+    public int shardOf(long shardKey) {
+        return (int) (ShardGeneIdGenerator.geneOf(shardKey, geneBits) % tableCount);
+    }
+
+    /**
+     * 分片对应的物理表名
+     */
+    public String tableName(int shard) {
+        return String.format(tablePattern, shard);
+    }
+
+    /**
+     * 全部分片号
+     */
+    public List<Integer> allShards() {
+        return IntStream.range(0, enabled ? tableCount : 1).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * 在路由键所在分片上执行（未启用分表时直接执行）
+     *
+     * @param shardKey 用户ID / 订单号 / 订单ID
+     * @param action   数据访问
+     * @return 执行结果
+     */
+    public <T> T route(long shardKey, Supplier<T> action) {
+        return enabled ? onShard(shardOf(shardKey), action) : action.get();
+    }
+
+    /**
+     * 在指定分片上执行，结束后恢复外层路由
+     *
+     * @param shard  分片号
+     * @param action 数据访问
+     * @return 执行结果
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 按分片分组（未启用分表时全部归入分片 0）
+     *
+     * @param items    元素
+     * @param shardKey 取路由键
+     * @return 分片号 -> 元素
+     */
+    public <E> Map<Integer, List<E>> groupByShard(Collection<E> items, Function<E, Long> shardKey) {
+        return items.stream().collect(Collectors.groupingBy(
+                item -> enabled ? shardOf(shardKey.apply(item)) : 0,
+                LinkedHashMap::new,
+                Collectors.toList()));
+    }
+
+    /**
+     * 动态表名回调：逻辑表替换为当前分片的物理表
+     *
+     * @param tableName SQL 中的表名
+     * @return 物理表名
+     */
+    public String resolveTableName(String tableName) {
+        if (!LOGICAL_TABLE.equalsIgnoreCase(tableName)) {
+            return tableName;
+        }
+        Integer shard = CURRENT_SHARD.get();
+        if (shard == null) {
+            throw new IllegalStateException("订单表已分表，访问前需指定分片");
+        }
+        return tableName(shard);
+    }
+}
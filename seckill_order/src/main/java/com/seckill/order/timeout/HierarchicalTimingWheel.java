@@ -0,0 +1,144 @@
+package com.seckill.order.timeout;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 第 0 层每格 tickMillis，共 wheelSize 格；第 N 层每格等于第 N-1 层一整圈，按需创建，
+ * 因此任意长的超时都只占用 O(1) 的插入成本：
+ * </p>
+ * <ul>
+ * <li>添加：到期时间向上取整到格子边界，放入能容纳它的最低一层对应的格子</li>
+ * <li>推进：每走一格，高层到期格子中的条目降级重新放入低层，第 0 层到期格子中的条目整格取出</li>
+ * <li>到期时间已过的条目在下一次推进时直接取出</li>
+ * </ul>
+ * <p>
+ * 条目不会提前取出，最多延后 tickMillis；非线程安全的内部状态由对象锁保护，添加与推进可在不同线程调用
+ * </p>
+ *
+ * @param <T> 条目类型
+ * @author seckill
+ * @since 2.1.0
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final Level<T> root;
+    private final List<T> due = new ArrayList<>();
+    private int size;
+
+    /**
+     * 构造函数
+     *
+     * @param tickMillis  第 0 层每格的毫秒数
+     * @param wheelSize   每层的格数
+     * @param startMillis 起始时间
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis 必须大于 0，wheelSize 必须大于 1");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.root = new Level<>(tickMillis, wheelSize, startMillis);
+    }
+
+    /**
+     * 添加条目
+     *
+     * @param item           条目
+     * @param deadlineMillis 到期时间
+     */
+    public synchronized void add(T item, long deadlineMillis) {
+        long expiration = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis) * tickMillis;
+        place(new Entry<>(item, expiration));
+        size++;
+    }
+
+    /**
+     * 推进到指定时间，取出所有已到期的条目
+     *
+     * @param nowMillis 当前时间
+     * @return 到期条目，按格子顺序
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>(due);
+        due.clear();
+        while (root.currentTime + tickMillis <= nowMillis) {
+            long time = root.currentTime + tickMillis;
+
+            // 先更新各层当前时间，再从高到低处理到期格子，降级的条目才能落到正确的低层位置
+            List<Level<T>> turned = new ArrayList<>();
+            for (Level<T> level = root; level != null && time % level.tick == 0; level = level.overflow) {
+                level.currentTime = time;
+                turned.add(level);
+            }
+            for (int i = turned.size() - 1; i >= 0; i--) {
+                Deque<Entry<T>> bucket = turned.get(i).bucketAt(time);
+                while (!bucket.isEmpty()) {
+                    place(bucket.poll());
+                }
+            }
+            due.forEach(expired::add);
+            due.clear();
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * 未到期的条目数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        Level<T> level = root;
+        if (entry.expiration <= level.currentTime) {
+            due.add(entry.item);
+            return;
+        }
+        while (entry.expiration >= level.currentTime + level.interval) {
+            if (level.overflow == null) {
+                level.overflow = new Level<>(level.interval, wheelSize, level.currentTime);
+            }
+            level = level.overflow;
+        }
+        level.bucketAt(entry.expiration).add(entry);
+    }
+
+    /**
+     * 时间轮的一层
+     */
+    private static final class Level<T> {
+        private final long tick;
+        private final long interval;
+        private final Deque<Entry<T>>[] buckets;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tick, int wheelSize, long startMillis) {
+            this.tick = tick;
+            this.interval = tick * wheelSize;
+            this.currentTime = startMillis - Math.floorMod(startMillis, tick);
+            this.buckets = new Deque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+        }
+
+        Deque<Entry<T>> bucketAt(long time) {
+            return buckets[(int) Math.floorMod(Math.floorDiv(time, tick), (long) buckets.length)];
+        }
+    }
+
+    private record Entry<T>(T item, long expiration) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.seckill.order.timeout;
+
+import com.seckill.order.compensation.CompensationTaskService;
+import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.feign.StockFeignClient;
+import com.seckill.order.feign.StockRollbackAggregator;
+import com.seckill.order.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 订单超时处理
+ * <p>
+ * 超时未支付的订单置为已超时并回滚库存，回滚失败时创建补偿任务；
+ * 延时消息消费者与时间轮调度器共用
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderTimeoutHandler {
+
+    private final OrderService orderService;
+    private final StockFeignClient stockFeignClient;
+    private final CompensationTaskService compensationTaskService;
+    private final StockRollbackAggregator stockRollbackAggregator;
+
+    /**
+     * 批量处理到期订单
+     * <p>
+     * 一次查询取出其中仍待支付的订单，按状态条件批量置为已超时，只为实际变更的订单回滚库存；
+     * 已支付 / 已取消 / 不存在的订单视为处理完成
+     * </p>
+     *
+     * @param orderNos 到期的订单号
+     * @return 处理失败、需要稍后重试的订单号
+     */
+    public List<Long> handleTimeoutBatch(Collection<Long> orderNos) {
+        List<SeckillOrder> unpaid = orderService.listUnpaidByOrderNos(orderNos);
+        if (unpaid.isEmpty()) {
+            return List.of();
+        }
+
+        List<SeckillOrder> timedOut;
+        try {
+            timedOut = orderService.timeoutUnpaidOrders(unpaid);
+        } catch (Exception e) {
+            log.error("批量置超时失败 - size: {}", unpaid.size(), e);
+            return unpaid.stream().map(SeckillOrder::getOrderNo).collect(Collectors.toList());
+        }
+
+        List<Long> failed = new ArrayList<>();
+        timedOut.forEach(order -> {
+            try {
+                rollbackStock(order);
+            } catch (Exception e) {
+                log.error("订单超时处理失败 - orderNo: {}", order.getOrderNo(), e);
+                failed.add(order.getOrderNo());
+            }
+        });
+        log.info("批量处理订单超时 - expired: {}, unpaid: {}, timedOut: {}, failed: {}",
+                orderNos.size(), unpaid.size(), timedOut.size(), failed.size());
+        return failed;
+    }
+
+    /**
+     * 处理单个订单超时
+     *
+     * @param order 待支付订单
+     */
+    public void handleTimeout(SeckillOrder order) {
+        // 状态条件更新：并发支付已提交时不变更，也不回滚库存
+        orderService.timeoutUnpaidOrders(List.of(order)).forEach(o -> {
+            rollbackStock(o);
+            log.info("订单超时取消成功 - orderNo: {}, userId: {}", o.getOrderNo(), o.getUserId());
+        });
+    }
+
+    /**
+     * 回滚已超时订单的库存，失败时创建补偿任务
+     *
+     * @param order 已置为超时的订单
+     */
+    private void rollbackStock(SeckillOrder order) {
+        Long orderNo = order.getOrderNo();
+        if (stockRollbackAggregator.isEnabled()) {
+            // 合并到批量回滚，失败由聚合器转为补偿任务
+            stockRollbackAggregator.submit(orderNo, order.getGoodsId(), order.getGoodsCount());
+            return;
+        }
+        try {
+            stockFeignClient.rollbackStock(order.getGoodsId(), order.getGoodsCount());
+            log.info("订单超时处理完成，库存已回滚 - orderNo: {}, goodsId: {}, count: {}",
+                    orderNo, order.getGoodsId(), order.getGoodsCount());
+        } catch (Exception e) {
+            log.error("回滚库存失败，创建补偿任务 - orderNo: {}, goodsId: {}", orderNo, order.getGoodsId(), e);
+            // 创建补偿任务，等待后续自动重试
+            compensationTaskService.createStockRollbackTask(order.getGoodsId(), order.getGoodsCount());
+        }
+    }
+}
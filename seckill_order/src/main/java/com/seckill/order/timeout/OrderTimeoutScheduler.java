@@ -0,0 +1,186 @@
+package com.seckill.order.timeout;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 订单支付超时调度（时间轮模式）
+ * <p>
+ * 开启 seckill.order.timeout.mode=wheel 后代替 RocketMQ 延时消息：
+ * </p>
+ * <ul>
+ * <li>下单时把订单号按到期时间写入 Redis ZSET {@code seckill:order:timeout}，同时放入本地分层时间轮</li>
+ * <li>时间轮每格取出的到期订单整批查询、整批处理，处理完成后从 ZSET 移除</li>
+ * <li>超时时长取 seckill.order.timeout-minutes，不再受延时级别限制，也支持按订单指定</li>
+ * </ul>
+ * <p>
+ * 实例重启或宕机后本地时间轮中的条目丢失，由各实例定时认领 ZSET 中逾期超过宽限期仍未处理的订单：
+ * 认领脚本把条目的分数改为租约到期时间，处理失败或认领者宕机时租约过期后可再次被认领。
+ * 重复处理由订单状态校验保证幂等。
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderTimeoutScheduler {
+
+    /**
+     * Lua 脚本：认领逾期条目
+     * <p>
+     * KEYS[1] 超时 ZSET；ARGV[1] 最大到期时间，ARGV[2] 最大认领数，ARGV[3] 租约到期时间
+     * </p>
+     */
+    private static final String CLAIM_LUA = "local ids = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "for _, id in ipairs(ids) do redis.call('zadd', KEYS[1], ARGV[3], id) end " +
+            "return ids";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(CLAIM_LUA, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final OrderTimeoutHandler timeoutHandler;
+
+    @Value("${seckill.order.timeout.mode:mq}")
+    private String mode;
+
+    @Value("${seckill.order.timeout-minutes:15}")
+    private long timeoutMinutes;
+
+    @Value("${seckill.order.timeout.tick-ms:100}")
+    private long tickMillis;
+
+    @Value("${seckill.order.timeout.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${seckill.order.timeout.batch-size:200}")
+    private int batchSize;
+
+    @Value("${seckill.order.timeout.recover-grace-ms:10000}")
+    private long recoverGraceMillis;
+
+    @Value("${seckill.order.timeout.claim-lease-ms:60000}")
+    private long claimLeaseMillis;
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private Thread ticker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        running = true;
+        ticker = new Thread(this::tickLoop, "order-timeout-wheel");
+        ticker.setDaemon(true);
+        ticker.start();
+        log.info("订单超时时间轮已启用 - timeoutMinutes: {}, tickMillis: {}, wheelSize: {}",
+                timeoutMinutes, tickMillis, wheelSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            // 未处理的条目仍在 ZSET 中，由其他实例或重启后认领
+            ticker.interrupt();
+        }
+    }
+
+    /**
+     * 是否启用时间轮模式
+     */
+    public boolean isEnabled() {
+        return "wheel".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 按默认超时时长登记订单
+     *
+     * @param orderNo 订单号
+     */
+    public void schedule(Long orderNo) {
+        schedule(orderNo, TimeUnit.MINUTES.toMillis(timeoutMinutes));
+    }
+
+    /**
+     * 登记订单超时
+     *
+     * @param orderNo       订单号
+     * @param timeoutMillis 超时时长（毫秒）
+     */
+    public void schedule(Long orderNo, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        // 先持久化再放入时间轮，保证时间轮中的条目一定能被恢复
+        redisTemplate.opsForZSet().add(RedisKeyConstants.ORDER_TIMEOUT_KEY, String.valueOf(orderNo), deadline);
+        wheel.add(orderNo, deadline);
+        log.debug("登记订单超时 - orderNo: {}, timeoutMillis: {}", orderNo, timeoutMillis);
+    }
+
+    /**
+     * 认领逾期未处理的条目（宕机实例遗留或处理失败）
+     */
+    @Scheduled(fixedDelayString = "${seckill.order.timeout.recover-interval-ms:5000}")
+    public void recover() {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        @SuppressWarnings("unchecked")
+        List<String> claimed = redisTemplate.execute(CLAIM_SCRIPT,
+                List.of(RedisKeyConstants.ORDER_TIMEOUT_KEY),
+                String.valueOf(now - recoverGraceMillis),
+                String.valueOf(batchSize),
+                String.valueOf(now + claimLeaseMillis));
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+        log.warn("认领逾期未处理的订单超时 - size: {}", claimed.size());
+        fire(claimed.stream().map(Long::valueOf).collect(Collectors.toList()));
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+                fire(wheel.advanceTo(System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // 整批失败的条目仍在 ZSET 中，逾期后由 recover 认领
+                log.error("订单超时批量处理异常", e);
+            }
+        }
+    }
+
+    private void fire(List<Long> orderNos) {
+        for (int from = 0; from < orderNos.size(); from += batchSize) {
+            List<Long> batch = orderNos.subList(from, Math.min(from + batchSize, orderNos.size()));
+            List<Long> failed = timeoutHandler.handleTimeoutBatch(batch);
+            Object[] done = batch.stream()
+                    .filter(orderNo -> !failed.contains(orderNo))
+                    .map(String::valueOf)
+                    .toArray();
+            if (done.length > 0) {
+                redisTemplate.opsForZSet().remove(RedisKeyConstants.ORDER_TIMEOUT_KEY, done);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.seckill.order.timeout;
+
+import com.seckill.common.result.Result;
+import com.seckill.order.compensation.CompensationTaskService;
+import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.feign.StockFeignClient;
+import com.seckill.order.feign.StockRollbackAggregator;
+import com.seckill.order.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 订单超时批量扫描（扫描模式）
+ * <p>
+ * 开启 seckill.order.timeout.mode=sweep 后下单时不再逐单登记超时，改为定时按批过期：
+ * </p>
+ * <ul>
+ * <li>每批在一个事务内锁定最多 chunk-size 条「待支付且创建时间早于 now - timeout-minutes」的订单，
+ * 并用一条带状态条件的 UPDATE 置为已超时（走 (status, deleted, create_time) 索引）</li>
+ * <li>事务提交后按商品汇总释放的数量，每个商品一次库存回滚调用，
+ * 一批超时订单的远程调用次数从 O(订单数) 降为 O(商品数)</li>
+ * <li>回滚失败的商品按汇总数量创建补偿任务</li>
+ * <li>开启库存回滚聚合时改为按订单提交给 {@link StockRollbackAggregator}，回滚按订单号幂等</li>
+ * </ul>
+ * <p>
+ * 多实例同时扫描时 SKIP LOCKED 让各实例处理不同的行
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderTimeoutSweeper {
+
+    private final OrderService orderService;
+    private final StockFeignClient stockFeignClient;
+    private final CompensationTaskService compensationTaskService;
+    private final StockRollbackAggregator stockRollbackAggregator;
+
+    @Value("${seckill.order.timeout.mode:mq}")
+    private String mode;
+
+    @Value("${seckill.order.timeout-minutes:15}")
+    private long timeoutMinutes;
+
+    @Value("${seckill.order.timeout.sweep.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${seckill.order.timeout.sweep.max-chunks:20}")
+    private int maxChunks;
+
+    /**
+     * 是否启用扫描模式
+     */
+    public boolean isEnabled() {
+        return "sweep".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 扫描超时订单，每轮最多处理 max-chunks 批，剩余的留到下一轮
+     */
+    @Scheduled(fixedDelayString = "${seckill.order.timeout.sweep.interval-ms:5000}")
+    public void sweep() {
+        if (!isEnabled()) {
+            return;
+        }
+        LocalDateTime deadline = LocalDateTime.now().minusMinutes(timeoutMinutes);
+        int total = 0;
+        for (int i = 0; i < maxChunks; i++) {
+            List<SeckillOrder> expired = orderService.expireUnpaidOrders(deadline, chunkSize);
+            total += expired.size();
+            rollbackStock(expired);
+            if (expired.size() < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("批量扫描超时订单完成 - expired: {}, deadline: {}", total, deadline);
+        }
+    }
+
+    /**
+     * 按商品汇总后回滚库存
+     */
+    private void rollbackStock(List<SeckillOrder> expired) {
+        if (stockRollbackAggregator.isEnabled()) {
+            // 按订单提交，由库存服务按商品合并并按订单号幂等
+            expired.forEach(order -> stockRollbackAggregator.submit(
+                    order.getOrderNo(), order.getGoodsId(), order.getGoodsCount()));
+            return;
+        }
+        Map<Long, Integer> released = expired.stream()
+                .collect(Collectors.groupingBy(SeckillOrder::getGoodsId,
+                        Collectors.summingInt(SeckillOrder::getGoodsCount)));
+
+        released.forEach((goodsId, count) -> {
+            try {
+                boolean success = Optional.ofNullable(stockFeignClient.rollbackStock(goodsId, count))
+                        .map(Result::isSuccess)
+                        .orElse(false);
+                if (!success) {
+                    throw new IllegalStateException("库存服务返回失败");
+                }
+                log.info("超时订单库存已回滚 - goodsId: {}, count: {}", goodsId, count);
+            } catch (Exception e) {
+                log.error("回滚库存失败，创建补偿任务 - goodsId: {}, count: {}", goodsId, count, e);
+                compensationTaskService.createStockRollbackTask(goodsId, count);
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+-- ============================================================================
+-- Flyway Migration: V4__add_order_query_indexes.sql
+-- 描述: 订单表添加超时扫描、游标分页与管理端搜索使用的联合索引，删除被覆盖的单列索引
+-- 作者: seckill
+-- 时间: 2026-10-16
+-- ============================================================================
+
+-- 1. 用户订单分页：WHERE user_id = ? AND deleted = 0 ORDER BY create_time DESC, id DESC
+--    （二级索引隐含主键 id，排序与游标比较均可在索引内完成）
+ALTER TABLE seckill_order ADD KEY idx_user_deleted_create_time (`user_id`, `deleted`, `create_time`);
+
+-- 2. 管理端按商品搜索：状态放在最后，按时间顺序扫描时在索引内过滤状态
+ALTER TABLE seckill_order ADD KEY idx_goods_deleted_create_time_status (`goods_id`, `deleted`, `create_time`, `status`);
+
+-- 3. 超时扫描 / 归档扫描 / 管理端按状态搜索：WHERE status = ? AND deleted = 0 AND create_time < ? ORDER BY create_time
+ALTER TABLE seckill_order ADD KEY idx_status_deleted_create_time (`status`, `deleted`, `create_time`);
+
+-- 4. 管理端仅按时间范围搜索
+ALTER TABLE seckill_order ADD KEY idx_deleted_create_time (`deleted`, `create_time`);
+
+-- 5. 删除被新索引或 uk_user_goods 覆盖的冗余索引
+DROP INDEX idx_user_id ON seckill_order;
+DROP INDEX idx_goods_id ON seckill_order;
+DROP INDEX idx_status ON seckill_order;
+DROP INDEX idx_create_time ON seckill_order;
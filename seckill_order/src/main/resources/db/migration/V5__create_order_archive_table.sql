@@ -0,0 +1,31 @@
+-- ============================================================================
+-- Flyway Migration: V5__create_order_archive_table.sql
+-- 描述: 创建订单归档表，已结束（已收货 / 已取消 / 已超时）的历史订单从热表迁入
+-- 作者: seckill
+-- 时间: 2026-10-16
+-- ============================================================================
+
+-- 订单归档表：列与 seckill_order 一致，ID 沿用热表 ID；不建 uk_user_goods 等写路径索引，
+-- 只保留按订单号、订单ID、用户查询所需的索引
+CREATE TABLE IF NOT EXISTS `seckill_order_archive` (
+    `id` BIGINT NOT NULL COMMENT '订单ID(沿用热表)',
+    `order_no` BIGINT NOT NULL COMMENT '订单编号(雪花算法)',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `goods_id` BIGINT NOT NULL COMMENT '商品ID',
+    `goods_name` VARCHAR(255) NOT NULL COMMENT '商品名称(快照)',
+    `goods_img` VARCHAR(500) DEFAULT NULL COMMENT '商品图片(快照)',
+    `goods_price` DECIMAL(10, 2) NOT NULL COMMENT '秒杀价格(快照)',
+    `goods_count` INT NOT NULL DEFAULT 1 COMMENT '购买数量',
+    `total_amount` DECIMAL(10, 2) NOT NULL COMMENT '订单总金额',
+    `channel` INT DEFAULT 1 COMMENT '下单渠道: 1-PC, 2-Android, 3-iOS, 4-小程序',
+    `status` INT NOT NULL COMMENT '订单状态: 3-已收货, 4-已取消, 5-已超时',
+    `create_time` DATETIME NOT NULL COMMENT '创建时间',
+    `pay_time` DATETIME DEFAULT NULL COMMENT '支付时间',
+    `update_time` DATETIME DEFAULT NULL COMMENT '更新时间',
+    `deleted` INT NOT NULL DEFAULT 0 COMMENT '逻辑删除: 0-未删除, 1-已删除',
+    `archive_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_order_no` (`order_no`),
+    KEY `idx_user_deleted_create_time` (`user_id`, `deleted`, `create_time`),
+    KEY `idx_user_goods` (`user_id`, `goods_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='秒杀订单归档表';
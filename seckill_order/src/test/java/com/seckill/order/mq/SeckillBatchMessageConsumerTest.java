@@ -0,0 +1,134 @@
+package com.seckill.order.mq;
+
+import com.alibaba.fastjson.JSON;
+import com.seckill.common.dto.SeckillMessage;
+import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.service.OrderService;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 秒杀消息批量消费者单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("秒杀消息批量消费者单元测试")
+class SeckillBatchMessageConsumerTest {
+
+    private static final String DEAD_LETTER_TOPIC = "seckill-order-dead-letter-topic";
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderTimeoutProducer orderTimeoutProducer;
+
+    @Mock
+    private RocketMQTemplate rocketMQTemplate;
+
+    @InjectMocks
+    private SeckillBatchMessageConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(consumer, "maxAttempts", 3);
+        ReflectionTestUtils.setField(consumer, "deadLetterTopic", DEAD_LETTER_TOPIC);
+    }
+
+    @Test
+    @DisplayName("整批成功 - 不逐条处理")
+    void testConsume_BatchSuccess() {
+        List<MessageExt> messages = List.of(message("m1", 1L, 100L), message("m2", 2L, 101L));
+        when(orderService.createOrdersBatch(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertTrue(consumer.consume(messages));
+
+        verify(orderService, never()).createOrder(any());
+        verify(orderTimeoutProducer, times(2)).sendTimeoutMessageAsync(anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("整批失败 - 逐条处理成功后可以提交位点")
+    void testConsume_FallbackToSingle() {
+        List<MessageExt> messages = List.of(message("m1", 1L, 100L), message("m2", 2L, 101L));
+        when(orderService.createOrdersBatch(anyList())).thenThrow(new RuntimeException("batch failed"));
+        when(orderService.createOrder(any(SeckillOrder.class))).thenReturn(true, false);
+
+        assertTrue(consumer.consume(messages));
+
+        verify(orderService, times(2)).createOrder(any(SeckillOrder.class));
+        // 第二条为重复消息，不再发送超时消息
+        verify(orderTimeoutProducer, times(1)).sendTimeoutMessageAsync(eq(100L), eq(1L), anyLong(), anyInt());
+        verify(rocketMQTemplate, never()).syncSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    @DisplayName("毒消息 - 累计失败达到上限后转入死信，不再阻塞")
+    void testConsume_PoisonMessageToDeadLetter() {
+        List<MessageExt> messages = List.of(message("m1", 1L, 100L), message("poison", 2L, 101L));
+        when(orderService.createOrdersBatch(anyList())).thenThrow(new RuntimeException("batch failed"));
+        when(orderService.createOrder(argThat(order -> order != null && order.getOrderNo() == 101L)))
+                .thenThrow(new RuntimeException("bad row"));
+        when(orderService.createOrder(argThat(order -> order != null && order.getOrderNo() == 100L)))
+                .thenReturn(false);
+        SendResult sendResult = new SendResult();
+        sendResult.setSendStatus(SendStatus.SEND_OK);
+        when(rocketMQTemplate.syncSend(eq(DEAD_LETTER_TOPIC), any(Object.class))).thenReturn(sendResult);
+
+        assertFalse(consumer.consume(messages));
+        assertFalse(consumer.consume(messages));
+        verify(rocketMQTemplate, never()).syncSend(anyString(), any(Object.class));
+
+        assertTrue(consumer.consume(messages));
+        verify(rocketMQTemplate).syncSend(eq(DEAD_LETTER_TOPIC), contains("\"orderNo\":101"));
+    }
+
+    @Test
+    @DisplayName("死信转发失败 - 保留位点继续重试")
+    void testConsume_DeadLetterSendFailed() {
+        List<MessageExt> messages = List.of(message("poison", 2L, 101L));
+        ReflectionTestUtils.setField(consumer, "maxAttempts", 1);
+        when(orderService.createOrdersBatch(anyList())).thenThrow(new RuntimeException("batch failed"));
+        when(orderService.createOrder(any(SeckillOrder.class))).thenThrow(new RuntimeException("bad row"));
+        when(rocketMQTemplate.syncSend(eq(DEAD_LETTER_TOPIC), any(Object.class)))
+                .thenThrow(new RuntimeException("broker down"));
+
+        assertFalse(consumer.consume(messages));
+    }
+
+    private static MessageExt message(String msgId, Long userId, Long orderNo) {
+        SeckillMessage body = SeckillMessage.builder()
+                .orderNo(orderNo)
+                .userId(userId)
+                .goodsId(1L)
+                .goodsName("商品")
+                .seckillPrice(new BigDecimal("9.90"))
+                .count(1)
+                .build();
+        MessageExt message = new MessageExt();
+        message.setMsgId(msgId);
+        message.setTopic("seckill-order-topic");
+        message.setBody(JSON.toJSONString(body).getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+}
@@ -2,19 +2,35 @@ package com.seckill.order.service;
 
 import com.seckill.common.constant.OrderStatus;
 import com.seckill.common.exception.BusinessException;
-import com.seckill.common.id.DistributedIdGenerator;
+import com.seckill.common.id.IdGenerator;
+import com.seckill.common.result.ResultCode;
+import com.seckill.common.dto.CursorPageResult;
+import com.seckill.order.cache.OrderCache;
+import com.seckill.order.converter.OrderConverter;
+import com.seckill.order.dto.OrderCursor;
+import com.seckill.order.dto.OrderSearchQuery;
 import com.seckill.order.entity.SeckillOrder;
+import com.seckill.order.mapper.OrderArchiveMapper;
 import com.seckill.order.mapper.OrderMapper;
 import com.seckill.order.service.impl.OrderServiceImpl;
+import com.seckill.order.shard.OrderShardRouter;
 import com.seckill.order.vo.OrderVO;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,7 +50,22 @@ public class OrderServiceTest {
     private OrderMapper orderMapper;
 
     @Mock
-    private DistributedIdGenerator idGenerator;
+    private IdGenerator idGenerator;
+
+    @Mock
+    private OrderCache orderCache;
+
+    @Mock
+    private OrderArchiveMapper orderArchiveMapper;
+
+    /**
+     * 默认未启用分表，路由直接执行
+     */
+    @Spy
+    private OrderShardRouter shardRouter = new OrderShardRouter();
+
+    @Spy
+    private OrderConverter orderConverter = Mappers.getMapper(OrderConverter.class);
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -111,7 +142,7 @@ public class OrderServiceTest {
     @DisplayName("检查用户是否有订单")
     void testHasOrder() {
         // Given
-        when(orderMapper.selectByUserAndGoods(1001L, 1L)).thenReturn(testOrder);
+        when(orderMapper.existsByUserAndGoods(1001L, 1L)).thenReturn(1);
 
         // When
         boolean result = orderService.hasOrder(1001L, 1L);
@@ -124,7 +155,7 @@ public class OrderServiceTest {
     @DisplayName("用户无订单")
     void testHasOrder_NotFound() {
         // Given
-        when(orderMapper.selectByUserAndGoods(1001L, 1L)).thenReturn(null);
+        when(orderMapper.existsByUserAndGoods(1001L, 1L)).thenReturn(null);
 
         // When
         boolean result = orderService.hasOrder(1001L, 1L);
@@ -132,4 +163,386 @@ public class OrderServiceTest {
         // Then
         assertFalse(result);
     }
+
+    @Test
+    @DisplayName("创建订单 - 唯一键冲突按幂等跳过")
+    void testCreateOrder_DuplicateKey() {
+        // Given
+        OrderServiceImpl spyService = spy(orderService);
+        doThrow(new DuplicateKeyException("Duplicate entry for key 'uk_order_no'"))
+                .when(spyService).save(testOrder);
+        doReturn(testOrder).when(spyService).getOne(any());
+
+        // When
+        boolean result = spyService.createOrder(testOrder);
+
+        // Then
+        assertFalse(result);
+    }
+
+    @Test
+    @DisplayName("创建订单 - 用户已有该商品的另一笔订单时抛出异常")
+    void testCreateOrder_DuplicateUserGoods() {
+        // Given - 订单号不存在，冲突来自 uk_user_goods
+        OrderServiceImpl spyService = spy(orderService);
+        doThrow(new DuplicateKeyException("Duplicate entry for key 'uk_user_goods'"))
+                .when(spyService).save(testOrder);
+        doReturn(null).when(spyService).getOne(any());
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> spyService.createOrder(testOrder));
+        assertEquals(ResultCode.REPEAT_ORDER.getCode(), exception.getCode());
+    }
+
+    @Test
+    @DisplayName("创建订单 - 订单号被其他用户的订单占用时抛出异常")
+    void testCreateOrder_OrderNoCollision() {
+        // Given
+        SeckillOrder other = new SeckillOrder();
+        other.setOrderNo(testOrder.getOrderNo());
+        other.setUserId(1002L);
+        other.setGoodsId(testOrder.getGoodsId());
+        OrderServiceImpl spyService = spy(orderService);
+        doThrow(new DuplicateKeyException("Duplicate entry for key 'uk_order_no'"))
+                .when(spyService).save(testOrder);
+        doReturn(other).when(spyService).getOne(any());
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> spyService.createOrder(testOrder));
+    }
+
+    @Test
+    @DisplayName("创建订单 - 用户已有该商品的归档订单时不插入")
+    void testCreateOrder_ArchivedUserGoods() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "archiveReadFallback", true);
+        SeckillOrder archived = new SeckillOrder();
+        archived.setOrderNo(111L);
+        archived.setUserId(testOrder.getUserId());
+        archived.setGoodsId(testOrder.getGoodsId());
+        when(orderArchiveMapper.selectByUserGoods(List.of(testOrder))).thenReturn(List.of(archived));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> orderService.createOrder(testOrder));
+        assertEquals(ResultCode.REPEAT_ORDER.getCode(), exception.getCode());
+        verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    @DisplayName("批量创建订单 - 跳过已有归档订单的用户 + 商品")
+    void testCreateOrdersBatch_SkipArchived() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "archiveReadFallback", true);
+        SeckillOrder other = new SeckillOrder();
+        other.setOrderNo(987654321L);
+        other.setUserId(1002L);
+        other.setGoodsId(1L);
+        SeckillOrder archived = new SeckillOrder();
+        archived.setOrderNo(111L);
+        archived.setUserId(1002L);
+        archived.setGoodsId(1L);
+        when(orderArchiveMapper.selectByUserGoods(anyCollection())).thenReturn(List.of(archived));
+        when(orderMapper.insertIgnoreBatch(List.of(testOrder))).thenReturn(1);
+
+        // When
+        List<SeckillOrder> created = orderService.createOrdersBatch(List.of(testOrder, other));
+
+        // Then
+        assertEquals(List.of(testOrder), created);
+    }
+
+    @Test
+    @DisplayName("批量创建订单 - 全部插入")
+    void testCreateOrdersBatch_AllInserted() {
+        // Given
+        SeckillOrder other = new SeckillOrder();
+        other.setOrderNo(987654321L);
+        other.setUserId(1002L);
+        other.setGoodsId(1L);
+        when(orderMapper.insertIgnoreBatch(anyList())).thenReturn(2);
+
+        // When
+        List<SeckillOrder> created = orderService.createOrdersBatch(List.of(testOrder, other));
+
+        // Then
+        assertEquals(2, created.size());
+        assertEquals(OrderStatus.UNPAID, other.getStatus());
+        verify(orderMapper, never()).selectExistingOrderNos(any());
+    }
+
+    @Test
+    @DisplayName("批量创建订单 - 唯一键冲突按幂等跳过")
+    void testCreateOrdersBatch_DuplicateSkipped() {
+        // Given - 第二条与已有订单的用户 + 商品冲突，被 INSERT IGNORE 忽略
+        SeckillOrder duplicate = new SeckillOrder();
+        duplicate.setOrderNo(987654321L);
+        duplicate.setUserId(1001L);
+        duplicate.setGoodsId(1L);
+        when(orderMapper.insertIgnoreBatch(anyList())).thenReturn(1);
+        when(orderMapper.selectExistingOrderNos(anyList())).thenReturn(List.of(123456789L));
+
+        // When
+        List<SeckillOrder> created = orderService.createOrdersBatch(List.of(testOrder, duplicate));
+
+        // Then
+        assertEquals(List.of(testOrder), created);
+    }
+
+    @Test
+    @DisplayName("批量创建订单 - 分表时按用户分片插入，订单ID取订单号")
+    void testCreateOrdersBatch_Sharded() {
+        // Given - 2 位基因、4 张分表：用户 1001 落分片 1，用户 1002 落分片 2
+        ReflectionTestUtils.setField(shardRouter, "enabled", true);
+        ReflectionTestUtils.setField(shardRouter, "geneBits", 2);
+        ReflectionTestUtils.setField(shardRouter, "tableCount", 4);
+        SeckillOrder other = new SeckillOrder();
+        other.setOrderNo(987654322L);
+        other.setUserId(1002L);
+        other.setGoodsId(1L);
+        when(orderMapper.insertIgnoreBatch(anyList())).thenReturn(1);
+
+        // When
+        List<SeckillOrder> created = orderService.createOrdersBatch(List.of(testOrder, other));
+
+        // Then
+        assertEquals(2, created.size());
+        assertEquals(testOrder.getOrderNo(), testOrder.getId());
+        assertEquals(other.getOrderNo(), other.getId());
+        verify(shardRouter).onShard(eq(1), any());
+        verify(shardRouter).onShard(eq(2), any());
+        verify(orderMapper, times(2)).insertIgnoreBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("批量置超时 - 锁定的订单全部更新")
+    void testExpireUnpaidOrders() {
+        // Given
+        LocalDateTime deadline = LocalDateTime.now().minusMinutes(15);
+        when(orderMapper.selectByStatusBeforeForUpdate(OrderStatus.UNPAID, deadline, 100))
+                .thenReturn(List.of(testOrder));
+        when(orderMapper.updateStatusBatch(List.of(1L), OrderStatus.UNPAID, OrderStatus.TIMEOUT)).thenReturn(1);
+
+        // When
+        List<SeckillOrder> expired = orderService.expireUnpaidOrders(deadline, 100);
+
+        // Then
+        assertEquals(List.of(testOrder), expired);
+    }
+
+    @Test
+    @DisplayName("批量置超时 - 没有超时订单时不执行更新")
+    void testExpireUnpaidOrders_Empty() {
+        // Given
+        when(orderMapper.selectByStatusBeforeForUpdate(eq(OrderStatus.UNPAID), any(), anyInt()))
+                .thenReturn(List.of());
+
+        // When
+        List<SeckillOrder> expired = orderService.expireUnpaidOrders(LocalDateTime.now(), 100);
+
+        // Then
+        assertTrue(expired.isEmpty());
+        verify(orderMapper, never()).updateStatusBatch(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("按订单置超时 - 已被并发支付的订单不更新也不返回")
+    void testTimeoutUnpaidOrders_SkipPaid() {
+        // Given - 订单 2 在查询后已被支付，锁定时只剩订单 1 仍待支付
+        SeckillOrder paid = new SeckillOrder();
+        paid.setId(2L);
+        paid.setOrderNo(987654321L);
+        when(orderMapper.selectIdsByStatusForUpdate(List.of(1L, 2L), OrderStatus.UNPAID)).thenReturn(List.of(1L));
+        when(orderMapper.updateStatusBatch(Set.of(1L), OrderStatus.UNPAID, OrderStatus.TIMEOUT)).thenReturn(1);
+
+        // When
+        List<SeckillOrder> timedOut = orderService.timeoutUnpaidOrders(List.of(testOrder, paid));
+
+        // Then
+        assertEquals(List.of(testOrder), timedOut);
+        verify(orderCache).evictAll(List.of(testOrder));
+    }
+
+    @Test
+    @DisplayName("按订单置超时 - 全部已支付时不执行更新")
+    void testTimeoutUnpaidOrders_AllPaid() {
+        // Given
+        when(orderMapper.selectIdsByStatusForUpdate(anyCollection(), eq(OrderStatus.UNPAID))).thenReturn(List.of());
+
+        // When
+        List<SeckillOrder> timedOut = orderService.timeoutUnpaidOrders(List.of(testOrder));
+
+        // Then
+        assertTrue(timedOut.isEmpty());
+        verify(orderMapper, never()).updateStatusBatch(any(), any(), any());
+        verify(orderMapper, never()).updateById(any(SeckillOrder.class));
+    }
+
+    @Test
+    @DisplayName("批量归档 - 复制到归档表后从热表删除，合计不超过 limit")
+    void testArchiveFinishedOrders() {
+        // Given - 已收货订单 2 条，已取消订单只剩 1 条额度
+        LocalDateTime deadline = LocalDateTime.now().minusDays(30);
+        when(orderArchiveMapper.selectArchivableIdsForUpdate(OrderStatus.RECEIVED, deadline, 3))
+                .thenReturn(List.of(1L, 2L));
+        when(orderArchiveMapper.selectArchivableIdsForUpdate(OrderStatus.CANCELLED, deadline, 1))
+                .thenReturn(List.of(3L));
+        when(orderArchiveMapper.copyToArchive(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(orderArchiveMapper.deleteFromHot(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // When
+        int archived = orderService.archiveFinishedOrders(deadline, 3);
+
+        // Then
+        assertEquals(3, archived);
+        verify(orderArchiveMapper).deleteFromHot(List.of(1L, 2L));
+        verify(orderArchiveMapper).deleteFromHot(List.of(3L));
+        verify(orderArchiveMapper, never()).selectArchivableIdsForUpdate(eq(OrderStatus.TIMEOUT), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("按订单号查询 - 热表未命中时回查归档表")
+    void testGetByOrderNo_ArchiveFallback() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "archiveReadFallback", true);
+        OrderServiceImpl spyService = spy(orderService);
+        testOrder.setStatus(OrderStatus.RECEIVED);
+        doReturn(null).when(spyService).getOne(any());
+        when(orderArchiveMapper.selectByOrderNo(123456789L)).thenReturn(testOrder);
+
+        // When
+        SeckillOrder order = spyService.getByOrderNo(123456789L);
+
+        // Then
+        assertSame(testOrder, order);
+    }
+
+    @Test
+    @DisplayName("按订单号查询 - 命中缓存不查询数据库")
+    void testGetOrderByOrderNo_CacheHit() {
+        // Given
+        when(orderCache.getByOrderNo(eq(123456789L), any())).thenReturn(Optional.of(testOrder));
+
+        // When
+        OrderVO vo = orderService.getOrderByOrderNo(123456789L);
+
+        // Then
+        assertEquals(123456789L, vo.getOrderNo());
+        assertEquals("待支付", vo.getStatusDesc());
+        verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    @DisplayName("支付订单 - 成功后失效缓存")
+    void testPayOrder_EvictCache() {
+        // Given
+        OrderServiceImpl spyService = spy(orderService);
+        doReturn(testOrder).when(spyService).getOne(any());
+        when(orderMapper.updateStatusIfMatch(eq(1L), eq(OrderStatus.UNPAID), eq(OrderStatus.PAID), any()))
+                .thenReturn(1);
+
+        // When
+        boolean result = spyService.payOrder(123456789L);
+
+        // Then
+        assertTrue(result);
+        verify(orderCache).evict(123456789L, 1001L);
+        verify(spyService, never()).updateById(any());
+    }
+
+    @Test
+    @DisplayName("支付订单 - 读取后已被置为超时时拒绝支付")
+    void testPayOrder_AfterTimeout() {
+        // Given - 读到待支付，条件更新时超时扫描已提交
+        OrderServiceImpl spyService = spy(orderService);
+        doReturn(testOrder).when(spyService).getOne(any());
+        when(orderMapper.updateStatusIfMatch(eq(1L), eq(OrderStatus.UNPAID), eq(OrderStatus.PAID), any()))
+                .thenReturn(0);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> spyService.payOrder(123456789L));
+        assertEquals(ResultCode.ORDER_STATUS_ERROR.getCode(), exception.getCode());
+        verify(orderCache, never()).evict(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("取消订单 - 读取后已被置为超时时拒绝取消，不重复回滚库存")
+    void testCancelOrder_AfterTimeout() {
+        // Given
+        OrderServiceImpl spyService = spy(orderService);
+        doReturn(testOrder).when(spyService).getOne(any());
+        when(orderMapper.updateStatusIfMatch(1L, OrderStatus.UNPAID, OrderStatus.CANCELLED, null)).thenReturn(0);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> spyService.cancelOrder(123456789L));
+        assertEquals(ResultCode.ORDER_STATUS_ERROR.getCode(), exception.getCode());
+    }
+
+    @Test
+    @DisplayName("游标分页 - 多取一条判断下一页并以最后一条生成游标")
+    void testPageByUserId_HasMore() {
+        // Given
+        SeckillOrder older = new SeckillOrder();
+        older.setId(2L);
+        older.setOrderNo(123456790L);
+        older.setStatus(OrderStatus.PAID);
+        older.setCreateTime(testOrder.getCreateTime().minusMinutes(1));
+        when(orderMapper.selectPageByUser(eq(1001L), isNull(), eq(2)))
+                .thenReturn(List.of(testOrder, older));
+
+        // When
+        CursorPageResult<OrderVO> page = orderService.pageByUserId(1001L, null, 1);
+
+        // Then
+        assertEquals(1, page.getRecords().size());
+        assertTrue(page.getHasMore());
+        OrderCursor cursor = OrderCursor.decode(page.getNextCursor());
+        assertEquals(testOrder.getId(), cursor.getId());
+        assertEquals(testOrder.getCreateTime(), cursor.getCreateTime());
+    }
+
+    @Test
+    @DisplayName("游标分页 - 最后一页没有游标")
+    void testPageByUserId_LastPage() {
+        // Given
+        when(orderMapper.selectPageByUser(eq(1001L), any(), eq(11))).thenReturn(List.of(testOrder));
+
+        // When
+        CursorPageResult<OrderVO> page = orderService.pageByUserId(1001L, OrderCursor.encode(testOrder), 10);
+
+        // Then
+        assertEquals(1, page.getRecords().size());
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("游标分页 - 非法游标")
+    void testPageByUserId_InvalidCursor() {
+        assertThrows(BusinessException.class, () -> orderService.pageByUserId(1001L, "not-a-cursor", 10));
+        verifyNoInteractions(orderMapper);
+    }
+
+    @Test
+    @DisplayName("管理端搜索 - 近似总数取自执行计划")
+    void testSearchOrders_ApproximateTotal() {
+        // Given
+        OrderSearchQuery query = new OrderSearchQuery();
+        query.setGoodsId(1L);
+        query.setPageSize(20);
+        query.setWithTotal(true);
+        when(orderMapper.searchPage(eq(query), isNull(), eq(21))).thenReturn(List.of(testOrder));
+        when(orderMapper.explainSearch(query)).thenReturn(List.of(Map.of("rows", 12000L, "filtered", 50.0)));
+
+        // When
+        CursorPageResult<OrderVO> page = orderService.searchOrders(query);
+
+        // Then
+        assertEquals(1, page.getRecords().size());
+        assertEquals(6000L, page.getApproximateTotal());
+        verify(orderMapper, never()).selectCount(any());
+    }
 }
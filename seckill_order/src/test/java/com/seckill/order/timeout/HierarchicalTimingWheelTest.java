@@ -0,0 +1,86 @@
+package com.seckill.order.timeout;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分层时间轮单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("分层时间轮单元测试")
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 100L;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("第0层条目按格到期")
+    void testExpireInRootLevel() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 8, START);
+        wheel.add(1L, START + 250);
+        wheel.add(2L, START + 300);
+        wheel.add(3L, START + 301);
+
+        // 不提前到期：250 在 300 这一格取出
+        assertTrue(wheel.advanceTo(START + 299).isEmpty());
+        assertEquals(List.of(1L, 2L), wheel.advanceTo(START + 300));
+        assertEquals(List.of(3L), wheel.advanceTo(START + 400));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("已过期的条目在下一次推进时取出")
+    void testAlreadyExpired() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 8, START);
+        wheel.add(1L, START - 1000);
+
+        assertEquals(List.of(1L), wheel.advanceTo(START));
+    }
+
+    @Test
+    @DisplayName("跨层级的长超时降级后准时到期")
+    void testCascade() {
+        // 8 格 x 100ms：第 0 层覆盖 800ms，第 1 层 6.4s，第 2 层 51.2s
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 8, START);
+        long deadline = START + 15 * 60 * 1000L;
+        wheel.add(1L, deadline);
+
+        assertTrue(wheel.advanceTo(deadline - TICK).isEmpty());
+        assertEquals(List.of(1L), wheel.advanceTo(deadline));
+    }
+
+    @Test
+    @DisplayName("随机超时全部在到期后一格内取出，且不提前")
+    void testRandomDeadlines() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 16, START);
+        Random random = new Random(42);
+        List<long[]> entries = new ArrayList<>();
+        for (long i = 0; i < 2000; i++) {
+            long deadline = START + random.nextInt(30 * 60 * 1000);
+            entries.add(new long[]{i, deadline});
+            wheel.add(i, deadline);
+        }
+
+        long[] firedAt = new long[entries.size()];
+        for (long now = START; now <= START + 31 * 60 * 1000L; now += 37) {
+            for (Long id : wheel.advanceTo(now)) {
+                firedAt[id.intValue()] = now;
+            }
+        }
+
+        assertEquals(0, wheel.size());
+        for (long[] entry : entries) {
+            long fired = firedAt[(int) entry[0]];
+            assertTrue(fired >= entry[1] && fired < entry[1] + TICK + 37,
+                    "到期时间偏差过大: " + entry[1] + " -> " + fired);
+        }
+    }
+}
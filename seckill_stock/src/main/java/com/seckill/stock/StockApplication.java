@@ -4,6 +4,7 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 库存服务启动类
@@ -14,6 +15,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 @SpringBootApplication(scanBasePackages = { "com.seckill.stock", "com.seckill.common" })
 @EnableDiscoveryClient
 @MapperScan("com.seckill.stock.mapper")
+@EnableScheduling
 public class StockApplication {
 
     public static void main(String[] args) {
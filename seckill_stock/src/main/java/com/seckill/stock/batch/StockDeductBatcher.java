@@ -0,0 +1,195 @@
+package com.seckill.stock.batch;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存扣减微批处理（Group Commit）
+ * <p>
+ * 将极短时间窗口内（默认 64 个请求或 1ms）到达的扣减请求按商品合并，
+ * 每个商品只执行一次 Lua 调用，脚本按到达顺序逐个判定并返回每个请求的结果，
+ * 调用方通过各自的 {@link CompletableFuture} 获取结果。
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockDeductBatcher {
+
+    /**
+     * Lua 脚本：批量扣减库存
+     * <p>
+     * ARGV 为按到达顺序排列的扣减数量，返回等长数组：扣减后库存，-1 库存不足，-2 未初始化
+     * </p>
+     */
+    private static final String BATCH_DEDUCT_LUA = "local stock = redis.call('get', KEYS[1]) " +
+            "local result = {} " +
+            "if stock == false then " +
+            "  for i = 1, #ARGV do result[i] = -2 end " +
+            "  return result " +
+            "end " +
+            "local s = tonumber(stock) " +
+            "local total = 0 " +
+            "for i = 1, #ARGV do " +
+            "  local c = tonumber(ARGV[i]) " +
+            "  if s >= c then s = s - c total = total + c result[i] = s else result[i] = -1 end " +
+            "end " +
+            "if total > 0 then redis.call('decrby', KEYS[1], total) end " +
+            "return result";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> BATCH_DEDUCT_SCRIPT =
+            new DefaultRedisScript<>(BATCH_DEDUCT_LUA, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${seckill.stock.deduct-mode:direct}")
+    private String deductMode;
+
+    @Value("${seckill.stock.batch.max-size:64}")
+    private int maxBatchSize;
+
+    @Value("${seckill.stock.batch.window-micros:1000}")
+    private long windowMicros;
+
+    @Value("${seckill.stock.batch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<DeductRequest> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::flushLoop, "stock-deduct-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("库存微批扣减已启用 - maxBatchSize: {}, windowMicros: {}", maxBatchSize, windowMicros);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+    }
+
+    /**
+     * 是否启用微批扣减
+     */
+    public boolean isEnabled() {
+        return "batch".equalsIgnoreCase(deductMode);
+    }
+
+    /**
+     * 提交扣减请求
+     *
+     * @param goodsId 商品ID
+     * @param count   扣减数量
+     * @return 扣减结果：扣减后库存，-1 库存不足，-2 未初始化
+     */
+    public CompletableFuture<Long> submit(Long goodsId, Integer count) {
+        DeductRequest request = new DeductRequest(goodsId, count);
+        if (!running || !queue.offer(request)) {
+            request.future.completeExceptionally(new RejectedExecutionException("库存扣减队列已满"));
+        }
+        return request.future;
+    }
+
+    private void flushLoop() {
+        List<DeductRequest> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(windowMicros);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    DeductRequest next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("库存微批扣减异常 - size: {}", batch.size(), e);
+                batch.forEach(request -> request.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // 停机时拒绝剩余请求，调用方按失败处理
+        List<DeductRequest> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(request -> request.future.completeExceptionally(
+                new RejectedExecutionException("库存扣减服务已停止")));
+    }
+
+    private void flush(List<DeductRequest> batch) {
+        // 按商品分组，保持到达顺序
+        Map<Long, List<DeductRequest>> byGoods = new LinkedHashMap<>();
+        batch.forEach(request -> byGoods.computeIfAbsent(request.goodsId, id -> new ArrayList<>()).add(request));
+
+        byGoods.forEach((goodsId, requests) -> {
+            try {
+                Object[] counts = requests.stream().map(request -> request.count.toString()).toArray();
+                List<?> results = redisTemplate.execute(BATCH_DEDUCT_SCRIPT,
+                        Collections.singletonList(RedisKeyConstants.stockKey(goodsId)), counts);
+
+                for (int i = 0; i < requests.size(); i++) {
+                    Object result = results != null && i < results.size() ? results.get(i) : null;
+                    requests.get(i).future.complete(result == null ? null : ((Number) result).longValue());
+                }
+                log.debug("库存微批扣减 - goodsId: {}, size: {}", goodsId, requests.size());
+            } catch (Exception e) {
+                log.error("库存微批扣减失败 - goodsId: {}, size: {}", goodsId, requests.size(), e);
+                requests.forEach(request -> request.future.completeExceptionally(e));
+            }
+        });
+    }
+
+    /**
+     * 单个扣减请求
+     */
+    private static class DeductRequest {
+        private final Long goodsId;
+        private final Integer count;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        DeductRequest(Long goodsId, Integer count) {
+            this.goodsId = goodsId;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.seckill.stock.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.seckill.stock.entity.SeckillGoods;
+import com.seckill.stock.mapper.GoodsMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 商品快照本地缓存
+ * <p>
+ * 秒杀热路径上的商品校验改为读取本地快照，不再每个请求查询 MySQL：
+ * </p>
+ * <ul>
+ * <li>只缓存校验和下单消息需要的字段（状态、活动时间、价格、名称、图片、库存）</li>
+ * <li>容量上限 + 写入后过期，商品更新时主动失效</li>
+ * <li>同一商品的并发未命中只加载一次（single-flight）</li>
+ * <li>不存在的商品同样缓存，防止无效 ID 穿透到数据库</li>
+ * </ul>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoodsSnapshotCache {
+
+    private final GoodsMapper goodsMapper;
+
+    @Value("${seckill.goods-cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${seckill.goods-cache.ttl-seconds:5}")
+    private long ttlSeconds;
+
+    private LoadingCache<Long, Optional<SeckillGoods>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build(goodsId -> {
+                    log.debug("加载商品快照 - goodsId: {}", goodsId);
+                    return Optional.ofNullable(goodsMapper.selectSnapshotById(goodsId));
+                });
+    }
+
+    /**
+     * 获取商品快照
+     *
+     * @param goodsId 商品ID
+     * @return 商品快照（仅包含热路径字段）
+     */
+    public Optional<SeckillGoods> get(Long goodsId) {
+        return cache.get(goodsId);
+    }
+
+    /**
+     * 使商品快照失效
+     *
+     * @param goodsId 商品ID
+     */
+    public void invalidate(Long goodsId) {
+        cache.invalidate(goodsId);
+    }
+}
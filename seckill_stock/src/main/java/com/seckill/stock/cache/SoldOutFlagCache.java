@@ -0,0 +1,135 @@
+package com.seckill.stock.cache;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地售罄标记缓存
+ * <p>
+ * 商品售罄后，后续请求直接在 JVM 内快速失败，不再访问 Redis 和 MySQL。
+ * 标记变化通过 Redis Pub/Sub 广播到其他库存服务实例。
+ * </p>
+ * <p>
+ * 标记带有有效期：广播消息丢失时，过期后由下一次扣减结果重新判定，避免标记永久残留
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SoldOutFlagCache implements MessageListener {
+
+    private static final String ACTION_MARK = "1";
+    private static final String ACTION_CLEAR = "0";
+    private static final String SEPARATOR = ":";
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * goodsId -> 标记过期时间戳（毫秒）
+     */
+    private final Map<Long, Long> soldOutFlags = new ConcurrentHashMap<>();
+
+    @Value("${seckill.sold-out-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${seckill.sold-out-cache.flag-ttl-ms:5000}")
+    private long flagTtlMillis;
+
+    /**
+     * 判断商品是否已售罄
+     *
+     * @param goodsId 商品ID
+     * @return true-已售罄
+     */
+    public boolean isSoldOut(Long goodsId) {
+        if (!enabled || goodsId == null) {
+            return false;
+        }
+        Long expireAt = soldOutFlags.get(goodsId);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt < System.currentTimeMillis()) {
+            soldOutFlags.remove(goodsId, expireAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 标记商品售罄并广播
+     *
+     * @param goodsId 商品ID
+     */
+    public void markSoldOut(Long goodsId) {
+        if (!enabled || goodsId == null) {
+            return;
+        }
+        // 仅在本地状态由未售罄变为售罄时广播，避免消息风暴
+        if (!isSoldOut(goodsId)) {
+            soldOutFlags.put(goodsId, System.currentTimeMillis() + flagTtlMillis);
+            publish(goodsId, ACTION_MARK);
+            log.info("商品已售罄，本地快速失败生效 - goodsId: {}", goodsId);
+        }
+    }
+
+    /**
+     * 清除售罄标记并广播（库存回补时调用）
+     *
+     * @param goodsId 商品ID
+     */
+    public void clear(Long goodsId) {
+        if (!enabled || goodsId == null) {
+            return;
+        }
+        // 其他实例可能持有标记，无论本地是否存在都需要广播
+        soldOutFlags.remove(goodsId);
+        publish(goodsId, ACTION_CLEAR);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(SEPARATOR);
+        if (parts.length != 2) {
+            log.warn("忽略非法售罄广播消息: {}", body);
+            return;
+        }
+
+        try {
+            Long goodsId = Long.parseLong(parts[0]);
+            if (ACTION_MARK.equals(parts[1])) {
+                soldOutFlags.put(goodsId, System.currentTimeMillis() + flagTtlMillis);
+            } else {
+                soldOutFlags.remove(goodsId);
+            }
+            log.debug("收到售罄广播 - goodsId: {}, action: {}", goodsId, parts[1]);
+        } catch (NumberFormatException e) {
+            log.warn("忽略非法售罄广播消息: {}", body);
+        }
+    }
+
+    private void publish(Long goodsId, String action) {
+        try {
+            redisTemplate.convertAndSend(RedisKeyConstants.SOLD_OUT_CHANNEL, goodsId + SEPARATOR + action);
+        } catch (Exception e) {
+            // 广播失败不影响主流程，其他实例依赖标记有效期自愈
+            log.warn("售罄广播发送失败 - goodsId: {}, action: {}, error: {}", goodsId, action,
+                    Optional.ofNullable(e.getMessage()).orElse(e.getClass().getSimpleName()));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.seckill.stock.config;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import com.seckill.stock.cache.SoldOutFlagCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis Pub/Sub 配置
+ * <p>
+ * 订阅库存服务实例间的广播频道（售罄标记同步）
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Configuration
+public class RedisPubSubConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       SoldOutFlagCache soldOutFlagCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(soldOutFlagCache, new ChannelTopic(RedisKeyConstants.SOLD_OUT_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,53 @@
+package com.seckill.stock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 库存分片配置
+ * <p>
+ * 热点商品的库存拆分为多个子 key，分散到不同的 Redis 节点；
+ * 分片数需在库存初始化前确定，活动进行中修改会导致计数错乱
+ * </p>
+ * <p>
+ * 分片只在 Redis Cluster 下有收益：各分片 hash tag 不同，落在不同节点上分摊热点；
+ * 单机 Redis 的所有 key 都在同一个线程上执行，分片不会提升吞吐，反而让库存不足时多出兄弟分片的重试，
+ * 且分片商品的秒杀准入需要拆成「占用已秒杀标记」和「扣减分片」两次调用
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "seckill.stock.sharding")
+public class StockShardProperties {
+
+    /**
+     * 默认分片数（1 表示不分片）
+     */
+    private int defaultShards = 1;
+
+    /**
+     * 按商品配置分片数：goodsId -> 分片数
+     */
+    private Map<Long, Integer> goods = new HashMap<>();
+
+    /**
+     * 获取商品的库存分片数
+     *
+     * @param goodsId 商品ID
+     * @return 分片数（最小为 1）
+     */
+    public int shardCount(Long goodsId) {
+        int shards = Optional.ofNullable(goodsId)
+                .map(goods::get)
+                .orElse(defaultShards);
+        return Math.max(1, shards);
+    }
+}
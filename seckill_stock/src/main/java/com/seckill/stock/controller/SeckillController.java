@@ -2,6 +2,7 @@ package com.seckill.stock.controller;
 
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import com.seckill.common.result.Result;
+import com.seckill.common.result.ResultCode;
 import com.seckill.stock.dto.SeckillRequest;
 import com.seckill.stock.handler.SeckillBlockHandler;
 import com.seckill.stock.service.SeckillService;
@@ -11,7 +12,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletionException;
 
 /**
  * 秒杀接口
@@ -31,6 +36,12 @@ public class SeckillController {
 
     private final SeckillService seckillService;
 
+    /**
+     * 异步秒杀超时时间（毫秒），超时后释放请求并提示稍后查询订单
+     */
+    @Value("${seckill.async.timeout-millis:5000}")
+    private long asyncTimeoutMillis;
+
     /**
      * 执行秒杀（带限流保护）
      * <p>
@@ -54,6 +65,36 @@ public class SeckillController {
         return Result.success(String.valueOf(orderNo));
     }
 
+    /**
+     * 异步执行秒杀（带限流保护）
+     * <p>
+     * 返回 DeferredResult，Tomcat 请求线程在提交 Redis / MQ 操作后立即归还，
+     * Redis 或 MQ 抖动时不会因线程被 I/O 占满而拖垮整个服务
+     * </p>
+     *
+     * @param request 秒杀请求
+     * @return 订单号
+     */
+    @Operation(summary = "异步执行秒杀", description = "非阻塞秒杀接口，返回订单号（带限流保护）")
+    @PostMapping("/do/async")
+    @SentinelResource(value = "doSeckillAsync", blockHandler = "doSeckillAsyncBlockHandler", blockHandlerClass = SeckillBlockHandler.class, fallback = "doSeckillAsyncFallback", fallbackClass = SeckillBlockHandler.class)
+    public DeferredResult<Result<String>> doSeckillAsync(@Valid @RequestBody SeckillRequest request) {
+        log.info("异步秒杀请求 - userId: {}, goodsId: {}", request.getUserId(), request.getGoodsId());
+        DeferredResult<Result<String>> deferred = new DeferredResult<>(asyncTimeoutMillis,
+                () -> Result.error(ResultCode.SYSTEM_BUSY));
+
+        seckillService.doSeckillAsync(request).whenComplete((orderNo, ex) -> {
+            if (ex == null) {
+                deferred.setResult(Result.success(String.valueOf(orderNo)));
+                return;
+            }
+            // 解包 CompletionException，交由全局异常处理器转换为业务错误码
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            deferred.setErrorResult(cause);
+        });
+        return deferred;
+    }
+
     @Operation(summary = "初始化商品库存", description = "将商品库存加载到Redis缓存")
     @Parameter(name = "goodsId", description = "商品ID", required = true)
     @PostMapping("/init/{goodsId}")
@@ -1,5 +1,6 @@
 package com.seckill.stock.controller;
 
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.common.result.Result;
 import com.seckill.stock.service.GoodsService;
 import com.seckill.stock.service.SeckillService;
@@ -11,6 +12,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 /**
  * 库存管理接口
  * <p>
@@ -41,6 +46,13 @@ public class StockController {
         return Result.success(success);
     }
 
+    @Operation(summary = "批量回滚库存", description = "按订单批量回滚 Redis 和 MySQL 库存，同一订单只回滚一次（幂等）")
+    @PostMapping("/rollback/batch")
+    public Result<Map<Long, Integer>> rollbackStockBatch(@RequestBody(required = false) List<StockRollbackItem> items) {
+        log.info("收到批量库存回滚请求 - size: {}", Optional.ofNullable(items).map(List::size).orElse(0));
+        return Result.success(goodsService.rollbackStockBatch(items));
+    }
+
     @Operation(summary = "同步扣减库存", description = "同步扣减 MySQL 库存（Redis 扣减后调用）")
     @Parameter(name = "goodsId", description = "商品ID", required = true)
     @Parameter(name = "count", description = "扣减数量", required = true)
@@ -0,0 +1,99 @@
+package com.seckill.stock.converter;
+
+import com.seckill.common.constant.GoodsStatus;
+import com.seckill.stock.entity.SeckillGoods;
+import com.seckill.stock.vo.GoodsVO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * 商品 VO 转换器
+ * <p>
+ * 由 MapStruct 在编译期生成逐字段 getter/setter 调用，替代 BeanUtils.copyProperties 的反射拷贝；
+ * VO 新增未映射字段时编译失败。派生字段：
+ * </p>
+ * <ul>
+ * <li>状态描述：按状态值查预置表，不再逐行 switch</li>
+ * <li>折扣百分比：两个价格标度相同（DECIMAL(10,2) 读出的值）时用分值整数运算四舍五入，
+ * 不创建 BigDecimal 中间结果；其他情况回退到 BigDecimal 计算，结果一致</li>
+ * </ul>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface GoodsConverter {
+
+    /**
+     * 状态描述，下标为 {@link GoodsStatus} 的取值
+     */
+    List<String> STATUS_DESCRIPTIONS = List.of("未开始", "进行中", "已结束", "已下架");
+
+    /**
+     * 参与整数运算的价格分值上限，保证乘 200 不溢出
+     */
+    long MAX_FAST_UNSCALED = Long.MAX_VALUE / 200;
+
+    /**
+     * 商品转 VO
+     *
+     * @param goods 商品
+     * @return 商品 VO
+     */
+    @Mapping(target = "statusDesc", source = "status", qualifiedByName = "goodsStatusDesc")
+    @Mapping(target = "discountPercent",
+            expression = "java(discountPercent(goods.getSeckillPrice(), goods.getGoodsPrice()))")
+    GoodsVO toVO(SeckillGoods goods);
+
+    /**
+     * 商品列表转 VO 列表
+     *
+     * @param goods 商品列表
+     * @return 商品 VO 列表
+     */
+    List<GoodsVO> toVOList(List<SeckillGoods> goods);
+
+    /**
+     * 状态描述
+     */
+    @Named("goodsStatusDesc")
+    default String statusDesc(Integer status) {
+        if (status == null || status < GoodsStatus.NOT_STARTED || status >= STATUS_DESCRIPTIONS.size()) {
+            return "未知";
+        }
+        return STATUS_DESCRIPTIONS.get(status);
+    }
+
+    /**
+     * 折扣百分比：秒杀价 * 100 / 原价，四舍五入到整数
+     *
+     * @param seckillPrice 秒杀价
+     * @param goodsPrice   原价
+     * @return 折扣百分比，价格缺失或原价不大于 0 时为 null
+     */
+    @Named("discountPercent")
+    default Integer discountPercent(BigDecimal seckillPrice, BigDecimal goodsPrice) {
+        if (goodsPrice == null || seckillPrice == null || goodsPrice.signum() <= 0) {
+            return null;
+        }
+        if (seckillPrice.scale() == goodsPrice.scale() && seckillPrice.signum() >= 0
+                && seckillPrice.precision() < 18 && goodsPrice.precision() < 18) {
+            long seckill = seckillPrice.unscaledValue().longValue();
+            long goods = goodsPrice.unscaledValue().longValue();
+            if (seckill <= MAX_FAST_UNSCALED && goods <= MAX_FAST_UNSCALED) {
+                // 非负数的 HALF_UP：floor((200 * s + g) / (2 * g))
+                return (int) ((seckill * 200 + goods) / (goods * 2));
+            }
+        }
+        return seckillPrice.multiply(BigDecimal.valueOf(100))
+                .divide(goodsPrice, 0, RoundingMode.HALF_UP)
+                .intValue();
+    }
+}
@@ -5,6 +5,7 @@ import com.seckill.common.result.Result;
 import com.seckill.common.result.ResultCode;
 import com.seckill.stock.dto.SeckillRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.async.DeferredResult;
 
 /**
  * Sentinel 限流降级处理器
@@ -53,6 +54,32 @@ public class SeckillBlockHandler {
         return Result.error(ResultCode.SERVICE_DEGRADED);
     }
 
+    /**
+     * 异步秒杀接口限流处理
+     *
+     * @param request   秒杀请求
+     * @param exception 限流异常
+     * @return 友好提示
+     */
+    public static DeferredResult<Result<String>> doSeckillAsyncBlockHandler(SeckillRequest request, BlockException exception) {
+        DeferredResult<Result<String>> deferred = new DeferredResult<>();
+        deferred.setResult(doSeckillBlockHandler(request, exception));
+        return deferred;
+    }
+
+    /**
+     * 异步秒杀接口熔断降级处理
+     *
+     * @param request   秒杀请求
+     * @param throwable 异常
+     * @return 降级响应
+     */
+    public static DeferredResult<Result<String>> doSeckillAsyncFallback(SeckillRequest request, Throwable throwable) {
+        DeferredResult<Result<String>> deferred = new DeferredResult<>();
+        deferred.setResult(doSeckillFallback(request, throwable));
+        return deferred;
+    }
+
     /**
      * 热点商品限流处理
      *
@@ -0,0 +1,546 @@
+package com.seckill.stock.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 秒杀预写日志（内存映射 + 批量 fsync）
+ * <p>
+ * 记录格式：[int 长度][int CRC32][byte 类型][long 序号][payload]，长度为 0 表示段内数据结束。
+ * 类型分为 APPEND（已受理的消息）与 ACK（已投递到 MQ），重启时 APPEND 中没有对应 ACK 的条目即待重放。
+ * </p>
+ * <ul>
+ * <li>写入：追加到当前段的 MappedByteBuffer，进程被杀时数据仍在页缓存中，不会丢失</li>
+ * <li>持久化：fsync 线程按固定间隔批量 force，一次 force 完成期间所有写入的持久化通知</li>
+ * <li>轮转：当前段写满后 force 并封存，新建下一个段</li>
+ * <li>压缩：从最旧的封存段开始，条目全部 ACK 的段直接删除；剩余少量未 ACK 条目的最旧段
+ * 将这些条目以原序号重写到当前段后删除，避免个别卡住的条目拖住整串段文件</li>
+ * </ul>
+ * <p>
+ * 该类不依赖 Spring，由 {@link SeckillJournalRelay} 负责装配与投递
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+public class SeckillJournal implements Closeable {
+
+    private static final byte TYPE_APPEND = 1;
+    private static final byte TYPE_ACK = 2;
+
+    /**
+     * 记录头：长度 + CRC
+     */
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * 记录体固定部分：类型 + 序号
+     */
+    private static final int BODY_FIXED_BYTES = 9;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int compactMaxEntries;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * 已封存的段，按段号从旧到新
+     */
+    private final Deque<Segment> sealed = new ArrayDeque<>();
+    private Segment active;
+    private long nextSeq = 1;
+
+    /**
+     * 未 ACK 的条目：序号 → 条目
+     */
+    private final ConcurrentSkipListMap<Long, PendingEntry> pending = new ConcurrentSkipListMap<>();
+
+    /**
+     * 等待 fsync 的写入通知
+     */
+    private List<SyncWaiter> unsynced = new ArrayList<>();
+
+    /**
+     * 已刷盘的最大序号
+     */
+    private volatile long syncedSeq;
+
+    /**
+     * 打开（或恢复）日志目录
+     *
+     * @param dir               日志目录
+     * @param segmentBytes      单个段文件大小
+     * @param compactMaxEntries 最旧封存段剩余未 ACK 条目不超过该值时重写到当前段
+     */
+    public SeckillJournal(Path dir, int segmentBytes, int compactMaxEntries) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("段文件大小不能小于 4096 字节");
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.compactMaxEntries = compactMaxEntries;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    /**
+     * 追加一条记录
+     * <p>
+     * 返回时记录已写入映射内存（进程崩溃不丢失），机器掉电不丢失需等待 {@link #awaitSync(long)}
+     * </p>
+     *
+     * @param payload 记录内容
+     * @return 记录序号
+     */
+    public long append(byte[] payload) {
+        writeLock.lock();
+        try {
+            long seq = nextSeq++;
+            Segment segment = write(TYPE_APPEND, seq, payload);
+            pending.put(seq, new PendingEntry(seq, payload, segment));
+            return seq;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 等待记录刷盘
+     *
+     * @param seq 记录序号
+     * @return 在下一次 {@link #sync()} 后完成，值为记录序号
+     */
+    public CompletableFuture<Long> awaitSync(long seq) {
+        writeLock.lock();
+        try {
+            if (seq <= syncedSeq) {
+                return CompletableFuture.completedFuture(seq);
+            }
+            CompletableFuture<Long> durable = new CompletableFuture<>();
+            unsynced.add(new SyncWaiter(seq, durable));
+            return durable;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 标记条目已投递（或已撤销）
+     * <p>
+     * ACK 记录不等待 fsync：ACK 丢失只会导致重启后重复投递，由下游按订单幂等处理
+     * </p>
+     *
+     * @param seq 记录序号
+     */
+    public void ack(long seq) {
+        PendingEntry entry = pending.remove(seq);
+        if (entry == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            write(TYPE_ACK, seq, EMPTY);
+            entry.segment.pendingCount.decrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 撤销条目并等待撤销记录刷盘
+     * <p>
+     * 用于调用方随后会按失败回滚的条目：撤销记录如果只在映射内存中，掉电重启后条目会被重放投递，
+     * 与调用方的回滚叠加造成超卖。刷盘在写锁外执行，不阻塞其他写入
+     * </p>
+     *
+     * @param seq 记录序号
+     * @throws java.io.UncheckedIOException 刷盘失败
+     */
+    public void revoke(long seq) {
+        PendingEntry entry = pending.remove(seq);
+        if (entry == null) {
+            return;
+        }
+        Segment segment;
+        writeLock.lock();
+        try {
+            segment = write(TYPE_ACK, seq, EMPTY);
+            entry.segment.pendingCount.decrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+        segment.buffer.force();
+    }
+
+    /**
+     * 条目是否仍待投递
+     */
+    public boolean isPending(long seq) {
+        return pending.containsKey(seq);
+    }
+
+    /**
+     * 获取待投递条目内容
+     *
+     * @return 内容，已 ACK 时返回 null
+     */
+    public byte[] payload(long seq) {
+        PendingEntry entry = pending.get(seq);
+        return entry == null ? null : entry.payload;
+    }
+
+    /**
+     * 所有待投递条目的序号（按序号升序）
+     */
+    public List<Long> pendingSeqs() {
+        return new ArrayList<>(pending.keySet());
+    }
+
+    /**
+     * 待投递条目数量
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 将当前段刷盘并完成此前所有写入的持久化通知
+     */
+    public void sync() {
+        List<SyncWaiter> waiters;
+        Segment segment;
+        long upTo;
+        writeLock.lock();
+        try {
+            if (unsynced.isEmpty() && nextSeq - 1 <= syncedSeq) {
+                return;
+            }
+            waiters = unsynced;
+            unsynced = new ArrayList<>();
+            segment = active;
+            upTo = nextSeq - 1;
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            // 更早段的数据在轮转时已经 force
+            segment.buffer.force();
+            syncedSeq = Math.max(syncedSeq, upTo);
+            waiters.forEach(waiter -> waiter.future.complete(waiter.seq));
+        } catch (Exception e) {
+            log.error("预写日志刷盘失败 - segment: {}", segment.path, e);
+            waiters.forEach(waiter -> waiter.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 压缩：删除条目已全部 ACK 的最旧封存段，必要时把少量残留条目重写到当前段
+     *
+     * @return 删除的段数量
+     */
+    public int compact() {
+        int removed = 0;
+        writeLock.lock();
+        try {
+            while (!sealed.isEmpty()) {
+                Segment oldest = sealed.peekFirst();
+                int remaining = oldest.pendingCount.get();
+                if (remaining > compactMaxEntries) {
+                    break;
+                }
+                if (remaining > 0) {
+                    relocate(oldest);
+                    active.buffer.force();
+                }
+                sealed.pollFirst();
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+                removed++;
+                log.info("删除预写日志段 - segment: {}, relocated: {}", oldest.path.getFileName(), remaining);
+            }
+        } catch (IOException e) {
+            log.error("预写日志压缩失败", e);
+        } finally {
+            writeLock.unlock();
+        }
+        return removed;
+    }
+
+    /**
+     * 当前段文件数量（含活动段）
+     */
+    public int segmentCount() {
+        writeLock.lock();
+        try {
+            return sealed.size() + 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            active.buffer.force();
+            active.channel.close();
+            for (Segment segment : sealed) {
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("关闭预写日志失败", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 将段内未 ACK 条目以原序号重写到当前段（持有写锁调用）
+     */
+    private void relocate(Segment segment) {
+        for (PendingEntry entry : pending.values()) {
+            if (entry.segment == segment) {
+                Segment target = write(TYPE_APPEND, entry.seq, entry.payload);
+                PendingEntry moved = new PendingEntry(entry.seq, entry.payload, target);
+                if (pending.replace(entry.seq, entry, moved)) {
+                    segment.pendingCount.decrementAndGet();
+                } else {
+                    // 重写期间已被 ACK，由 ack 扣减原段计数，这里撤销目标段的计数
+                    target.pendingCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入一条记录（持有写锁调用），空间不足时先轮转
+     *
+     * @return 记录所在段
+     */
+    private Segment write(byte type, long seq, byte[] payload) {
+        int bodyLength = BODY_FIXED_BYTES + payload.length;
+        int recordLength = HEADER_BYTES + bodyLength;
+        // 预留 4 字节的结束标记
+        if (recordLength + 4 > segmentBytes) {
+            throw new IllegalArgumentException("记录超过段文件大小 - length: " + recordLength);
+        }
+        if (active.buffer.remaining() < recordLength + 4) {
+            rotate();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(longBytes(seq));
+        crc.update(payload);
+
+        active.buffer.putInt(bodyLength)
+                .putInt((int) crc.getValue())
+                .put(type)
+                .putLong(seq)
+                .put(payload);
+        if (type == TYPE_APPEND) {
+            active.pendingCount.incrementAndGet();
+        }
+        return active;
+    }
+
+    /**
+     * 封存当前段并新建下一个段（持有写锁调用）
+     */
+    private void rotate() {
+        try {
+            active.buffer.force();
+            sealed.addLast(active);
+            active = openSegment(active.id + 1);
+            log.info("预写日志轮转 - segment: {}", active.path.getFileName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("预写日志轮转失败", e);
+        }
+    }
+
+    /**
+     * 启动时扫描所有段，重建待投递条目与写入位置
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        NavigableMap<Long, PendingEntry> appended = new ConcurrentSkipListMap<>();
+        Set<Long> acked = new HashSet<>();
+        long maxSeq = 0;
+        List<Segment> segments = new ArrayList<>();
+
+        for (Path file : files) {
+            Segment segment = openSegment(parseSegmentId(file));
+            segments.add(segment);
+            maxSeq = Math.max(maxSeq, scan(segment, appended, acked));
+        }
+
+        acked.forEach(appended::remove);
+        appended.values().forEach(entry -> entry.segment.pendingCount.incrementAndGet());
+        pending.putAll(appended);
+        nextSeq = maxSeq + 1;
+        syncedSeq = maxSeq;
+
+        if (segments.isEmpty()) {
+            active = openSegment(1);
+        } else {
+            active = segments.remove(segments.size() - 1);
+            // 清除活动段中残缺记录之后的内容，避免新写入与残留数据拼接
+            MappedByteBuffer tail = active.buffer.duplicate();
+            while (tail.hasRemaining()) {
+                tail.put((byte) 0);
+            }
+            sealed.addAll(segments);
+        }
+        log.info("预写日志恢复完成 - dir: {}, segments: {}, pending: {}, nextSeq: {}",
+                dir, segments.size() + 1, pending.size(), nextSeq);
+    }
+
+    /**
+     * 扫描段内记录，遇到结束标记或校验失败（进程崩溃时的残缺记录）即停止，并把写入位置定位到有效数据末尾
+     *
+     * @return 段内最大序号
+     */
+    private long scan(Segment segment, Map<Long, PendingEntry> appended, Set<Long> acked) {
+        MappedByteBuffer buffer = segment.buffer;
+        long maxSeq = 0;
+        while (buffer.remaining() >= HEADER_BYTES + BODY_FIXED_BYTES) {
+            int start = buffer.position();
+            int bodyLength = buffer.getInt();
+            if (bodyLength < BODY_FIXED_BYTES || bodyLength > buffer.remaining() - 4) {
+                buffer.position(start);
+                break;
+            }
+            int checksum = buffer.getInt();
+            byte type = buffer.get();
+            long seq = buffer.getLong();
+            byte[] payload = new byte[bodyLength - BODY_FIXED_BYTES];
+            buffer.get(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(longBytes(seq));
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("预写日志记录校验失败，截断 - segment: {}, position: {}", segment.path.getFileName(), start);
+                buffer.position(start);
+                break;
+            }
+
+            if (type == TYPE_APPEND) {
+                appended.put(seq, new PendingEntry(seq, payload, segment));
+            } else if (type == TYPE_ACK) {
+                acked.add(seq);
+            }
+            maxSeq = Math.max(maxSeq, seq);
+        }
+        return maxSeq;
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path path = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        return new Segment(id, path, channel, buffer);
+    }
+
+    private static long parseSegmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * 段文件
+     */
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * 等待 fsync 的写入
+     */
+    private static final class SyncWaiter {
+        private final long seq;
+        private final CompletableFuture<Long> future;
+
+        private SyncWaiter(long seq, CompletableFuture<Long> future) {
+            this.seq = seq;
+            this.future = future;
+        }
+    }
+
+    /**
+     * 待投递条目
+     */
+    private static final class PendingEntry {
+        private final long seq;
+        private final byte[] payload;
+        private final Segment segment;
+
+        private PendingEntry(long seq, byte[] payload, Segment segment) {
+            this.seq = seq;
+            this.payload = payload;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.seckill.stock.journal;
+
+import com.alibaba.fastjson.JSON;
+import com.seckill.common.dto.SeckillMessage;
+import com.seckill.stock.mq.SeckillMessageProducer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 秒杀预写日志投递器
+ * <p>
+ * 开启后秒杀请求在 Redis 扣减成功、消息写入本地预写日志并刷盘后即返回，
+ * 由后台线程把日志中的消息投递到 MQ，投递成功后写入 ACK：
+ * </p>
+ * <ul>
+ * <li>Broker 延迟与短暂不可用不再影响请求耗时，投递失败按固定间隔重试</li>
+ * <li>实例重启时重放所有未 ACK 的条目，已受理的秒杀不会丢单</li>
+ * <li>重放可能导致重复投递，由订单服务按用户 + 商品幂等去重</li>
+ * </ul>
+ * <p>
+ * 写入在专用线程上执行：异步秒杀的回调运行在 Redis 客户端的事件循环上，
+ * 追加日志需要竞争写锁、段轮转时还要创建文件，不能占用事件循环
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillJournalRelay {
+
+    private final SeckillMessageProducer messageProducer;
+
+    @Value("${seckill.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.journal.dir:./data/seckill-journal}")
+    private String journalDir;
+
+    @Value("${seckill.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${seckill.journal.fsync-interval-ms:5}")
+    private long fsyncIntervalMillis;
+
+    @Value("${seckill.journal.await-timeout-ms:1000}")
+    private long awaitTimeoutMillis;
+
+    @Value("${seckill.journal.max-in-flight:256}")
+    private int maxInFlight;
+
+    @Value("${seckill.journal.retry-interval-ms:1000}")
+    private long retryIntervalMillis;
+
+    @Value("${seckill.journal.compact-interval-ms:10000}")
+    private long compactIntervalMillis;
+
+    @Value("${seckill.journal.compact-max-entries:1024}")
+    private int compactMaxEntries;
+
+    @Value("${seckill.journal.append-queue-capacity:4096}")
+    private int appendQueueCapacity;
+
+    private SeckillJournal journal;
+    private final BlockingQueue<Long> ready = new LinkedBlockingQueue<>();
+    private Semaphore inFlight;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService appendExecutor;
+    private Thread relay;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new SeckillJournal(Paths.get(journalDir), segmentSizeMb * 1024 * 1024, compactMaxEntries);
+        inFlight = new Semaphore(maxInFlight);
+
+        // 重放上次未投递的条目
+        ready.addAll(journal.pendingSeqs());
+
+        scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "seckill-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(journal::sync, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(journal::compact, compactIntervalMillis, compactIntervalMillis, TimeUnit.MILLISECONDS);
+
+        // 追加本身在写锁内串行执行，单线程即可；队列满时拒绝，由调用方按写入失败回滚
+        appendExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(appendQueueCapacity), r -> {
+                    Thread thread = new Thread(r, "seckill-journal-append");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        running = true;
+        relay = new Thread(this::relayLoop, "seckill-journal-relay");
+        relay.setDaemon(true);
+        relay.start();
+        log.info("秒杀预写日志已启用 - dir: {}, replay: {}", journalDir, ready.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        relay.interrupt();
+        appendExecutor.shutdownNow();
+        scheduler.shutdownNow();
+        // 未投递的条目留在日志中，下次启动重放
+        journal.close();
+    }
+
+    /**
+     * 是否启用预写日志
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 写入预写日志并等待刷盘
+     * <p>
+     * 刷盘失败或超时时撤销该条目（撤销记录刷盘后）并抛出异常，调用方按发送失败回滚
+     * </p>
+     *
+     * @param message 秒杀消息
+     */
+    public void write(SeckillMessage message) {
+        try {
+            // writeAsync 自身已按 awaitTimeoutMillis 超时
+            writeAsync(message).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("写入预写日志被中断", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("写入预写日志失败", e);
+        }
+    }
+
+    /**
+     * 写入预写日志（异步）
+     * <p>
+     * 追加在专用线程上执行，调用线程（可能是 Redis 事件循环）只负责提交
+     * </p>
+     *
+     * @param message 秒杀消息
+     * @return 刷盘完成后完成，值为日志序号
+     */
+    public CompletableFuture<Long> writeAsync(SeckillMessage message) {
+        byte[] payload = JSON.toJSONString(message).getBytes(StandardCharsets.UTF_8);
+        CompletableFuture<Long> appended;
+        try {
+            appended = CompletableFuture.supplyAsync(() -> journal.append(payload), appendExecutor);
+        } catch (RejectedExecutionException e) {
+            log.error("预写日志写入队列已满 - orderNo: {}", message.getOrderNo());
+            return CompletableFuture.failedFuture(e);
+        }
+        return appended.thenCompose(seq -> journal.awaitSync(seq)
+                .orTimeout(awaitTimeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((s, ex) -> {
+                    if (ex == null) {
+                        ready.offer(seq);
+                        return CompletableFuture.completedFuture(s);
+                    }
+                    log.error("写入预写日志失败 - orderNo: {}, error: {}", message.getOrderNo(), ex.getMessage());
+                    return revokeAsync(seq, message.getOrderNo())
+                            .thenCompose(v -> CompletableFuture.<Long>failedFuture(ex));
+                })
+                .thenCompose(Function.identity()));
+    }
+
+    /**
+     * 撤销未确认刷盘的条目，撤销记录刷盘后才完成，避免调用方回滚后条目在重启时被重放投递
+     * <p>
+     * 超时回调运行在 JDK 共享的超时线程上，刷盘切换到写入线程执行
+     * </p>
+     */
+    private CompletableFuture<Void> revokeAsync(long seq, Long orderNo) {
+        Runnable revoke = () -> {
+            try {
+                journal.revoke(seq);
+            } catch (Exception e) {
+                log.error("预写日志撤销记录刷盘失败，重启后可能重放 - seq: {}, orderNo: {}", seq, orderNo, e);
+            }
+        };
+        try {
+            return CompletableFuture.runAsync(revoke, appendExecutor);
+        } catch (RejectedExecutionException e) {
+            revoke.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                long seq = ready.take();
+                byte[] payload = journal.payload(seq);
+                if (payload == null) {
+                    continue;
+                }
+                inFlight.acquire();
+                send(seq, payload);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("预写日志投递异常", e);
+            }
+        }
+    }
+
+    private void send(long seq, byte[] payload) {
+        SeckillMessage message = JSON.parseObject(new String(payload, StandardCharsets.UTF_8), SeckillMessage.class);
+        CompletableFuture<?> sent;
+        try {
+            sent = messageProducer.sendSeckillMessageAsync(message, message.getOrderNo());
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((result, ex) -> {
+            inFlight.release();
+            if (ex == null) {
+                journal.ack(seq);
+                return;
+            }
+            log.warn("预写日志投递失败，稍后重试 - seq: {}, orderNo: {}, error: {}",
+                    seq, message.getOrderNo(), ex.getMessage());
+            scheduler.schedule(() -> ready.offer(seq), retryIntervalMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+}
@@ -0,0 +1,407 @@
+package com.seckill.stock.lease;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import com.seckill.stock.cache.SoldOutFlagCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本地库存租约管理
+ * <p>
+ * 每个库存服务实例以块为单位（一次 DECRBY）从 Redis 库存租入库存，请求路径上只做本地 CAS 扣减，
+ * Redis 热点 key 的访问次数从「每请求一次」降为「每块一次」。
+ * </p>
+ * <p>
+ * 租约登记在 {@code seckill:stock:lease:{seckill:stock:goodsId}}（与库存 key 同槽位，实例ID -> 未售出数量）中，
+ * 本地售卖前先按步长从登记中扣除（先登记后售卖），保证登记值永远不大于实际未售数量：
+ * </p>
+ * <ul>
+ * <li>正常停机 / 空闲超时：归还本地剩余库存</li>
+ * <li>实例宕机：心跳过期后由其他实例回收登记中的数量，最多少卖一个步长，不会超卖</li>
+ * </ul>
+ * <p>
+ * 每个 Lua 脚本只访问库存 key 与租约登记（同槽位），心跳与租约商品集合按实例 / 全局划分，
+ * 在脚本之外单独读写，兼容 Redis Cluster
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLeaseManager {
+
+    /**
+     * Lua 脚本：租入库存块（库存不足一块时租入剩余全部）
+     * <p>
+     * KEYS[1] 库存，KEYS[2] 租约登记；ARGV[1] 块大小，ARGV[2] 实例ID，ARGV[3] 登记过期秒数
+     * </p>
+     */
+    private static final String ACQUIRE_LUA = "local stock = redis.call('get', KEYS[1]) " +
+            "if stock == false then return -2 end " +
+            "local n = math.min(tonumber(stock), tonumber(ARGV[1])) " +
+            "if n <= 0 then return 0 end " +
+            "redis.call('decrby', KEYS[1], n) " +
+            "redis.call('hincrby', KEYS[2], ARGV[2], n) " +
+            "redis.call('expire', KEYS[2], ARGV[3]) " +
+            "return n";
+
+    /**
+     * Lua 脚本：归还租约（库存 key 已删除时直接丢弃）
+     * <p>
+     * KEYS[1] 库存，KEYS[2] 租约登记；ARGV[1] 归还总量，ARGV[2] 仍在登记中的数量，ARGV[3] 实例ID
+     * </p>
+     */
+    private static final String RELEASE_LUA = "local left = redis.call('hincrby', KEYS[2], ARGV[3], -tonumber(ARGV[2])) " +
+            "if left <= 0 then redis.call('hdel', KEYS[2], ARGV[3]) end " +
+            "if redis.call('exists', KEYS[1]) == 0 then return -1 end " +
+            "return redis.call('incrby', KEYS[1], ARGV[1])";
+
+    /**
+     * Lua 脚本：回收心跳已过期实例的租约（调用前已确认持有者心跳不存在）
+     * <p>
+     * KEYS[1] 库存，KEYS[2] 租约登记；ARGV[1] 持有者实例ID
+     * </p>
+     */
+    private static final String RECLAIM_LUA = "local v = tonumber(redis.call('hget', KEYS[2], ARGV[1]) or '0') " +
+            "redis.call('hdel', KEYS[2], ARGV[1]) " +
+            "if v > 0 and redis.call('exists', KEYS[1]) == 1 then redis.call('incrby', KEYS[1], v) end " +
+            "return v";
+
+    /**
+     * Lua 脚本：判断库存是否已全部售出（库存 key 无剩余且各实例登记中没有未售租约）
+     * <p>
+     * KEYS[1] 库存，KEYS[2] 租约登记；返回 1 表示已售罄，库存未初始化时返回 0
+     * </p>
+     */
+    private static final String DEPLETED_LUA = "local stock = redis.call('get', KEYS[1]) " +
+            "if stock == false or tonumber(stock) > 0 then return 0 end " +
+            "for _, v in ipairs(redis.call('hvals', KEYS[2])) do " +
+            "if tonumber(v) > 0 then return 0 end end " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(ACQUIRE_LUA, Long.class);
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(RELEASE_LUA, Long.class);
+    private static final DefaultRedisScript<Long> RECLAIM_SCRIPT = new DefaultRedisScript<>(RECLAIM_LUA, Long.class);
+    private static final DefaultRedisScript<Long> DEPLETED_SCRIPT = new DefaultRedisScript<>(DEPLETED_LUA, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final SoldOutFlagCache soldOutFlagCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${seckill.stock.deduct-mode:direct}")
+    private String deductMode;
+
+    @Value("${seckill.stock.lease.block-size:50}")
+    private int blockSize;
+
+    @Value("${seckill.stock.lease.report-step:10}")
+    private int reportStep;
+
+    @Value("${seckill.stock.lease.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${seckill.stock.lease.idle-release-seconds:10}")
+    private long idleReleaseSeconds;
+
+    /**
+     * 本实例租约标识
+     */
+    private final String instanceId = buildInstanceId();
+
+    private final Map<Long, GoodsLease> leases = new ConcurrentHashMap<>();
+
+    private Counter acquiredCounter;
+    private Counter servedCounter;
+    private Counter returnedCounter;
+    private Counter reclaimedCounter;
+
+    @PostConstruct
+    public void init() {
+        acquiredCounter = Counter.builder("seckill.stock.lease.acquired")
+                .description("从 Redis 租入的库存数量").register(meterRegistry);
+        servedCounter = Counter.builder("seckill.stock.lease.served")
+                .description("从本地租约售出的库存数量").register(meterRegistry);
+        returnedCounter = Counter.builder("seckill.stock.lease.returned")
+                .description("归还 Redis 的未用租约数量").register(meterRegistry);
+        reclaimedCounter = Counter.builder("seckill.stock.lease.reclaimed")
+                .description("从宕机实例回收的租约数量").register(meterRegistry);
+        Gauge.builder("seckill.stock.lease.local", leases,
+                        map -> map.values().stream().mapToLong(GoodsLease::remaining).sum())
+                .description("本实例持有的未售租约数量").register(meterRegistry);
+    }
+
+    /**
+     * 是否启用租约模式
+     */
+    public boolean isEnabled() {
+        return "lease".equalsIgnoreCase(deductMode);
+    }
+
+    /**
+     * 从本地租约扣减库存
+     *
+     * @param goodsId 商品ID
+     * @param count   扣减数量
+     * @return 本地剩余可售数量，-1表示库存不足，-2表示库存未初始化
+     */
+    public Long deduct(Long goodsId, Integer count) {
+        GoodsLease lease = leases.computeIfAbsent(goodsId, id -> new GoodsLease());
+        lease.lastAccessTime = System.currentTimeMillis();
+
+        while (true) {
+            // 快路径：本地 CAS
+            if (lease.tryTake(count)) {
+                servedCounter.increment(count);
+                return lease.available.get();
+            }
+
+            lease.lock.lock();
+            try {
+                if (lease.available.get() >= count) {
+                    continue;
+                }
+                if (lease.unreported > 0) {
+                    // 先从登记中扣除再放入可售，保证宕机回收不会超卖
+                    long need = count - lease.available.get();
+                    long step = Math.min(Math.max(reportStep, need), lease.unreported);
+                    redisTemplate.opsForHash().increment(RedisKeyConstants.stockLeaseKey(goodsId), instanceId, -step);
+                    lease.unreported -= step;
+                    lease.available.addAndGet(step);
+                    continue;
+                }
+
+                Long acquired = acquire(goodsId, Math.max(blockSize, count));
+                if (acquired == null || acquired == -2) {
+                    return -2L;
+                }
+                if (acquired <= 0) {
+                    return -1L;
+                }
+                lease.unreported += acquired;
+            } finally {
+                lease.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 查询各实例登记中的租约总量
+     *
+     * @param goodsId 商品ID
+     * @return 租约总量
+     */
+    public long leasedAmount(Long goodsId) {
+        return redisTemplate.opsForHash().values(RedisKeyConstants.stockLeaseKey(goodsId)).stream()
+                .mapToLong(v -> Long.parseLong(String.valueOf(v)))
+                .filter(v -> v > 0)
+                .sum();
+    }
+
+    /**
+     * 判断商品库存是否已全部售出
+     * <p>
+     * 本地租约用尽只代表本实例无货，其他实例可能仍持有租约；只有库存 key 与租约登记都没有剩余时
+     * 才可以判定售罄。其他实例已从登记中扣除、尚未售出的数量（每实例不超过一个上报步长）不可见，
+     * 这部分库存在售罄标记过期或租约归还后继续售卖
+     * </p>
+     *
+     * @param goodsId 商品ID
+     * @return true-已售罄
+     */
+    public boolean isDepleted(Long goodsId) {
+        Long depleted = redisTemplate.execute(DEPLETED_SCRIPT,
+                Arrays.asList(RedisKeyConstants.stockKey(goodsId), RedisKeyConstants.stockLeaseKey(goodsId)));
+        return depleted != null && depleted == 1;
+    }
+
+    /**
+     * 归还指定商品的本地租约
+     *
+     * @param goodsId 商品ID
+     */
+    public void release(Long goodsId) {
+        Optional.ofNullable(leases.get(goodsId)).ifPresent(lease -> release(goodsId, lease));
+    }
+
+    /**
+     * 心跳续约，并归还空闲租约（活动结束后流量消失，租约自然归还）
+     */
+    @Scheduled(fixedDelayString = "${seckill.stock.lease.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (leases.isEmpty()) {
+            return;
+        }
+        refreshHeartbeat();
+        // 重新登记本实例持有租约的商品，防止与回收线程并发时商品被移出集合后无人回收
+        redisTemplate.opsForSet().add(RedisKeyConstants.STOCK_LEASE_GOODS_KEY,
+                leases.keySet().stream().map(String::valueOf).toArray(String[]::new));
+
+        long idleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(idleReleaseSeconds);
+        leases.forEach((goodsId, lease) -> {
+            if (lease.lastAccessTime < idleBefore && lease.remaining() > 0) {
+                release(goodsId, lease);
+            }
+        });
+    }
+
+    /**
+     * 回收心跳已过期实例持有的租约
+     */
+    @Scheduled(fixedDelayString = "${seckill.stock.lease.reclaim-interval-ms:15000}")
+    public void reclaimExpiredLeases() {
+        if (!isEnabled()) {
+            return;
+        }
+        Set<String> goodsIds = redisTemplate.opsForSet().members(RedisKeyConstants.STOCK_LEASE_GOODS_KEY);
+        Optional.ofNullable(goodsIds).orElse(Set.of()).forEach(this::reclaimGoods);
+    }
+
+    /**
+     * 停机时归还全部租约
+     */
+    @PreDestroy
+    public void releaseAll() {
+        leases.forEach(this::release);
+        redisTemplate.delete(RedisKeyConstants.stockLeaseHeartbeatKey(instanceId));
+    }
+
+    private Long acquire(Long goodsId, int size) {
+        // 心跳与商品集合先于租入写入：租入后宕机时，登记的租约一定能被其他实例发现并回收
+        refreshHeartbeat();
+        redisTemplate.opsForSet().add(RedisKeyConstants.STOCK_LEASE_GOODS_KEY, String.valueOf(goodsId));
+
+        Long acquired = redisTemplate.execute(ACQUIRE_SCRIPT,
+                Arrays.asList(RedisKeyConstants.stockKey(goodsId), RedisKeyConstants.stockLeaseKey(goodsId)),
+                String.valueOf(size), instanceId, String.valueOf(RedisKeyConstants.STOCK_EXPIRE_SECONDS));
+
+        if (acquired != null && acquired > 0) {
+            acquiredCounter.increment(acquired);
+            log.debug("租入库存块 - goodsId: {}, acquired: {}", goodsId, acquired);
+        }
+        return acquired;
+    }
+
+    private void release(Long goodsId, GoodsLease lease) {
+        lease.lock.lock();
+        try {
+            long available = lease.available.getAndSet(0);
+            long total = available + lease.unreported;
+            if (total <= 0) {
+                return;
+            }
+            Long current = redisTemplate.execute(RELEASE_SCRIPT,
+                    Arrays.asList(RedisKeyConstants.stockKey(goodsId), RedisKeyConstants.stockLeaseKey(goodsId)),
+                    String.valueOf(total), String.valueOf(lease.unreported), instanceId);
+            lease.unreported = 0;
+
+            returnedCounter.increment(total);
+            if (current != null && current > 0) {
+                soldOutFlagCache.clear(goodsId);
+            }
+            log.info("归还库存租约 - goodsId: {}, returned: {}, current: {}", goodsId, total, current);
+        } catch (Exception e) {
+            log.error("归还库存租约失败，等待心跳过期后回收 - goodsId: {}", goodsId, e);
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    private void reclaimGoods(String goodsIdValue) {
+        Long goodsId = Long.parseLong(goodsIdValue);
+        String leaseKey = RedisKeyConstants.stockLeaseKey(goodsId);
+        Set<Object> holders = redisTemplate.opsForHash().keys(leaseKey);
+
+        if (holders == null || holders.isEmpty()) {
+            redisTemplate.opsForSet().remove(RedisKeyConstants.STOCK_LEASE_GOODS_KEY, goodsIdValue);
+            return;
+        }
+
+        holders.stream()
+                .map(String::valueOf)
+                .filter(holder -> !instanceId.equals(holder))
+                .filter(holder -> !Boolean.TRUE.equals(
+                        redisTemplate.hasKey(RedisKeyConstants.stockLeaseHeartbeatKey(holder))))
+                .forEach(holder -> {
+                    Long reclaimed = redisTemplate.execute(RECLAIM_SCRIPT,
+                            Arrays.asList(RedisKeyConstants.stockKey(goodsId), leaseKey), holder);
+                    if (reclaimed != null && reclaimed > 0) {
+                        reclaimedCounter.increment(reclaimed);
+                        soldOutFlagCache.clear(goodsId);
+                        log.warn("回收过期实例库存租约 - goodsId: {}, holder: {}, reclaimed: {}",
+                                goodsId, holder, reclaimed);
+                    }
+                });
+    }
+
+    private void refreshHeartbeat() {
+        redisTemplate.opsForValue().set(RedisKeyConstants.stockLeaseHeartbeatKey(instanceId), "1",
+                ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    private static String buildInstanceId() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        try {
+            return InetAddress.getLocalHost().getHostAddress() + ":" + suffix;
+        } catch (Exception e) {
+            return suffix;
+        }
+    }
+
+    /**
+     * 单个商品的本地租约
+     */
+    private static class GoodsLease {
+
+        /**
+         * 已从登记中扣除、可直接售卖的数量
+         */
+        private final AtomicLong available = new AtomicLong();
+
+        /**
+         * 已租入但仍在登记中的数量（受 lock 保护）
+         */
+        private long unreported;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        boolean tryTake(int count) {
+            long current;
+            do {
+                current = available.get();
+                if (current < count) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - count));
+            return true;
+        }
+
+        long remaining() {
+            return available.get() + unreported;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.seckill.stock.entity.SeckillGoods;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
 /**
@@ -52,4 +53,17 @@ public interface GoodsMapper extends BaseMapper<SeckillGoods> {
         @Update("UPDATE seckill_goods SET stock_count = stock_count - #{count} " +
                         "WHERE id = #{goodsId} AND stock_count >= #{count}")
         int directDeductStock(@Param("goodsId") Long goodsId, @Param("count") Integer count);
+
+        /**
+         * 查询秒杀热路径所需的商品快照
+         * <p>
+         * 只取校验和下单消息需要的列，不读取 goods_detail 等大字段
+         * </p>
+         *
+         * @param goodsId 商品ID
+         * @return 商品快照（仅包含部分字段）
+         */
+        @Select("SELECT id, goods_name, goods_img, seckill_price, stock_count, start_time, end_time, status " +
+                        "FROM seckill_goods WHERE id = #{goodsId} AND deleted = 0")
+        SeckillGoods selectSnapshotById(@Param("goodsId") Long goodsId);
 }
@@ -0,0 +1,54 @@
+package com.seckill.stock.mapper;
+
+import com.seckill.common.dto.StockRollbackItem;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存流水 Mapper
+ * <p>
+ * 回滚流水按 (order_no, change_type) 唯一，作为订单库存回滚在 MySQL 侧的幂等记录
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Mapper
+public interface StockLogMapper {
+
+    /**
+     * 变更类型：回滚
+     */
+    int CHANGE_TYPE_ROLLBACK = 2;
+
+    /**
+     * 查询已有回滚流水的订单号
+     *
+     * @param orderNos 订单号
+     * @return 已回滚过的订单号
+     */
+    @Select("<script>" +
+            "SELECT order_no FROM stock_log WHERE change_type = " + CHANGE_TYPE_ROLLBACK + " AND order_no IN " +
+            "<foreach collection='orderNos' item='orderNo' open='(' separator=',' close=')'>#{orderNo}</foreach>" +
+            "</script>")
+    List<Long> selectRolledBackOrderNos(@Param("orderNos") Collection<Long> orderNos);
+
+    /**
+     * 批量写入回滚流水（订单号重复时抛出 DuplicateKeyException，事务整体回滚）
+     *
+     * @param items 回滚条目
+     * @return 写入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO stock_log (goods_id, order_no, change_type, change_count, remark) VALUES " +
+            "<foreach collection='items' item='item' separator=','>" +
+            "(#{item.goodsId}, #{item.orderNo}, " + CHANGE_TYPE_ROLLBACK + ", #{item.count}, '订单库存回滚')" +
+            "</foreach>" +
+            "</script>")
+    int insertRollbackLogs(@Param("items") List<StockRollbackItem> items);
+}
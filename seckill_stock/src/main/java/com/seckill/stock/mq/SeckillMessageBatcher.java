@@ -0,0 +1,225 @@
+package com.seckill.stock.mq;
+
+import com.alibaba.fastjson.JSON;
+import com.seckill.common.dto.SeckillMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 秒杀消息批量发送
+ * <p>
+ * 将短时间窗口内（默认 32 条或 5ms）到达的秒杀消息合并为一条 RocketMQ 批量消息发送，
+ * 整批发送结果回填到每条消息各自的 {@link CompletableFuture}：
+ * 批次失败时整批的调用方都收到异常，由调用方按原有逻辑回滚库存与秒杀标记。
+ * </p>
+ * <p>
+ * 调用方等待超时后通过 {@link CompletableFuture#cancel(boolean)} 撤回消息：仅当消息仍在队列中时撤回成功，
+ * 发送线程跳过已撤回的消息；消息已进入发送中的批次时撤回失败，调用方需等待真实的发送结果再决定是否回滚
+ * </p>
+ * <p>
+ * 批量发送使用 asyncSend，发送线程不等待 Broker 响应，多个批次可以同时在途
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillMessageBatcher {
+
+    private final RocketMQTemplate rocketMQTemplate;
+
+    @Value("${seckill.mq.topic:seckill-order-topic}")
+    private String seckillTopic;
+
+    @Value("${seckill.mq.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.mq.batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${seckill.mq.batch.window-millis:5}")
+    private long windowMillis;
+
+    @Value("${seckill.mq.batch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${seckill.mq.batch.send-timeout-ms:3000}")
+    private long sendTimeoutMillis;
+
+    private BlockingQueue<PendingMessage> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::flushLoop, "seckill-message-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("秒杀消息批量发送已启用 - maxBatchSize: {}, windowMillis: {}", maxBatchSize, windowMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+    }
+
+    /**
+     * 是否启用批量发送
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 同步等待批次结果的超时时间：合并窗口 + 发送超时，保证不早于批次本身超时返回
+     */
+    public long awaitTimeoutMillis() {
+        return windowMillis + sendTimeoutMillis;
+    }
+
+    /**
+     * 提交秒杀消息
+     *
+     * @param message 秒杀消息
+     * @param orderNo 订单号
+     * @return 所在批次的发送结果；cancel 返回 true 表示消息已撤回、不会再发送
+     */
+    public CompletableFuture<SendResult> submit(SeckillMessage message, Long orderNo) {
+        PendingMessage pending = new PendingMessage(MessageBuilder.withPayload(JSON.toJSONString(message))
+                .setHeader("KEYS", String.valueOf(orderNo))
+                .build(), orderNo);
+        if (!running || !queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("秒杀消息发送队列已满"));
+        }
+        return pending.future;
+    }
+
+    private void flushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(new ArrayList<>(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("秒杀消息批量发送异常 - size: {}", batch.size(), e);
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // 停机时拒绝剩余消息，调用方按发送失败回滚
+        List<PendingMessage> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(pending -> pending.future.completeExceptionally(
+                new RejectedExecutionException("秒杀消息发送服务已停止")));
+    }
+
+    private void flush(List<PendingMessage> drained) {
+        // 跳过等待超时已被撤回的消息，其余标记为发送中后不可再撤回
+        List<PendingMessage> batch = drained.stream()
+                .filter(PendingMessage::markSending)
+                .collect(Collectors.toList());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Message<String>> messages = batch.stream()
+                .map(pending -> pending.message)
+                .collect(Collectors.toList());
+
+        rocketMQTemplate.asyncSend(seckillTopic, messages, new SendCallback() {
+            @Override
+            public void onSuccess(SendResult sendResult) {
+                log.debug("秒杀消息批量发送成功 - size: {}, msgId: {}", batch.size(), sendResult.getMsgId());
+                batch.forEach(pending -> pending.future.complete(sendResult));
+            }
+
+            @Override
+            public void onException(Throwable e) {
+                log.error("秒杀消息批量发送失败 - size: {}, orderNos: {}, error: {}", batch.size(),
+                        batch.stream().map(pending -> pending.orderNo).collect(Collectors.toList()), e.getMessage());
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            }
+        }, sendTimeoutMillis);
+    }
+
+    /**
+     * 等待发送的消息
+     */
+    private static class PendingMessage {
+        private final Message<String> message;
+        private final Long orderNo;
+        private final PendingFuture future = new PendingFuture();
+
+        PendingMessage(Message<String> message, Long orderNo) {
+            this.message = message;
+            this.orderNo = orderNo;
+        }
+
+        /**
+         * 标记为发送中
+         *
+         * @return false-已被撤回
+         */
+        boolean markSending() {
+            return future.state.compareAndSet(PendingFuture.QUEUED, PendingFuture.SENDING);
+        }
+    }
+
+    /**
+     * 发送结果：仅在排队状态下可以取消
+     */
+    private static class PendingFuture extends CompletableFuture<SendResult> {
+        private static final int QUEUED = 0;
+        private static final int SENDING = 1;
+        private static final int CANCELLED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return state.compareAndSet(QUEUED, CANCELLED) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.alibaba.fastjson.JSON;
 import com.seckill.common.dto.SeckillMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.support.MessageBuilder;
@@ -11,6 +13,9 @@ import org.springframework.stereotype.Component;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -33,6 +38,7 @@ import java.util.function.Consumer;
 public class SeckillMessageProducer {
 
     private final RocketMQTemplate rocketMQTemplate;
+    private final SeckillMessageBatcher messageBatcher;
 
     @Value("${seckill.mq.topic:seckill-order-topic}")
     private String seckillTopic;
@@ -54,6 +60,13 @@ public class SeckillMessageProducer {
                 orderId, message.getUserId(), message.getGoodsId());
 
         try {
+            if (messageBatcher.isEnabled()) {
+                // 批量模式：并入批次发送，等待所在批次的结果
+                awaitBatch(messageBatcher.submit(message, orderNo), orderNo);
+                onSuccess.accept(orderNo);
+                return;
+            }
+
             // 先尝试同步发送
             rocketMQTemplate.syncSend(
                     seckillTopic,
@@ -72,6 +85,77 @@ public class SeckillMessageProducer {
         }
     }
 
+    /**
+     * 等待批次发送结果
+     * <p>
+     * 等待超时只说明消息仍在排队或批次仍在发送：先撤回，撤回成功才按失败回滚；
+     * 消息已进入发送中的批次时撤回失败，继续等待真实结果（批次本身受发送超时约束），
+     * 避免调用方回滚后消息仍被发出导致超卖
+     * </p>
+     */
+    private void awaitBatch(CompletableFuture<SendResult> future, Long orderNo) throws Exception {
+        try {
+            future.get(messageBatcher.awaitTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (future.cancel(false)) {
+                throw e;
+            }
+            log.warn("批次已在发送中，等待发送结果 - orderNo: {}", orderNo);
+            future.get();
+        }
+    }
+
+    /**
+     * 异步发送秒杀消息
+     * <p>
+     * 使用 asyncSend，调用线程不等待 Broker 响应；发送结果通过返回的 Future 通知，
+     * 失败时由调用方在回调中回滚库存与秒杀标记
+     * </p>
+     *
+     * @param message 秒杀消息
+     * @param orderNo 订单号
+     * @return 发送结果
+     */
+    public CompletableFuture<SendResult> sendSeckillMessageAsync(SeckillMessage message, Long orderNo) {
+        Objects.requireNonNull(message, "message cannot be null");
+        Objects.requireNonNull(orderNo, "orderNo cannot be null");
+
+        if (messageBatcher.isEnabled()) {
+            return messageBatcher.submit(message, orderNo);
+        }
+
+        CompletableFuture<SendResult> future = new CompletableFuture<>();
+        SendCallback callback = new SendCallback() {
+            @Override
+            public void onSuccess(SendResult sendResult) {
+                log.info("异步发送秒杀消息成功 - orderNo: {}, userId: {}, goodsId: {}",
+                        orderNo, message.getUserId(), message.getGoodsId());
+                future.complete(sendResult);
+            }
+
+            @Override
+            public void onException(Throwable e) {
+                log.error("异步MQ发送失败 - orderNo: {}, userId: {}, goodsId: {}, error: {}",
+                        orderNo, message.getUserId(), message.getGoodsId(), e.getMessage());
+                future.completeExceptionally(e);
+            }
+        };
+
+        try {
+            rocketMQTemplate.asyncSend(
+                    seckillTopic,
+                    MessageBuilder.withPayload(JSON.toJSONString(message))
+                            .setHeader("KEYS", String.valueOf(orderNo))
+                            .build(),
+                    callback,
+                    3000);
+        } catch (Exception e) {
+            // 提交阶段即失败（如 Producer 未就绪），同样以异常 Future 返回
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * 发送秒杀消息（支持自定义 Tag）
      *
@@ -1,10 +1,12 @@
 package com.seckill.stock.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.stock.entity.SeckillGoods;
 import com.seckill.stock.vo.GoodsVO;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品服务接口
@@ -54,11 +56,26 @@ public interface GoodsService extends IService<SeckillGoods> {
      */
     boolean rollbackStock(Long goodsId, Integer count);
 
+    /**
+     * 按订单批量回滚库存（幂等）
+     * <p>
+     * 以 MySQL 回滚流水（订单号唯一）判定订单是否已回滚，流水与库存 UPDATE 在同一事务中；
+     * Redis 最后一次管道调用回补，并以自身的幂等标记防止事务提交失败重试时重复回补
+     * </p>
+     *
+     * @param items 回滚条目
+     * @return 实际生效的回滚数量，按商品汇总
+     */
+    Map<Long, Integer> rollbackStockBatch(List<StockRollbackItem> items);
+
     /**
      * 检查商品是否可以秒杀
+     * <p>
+     * 基于本地商品快照校验，快照只包含秒杀热路径需要的字段
+     * </p>
      *
      * @param goodsId 商品ID
-     * @return 商品信息（校验通过）
+     * @return 商品快照（校验通过）
      */
     SeckillGoods checkSeckillable(Long goodsId);
 
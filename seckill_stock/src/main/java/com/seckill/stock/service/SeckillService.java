@@ -2,6 +2,8 @@ package com.seckill.stock.service;
 
 import com.seckill.stock.dto.SeckillRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 秒杀服务接口
  *
@@ -28,6 +30,18 @@ public interface SeckillService {
      */
     Long doSeckill(SeckillRequest request);
 
+    /**
+     * 异步执行秒杀
+     * <p>
+     * 准入使用响应式 Redis 执行 Lua 脚本，MQ 使用 asyncSend，全程不阻塞调用线程；
+     * MQ 发送失败时在回调中撤销准入（回滚库存 + 清除标记）
+     * </p>
+     *
+     * @param request 秒杀请求
+     * @return 订单号 Future，失败时以 {@link com.seckill.common.exception.BusinessException} 异常完成
+     */
+    CompletableFuture<Long> doSeckillAsync(SeckillRequest request);
+
     /**
      * 初始化商品库存到 Redis
      *
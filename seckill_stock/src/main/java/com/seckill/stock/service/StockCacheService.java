@@ -1,5 +1,11 @@
 package com.seckill.stock.service;
 
+import com.seckill.common.dto.StockRollbackItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 库存缓存服务接口
  * <p>
@@ -28,6 +34,30 @@ public interface StockCacheService {
      */
     Long deductStock(Long goodsId, Integer count);
 
+    /**
+     * 预扣减库存（原子操作，分片库存按用户哈希选择分片）
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID（用于选择库存分片，可为空）
+     * @param count   扣减数量
+     * @return 扣减后所在分片的库存数量，-1表示库存不足，-2表示库存未初始化
+     */
+    Long deductStock(Long goodsId, Long userId, Integer count);
+
+    /**
+     * 异步预扣减库存
+     * <p>
+     * 微批模式下请求进入合并队列，与同一时间窗口内同商品的请求共用一次 Lua 调用；
+     * 其他模式同步执行后返回已完成的 Future
+     * </p>
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @param count   扣减数量
+     * @return 扣减结果，含义同 {@link #deductStock(Long, Long, Integer)}
+     */
+    CompletableFuture<Long> deductStockAsync(Long goodsId, Long userId, Integer count);
+
     /**
      * 回滚库存（原子操作）
      *
@@ -37,11 +67,70 @@ public interface StockCacheService {
      */
     Long rollbackStock(Long goodsId, Integer count);
 
+    /**
+     * 按订单批量回滚库存（幂等）
+     * <p>
+     * 所有条目在一次管道调用中执行，每个订单号只回滚一次，重复的条目跳过。
+     * 幂等标记只保证 Redis 侧不重复回补，MySQL 侧以回滚流水为准
+     * </p>
+     *
+     * @param items 回滚条目
+     * @return 本次实际生效的回滚数量，按商品汇总
+     */
+    Map<Long, Integer> rollbackStockBatch(List<StockRollbackItem> items);
+
+    /**
+     * 秒杀准入（原子操作）
+     * <p>
+     * 单次 Lua 脚本完成一人一单校验、库存校验扣减以及已秒杀标记，
+     * 一次 Redis 往返替代「加锁 + 查标记 + 扣库存 + 打标记 + 解锁」
+     * </p>
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @param count   扣减数量
+     * @return 扣减后的库存数量，-1表示库存不足，-2表示库存未初始化，-3表示已秒杀
+     */
+    Long admitSeckill(Long goodsId, Long userId, Integer count);
+
+    /**
+     * 撤销秒杀准入（原子操作）
+     * <p>
+     * 回滚库存并清除已秒杀标记，用于准入成功后下游失败的补偿
+     * </p>
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @param count   回滚数量
+     * @return 回滚后的库存数量，-1表示库存未初始化
+     */
+    Long revokeSeckill(Long goodsId, Long userId, Integer count);
+
+    /**
+     * 异步秒杀准入（基于响应式 Redis，不阻塞调用线程）
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @param count   扣减数量
+     * @return 准入结果，含义同 {@link #admitSeckill(Long, Long, Integer)}
+     */
+    CompletableFuture<Long> admitSeckillAsync(Long goodsId, Long userId, Integer count);
+
+    /**
+     * 异步撤销秒杀准入
+     *
+     * @param goodsId 商品ID
+     * @param userId  用户ID
+     * @param count   回滚数量
+     * @return 回滚后的库存数量，-1表示库存未初始化
+     */
+    CompletableFuture<Long> revokeSeckillAsync(Long goodsId, Long userId, Integer count);
+
     /**
      * 获取当前库存
      *
      * @param goodsId 商品ID
-     * @return 库存数量，null表示未初始化
+     * @return 库存数量（分片库存为各分片之和），null表示未初始化
      */
     Long getStock(Long goodsId);
 
@@ -54,6 +143,14 @@ public interface StockCacheService {
      */
     boolean hasStock(Long goodsId, Integer count);
 
+    /**
+     * 检查商品是否已售罄（本地标记，不访问 Redis）
+     *
+     * @param goodsId 商品ID
+     * @return true-已售罄
+     */
+    boolean isSoldOut(Long goodsId);
+
     /**
      * 删除库存缓存
      *
@@ -3,23 +3,30 @@ package com.seckill.stock.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.seckill.common.constant.GoodsStatus;
+import com.seckill.common.dto.StockRollbackItem;
 import com.seckill.common.exception.BusinessException;
 import com.seckill.common.result.ResultCode;
+import com.seckill.stock.cache.GoodsSnapshotCache;
+import com.seckill.stock.converter.GoodsConverter;
 import com.seckill.stock.entity.SeckillGoods;
 import com.seckill.stock.mapper.GoodsMapper;
+import com.seckill.stock.mapper.StockLogMapper;
 import com.seckill.stock.service.GoodsService;
 import com.seckill.stock.service.StockCacheService;
 import com.seckill.stock.vo.GoodsVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,7 +41,10 @@ import java.util.stream.Collectors;
 public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> implements GoodsService {
 
     private final GoodsMapper goodsMapper;
+    private final StockLogMapper stockLogMapper;
     private final StockCacheService stockCacheService;
+    private final GoodsSnapshotCache goodsSnapshotCache;
+    private final GoodsConverter goodsConverter;
 
     @Override
     public List<GoodsVO> listOngoingGoods() {
@@ -43,8 +53,7 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
                 .gt(SeckillGoods::getStockCount, 0)
                 .orderByAsc(SeckillGoods::getStartTime);
 
-        List<SeckillGoods> list = this.list(wrapper);
-        return list.stream().map(this::convertToVO).collect(Collectors.toList());
+        return goodsConverter.toVOList(this.list(wrapper));
     }
 
     @Override
@@ -53,8 +62,7 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
         wrapper.ne(SeckillGoods::getStatus, GoodsStatus.OFF_SHELF)
                 .orderByDesc(SeckillGoods::getCreateTime);
 
-        List<SeckillGoods> list = this.list(wrapper);
-        return list.stream().map(this::convertToVO).collect(Collectors.toList());
+        return goodsConverter.toVOList(this.list(wrapper));
     }
 
     @Override
@@ -63,7 +71,7 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
         if (goods == null) {
             throw new BusinessException(ResultCode.GOODS_NOT_EXIST);
         }
-        return convertToVO(goods);
+        return goodsConverter.toVO(goods);
     }
 
     @Override
@@ -83,6 +91,7 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
             throw new BusinessException(ResultCode.STOCK_NOT_ENOUGH);
         }
 
+        goodsSnapshotCache.invalidate(goodsId);
         log.info("扣减库存成功，商品ID: {}, 扣减数量: {}", goodsId, count);
         return true;
     }
@@ -95,6 +104,7 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
 
         // 2. 回滚 MySQL 库存
         int rows = goodsMapper.rollbackStock(goodsId, count);
+        goodsSnapshotCache.invalidate(goodsId);
         if (rows > 0) {
             log.info("回滚库存成功（Redis + MySQL） - goodsId: {}, count: {}", goodsId, count);
             return true;
@@ -103,10 +113,55 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
         return false;
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Map<Long, Integer> rollbackStockBatch(List<StockRollbackItem> items) {
+        if (items == null) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "回滚条目不能为空");
+        }
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+        boolean invalid = items.stream().anyMatch(item -> item == null || item.getOrderNo() == null
+                || item.getGoodsId() == null || item.getCount() == null || item.getCount() <= 0);
+        if (invalid) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "回滚条目的订单号、商品ID、数量不能为空");
+        }
+        // 同一请求内重复的订单号只保留一条
+        List<StockRollbackItem> distinct = List.copyOf(items.stream()
+                .collect(Collectors.toMap(StockRollbackItem::getOrderNo, Function.identity(),
+                        (first, duplicate) -> first, LinkedHashMap::new))
+                .values());
+
+        // 1. MySQL：回滚流水按订单号唯一，与库存 UPDATE 同一事务，失败时一起回滚，重试仍会回补
+        Set<Long> rolledBack = new HashSet<>(stockLogMapper.selectRolledBackOrderNos(
+                distinct.stream().map(StockRollbackItem::getOrderNo).collect(Collectors.toList())));
+        List<StockRollbackItem> pending = distinct.stream()
+                .filter(item -> !rolledBack.contains(item.getOrderNo()))
+                .collect(Collectors.toList());
+        if (pending.isEmpty()) {
+            log.info("订单库存均已回滚过，跳过 - items: {}", items.size());
+            return Map.of();
+        }
+        stockLogMapper.insertRollbackLogs(pending);
+        Map<Long, Integer> applied = pending.stream()
+                .collect(Collectors.groupingBy(StockRollbackItem::getGoodsId, LinkedHashMap::new,
+                        Collectors.summingInt(StockRollbackItem::getCount)));
+        applied.forEach(goodsMapper::rollbackStock);
+
+        // 2. Redis：MySQL 语句全部成功后再回补，一次管道调用；
+        //    事务提交失败重试时 Redis 侧的幂等标记保证不重复回补
+        stockCacheService.rollbackStockBatch(pending);
+        applied.keySet().forEach(goodsSnapshotCache::invalidate);
+        log.info("批量回滚库存完成 - items: {}, applied: {}", items.size(), applied);
+        return applied;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean deductMySQLStock(Long goodsId, Integer count) {
         int rows = goodsMapper.directDeductStock(goodsId, count);
+        goodsSnapshotCache.invalidate(goodsId);
         if (rows > 0) {
             log.info("MySQL 库存同步扣减成功 - goodsId: {}, count: {}", goodsId, count);
             return true;
@@ -121,13 +176,17 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
     }
 
     @Override
-    public SeckillGoods checkSeckillable(Long goodsId) {
-        SeckillGoods goods = this.getById(goodsId);
+    public boolean updateById(SeckillGoods entity) {
+        boolean updated = super.updateById(entity);
+        Optional.ofNullable(entity).map(SeckillGoods::getId).ifPresent(goodsSnapshotCache::invalidate);
+        return updated;
+    }
 
-        // 1. 检查商品是否存在
-        if (goods == null) {
-            throw new BusinessException(ResultCode.GOODS_NOT_EXIST);
-        }
+    @Override
+    public SeckillGoods checkSeckillable(Long goodsId) {
+        // 1. 检查商品是否存在（读取本地快照，不访问 MySQL）
+        SeckillGoods goods = goodsSnapshotCache.get(goodsId)
+                .orElseThrow(() -> new BusinessException(ResultCode.GOODS_NOT_EXIST));
 
         // 2. 检查商品状态
         if (goods.getStatus() == GoodsStatus.OFF_SHELF) {
@@ -152,47 +211,4 @@ public class GoodsServiceImpl extends ServiceImpl<GoodsMapper, SeckillGoods> imp
 
         return goods;
     }
-
-    /**
-     * 转换为 VO 对象
-     */
-    private GoodsVO convertToVO(SeckillGoods goods) {
-        GoodsVO vo = new GoodsVO();
-        BeanUtils.copyProperties(goods, vo);
-
-        // 设置状态描述
-        vo.setStatusDesc(getStatusDesc(goods.getStatus()));
-
-        // 计算折扣
-        if (goods.getGoodsPrice() != null && goods.getSeckillPrice() != null
-                && goods.getGoodsPrice().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal discount = goods.getSeckillPrice()
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(goods.getGoodsPrice(), 0, RoundingMode.HALF_UP);
-            vo.setDiscountPercent(discount.intValue());
-        }
-
-        return vo;
-    }
-
-    /**
-     * 获取状态描述
-     */
-    private String getStatusDesc(Integer status) {
-        if (status == null) {
-            return "未知";
-        }
-        switch (status) {
-            case GoodsStatus.NOT_STARTED:
-                return "未开始";
-            case GoodsStatus.ONGOING:
-                return "进行中";
-            case GoodsStatus.ENDED:
-                return "已结束";
-            case GoodsStatus.OFF_SHELF:
-                return "已下架";
-            default:
-                return "未知";
-        }
-    }
 }
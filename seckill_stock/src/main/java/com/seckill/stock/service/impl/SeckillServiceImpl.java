@@ -1,25 +1,34 @@
 package com.seckill.stock.service.impl;
 
-import com.seckill.common.constant.RedisKeyConstants;
 import com.seckill.common.dto.SeckillMessage;
 import com.seckill.common.exception.BusinessException;
-import com.seckill.common.id.DistributedIdGenerator;
+import com.seckill.common.id.IdGenerator;
+import com.seckill.common.killed.KilledMarkStore;
 import com.seckill.common.result.ResultCode;
 import com.seckill.stock.dto.SeckillRequest;
 import com.seckill.stock.entity.SeckillGoods;
+import com.seckill.stock.journal.SeckillJournalRelay;
 import com.seckill.stock.mq.SeckillMessageProducer;
 import com.seckill.stock.service.DistributedLockService;
 import com.seckill.stock.service.GoodsService;
 import com.seckill.stock.service.SeckillService;
 import com.seckill.stock.service.StockCacheService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -46,14 +55,62 @@ public class SeckillServiceImpl implements SeckillService {
     private final StockCacheService stockCacheService;
     private final DistributedLockService lockService;
     private final SeckillMessageProducer messageProducer;
-    private final StringRedisTemplate redisTemplate;
-    private final DistributedIdGenerator idGenerator;
+    private final KilledMarkStore killedMarkStore;
+    private final IdGenerator idGenerator;
+    private final SeckillJournalRelay journalRelay;
 
     /**
      * 分布式锁过期时间（秒）
      */
     private static final long LOCK_EXPIRE_SECONDS = 10L;
 
+    /**
+     * 准入模式：单次 Lua 原子准入
+     */
+    private static final String ADMISSION_MODE_SCRIPT = "script";
+
+    /**
+     * 秒杀准入模式
+     * <p>
+     * lock（默认）：分布式锁 + 多步 Redis 调用；script：单次 Lua 脚本原子准入，无需用户锁
+     * </p>
+     */
+    @Value("${seckill.admission.mode:lock}")
+    private String admissionMode;
+
+    /**
+     * 异步秒杀工作线程数（生成订单号、库存回源等可能阻塞的步骤）
+     */
+    @Value("${seckill.async.worker-threads:8}")
+    private int asyncWorkerThreads;
+
+    /**
+     * 异步秒杀工作队列容量，队列满时请求失败并撤销准入
+     */
+    @Value("${seckill.async.queue-capacity:10000}")
+    private int asyncQueueCapacity;
+
+    /**
+     * 异步秒杀工作线程池：准入结果在 Redis 事件循环上回调，可能阻塞的步骤切换到这里执行
+     */
+    private ExecutorService asyncExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        asyncExecutor = new ThreadPoolExecutor(asyncWorkerThreads, asyncWorkerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(asyncQueueCapacity), r -> {
+                    Thread t = new Thread(r, "seckill-async-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdown();
+    }
+
     @Override
     public Long doSeckill(SeckillRequest request) {
         Objects.requireNonNull(request, "request cannot be null");
@@ -64,6 +121,16 @@ public class SeckillServiceImpl implements SeckillService {
 
         log.info("开始秒杀 - userId: {}, goodsId: {}, count: {}", userId, goodsId, count);
 
+        // 0. 本地售罄标记快速失败（不访问 Redis / MySQL）
+        if (stockCacheService.isSoldOut(goodsId)) {
+            log.debug("商品已售罄，快速失败 - goodsId: {}", goodsId);
+            throw new BusinessException(ResultCode.STOCK_NOT_ENOUGH);
+        }
+
+        if (ADMISSION_MODE_SCRIPT.equalsIgnoreCase(admissionMode)) {
+            return doSeckillByScript(request, userId, goodsId, count);
+        }
+
         // 1. 获取分布式锁
         String lockRequestId = Optional.ofNullable(lockService.lockSeckill(goodsId, userId, LOCK_EXPIRE_SECONDS))
                 .orElseThrow(() -> {
@@ -85,11 +152,11 @@ public class SeckillServiceImpl implements SeckillService {
             SeckillGoods goods = goodsService.checkSeckillable(goodsId);
 
             // 4. Redis 预扣减库存
-            Long remaining = deductStockWithRetry(goodsId, count);
+            Long remaining = deductStockWithRetry(goodsId, userId, count);
             context.setStockDeducted(true);
 
             // 5. 生成订单号
-            Long orderNo = idGenerator.nextId();
+            Long orderNo = idGenerator.nextId(userId);
             context.setOrderNo(orderNo);
 
             // 6. 标记用户已秒杀
@@ -114,12 +181,182 @@ public class SeckillServiceImpl implements SeckillService {
         }
     }
 
+    /**
+     * 脚本准入模式秒杀
+     * <p>
+     * 一人一单校验、库存扣减、已秒杀标记由同一个 Lua 脚本原子完成，
+     * 同一用户的并发请求在 Redis 内串行化，分布式锁不再需要
+     * </p>
+     */
+    private Long doSeckillByScript(SeckillRequest request, Long userId, Long goodsId, Integer count) {
+        // 1. 校验商品状态（此时尚未写入 Redis，失败无需回滚）
+        SeckillGoods goods = goodsService.checkSeckillable(goodsId);
+
+        // 2. 原子准入
+        admitWithRetry(goodsId, userId, count);
+
+        try {
+            // 3. 生成订单号
+            Long orderNo = idGenerator.nextId(userId);
+
+            // 4. 发送 MQ 消息
+            sendSeckillMessage(goods, request, orderNo);
+
+            log.info("秒杀成功 - userId: {}, goodsId: {}, orderNo: {}", userId, goodsId, orderNo);
+            return orderNo;
+
+        } catch (Exception e) {
+            log.error("秒杀异常 - userId: {}, goodsId: {}", userId, goodsId, e);
+            revokeAdmission(goodsId, userId, count);
+            throw new BusinessException(ResultCode.SYSTEM_ERROR);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> doSeckillAsync(SeckillRequest request) {
+        Objects.requireNonNull(request, "request cannot be null");
+
+        final Long userId = request.getUserId();
+        final Long goodsId = request.getGoodsId();
+        final Integer count = Optional.ofNullable(request.getCount()).orElse(1);
+
+        log.info("开始异步秒杀 - userId: {}, goodsId: {}, count: {}", userId, goodsId, count);
+
+        if (stockCacheService.isSoldOut(goodsId)) {
+            return CompletableFuture.failedFuture(new BusinessException(ResultCode.STOCK_NOT_ENOUGH));
+        }
+
+        // 商品快照走本地缓存，命中时不产生 I/O
+        SeckillGoods goods;
+        try {
+            goods = goodsService.checkSeckillable(goodsId);
+        } catch (BusinessException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return admitAsync(goodsId, userId, count)
+                .thenCompose(remaining -> nextOrderNoAsync(goodsId, userId, count))
+                .thenCompose(orderNo -> sendSeckillMessageAsync(buildSeckillMessage(goods, request, orderNo), orderNo)
+                        .handle((sendResult, ex) -> {
+                            if (ex != null) {
+                                revokeAdmissionAsync(goodsId, userId, count);
+                                throw new BusinessException(ResultCode.SYSTEM_ERROR);
+                            }
+                            log.info("秒杀成功 - userId: {}, goodsId: {}, orderNo: {}", userId, goodsId, orderNo);
+                            return orderNo;
+                        }));
+    }
+
+    /**
+     * 在工作线程上生成订单号
+     * <p>
+     * 号段补充会同步等待 Redis INCRBY，分片基因生成器可能自旋等待，都不能在 Redis 事件循环上执行；
+     * 后续的发送步骤也随之在工作线程上继续。线程池已满或生成失败时撤销准入
+     * </p>
+     */
+    private CompletableFuture<Long> nextOrderNoAsync(Long goodsId, Long userId, Integer count) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return idGenerator.nextId(userId);
+                } catch (Exception e) {
+                    log.error("生成订单号失败 - userId: {}, goodsId: {}", userId, goodsId, e);
+                    revokeAdmissionAsync(goodsId, userId, count);
+                    throw new BusinessException(ResultCode.SYSTEM_ERROR);
+                }
+            }, asyncExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("异步秒杀线程池已满 - userId: {}, goodsId: {}", userId, goodsId);
+            revokeAdmissionAsync(goodsId, userId, count);
+            return CompletableFuture.failedFuture(new BusinessException(ResultCode.SYSTEM_ERROR));
+        }
+    }
+
+    /**
+     * 异步原子准入
+     * <p>
+     * 库存未初始化时需要回源 MySQL，属于冷启动低频路径，放到异步工作线程池执行以免阻塞 Redis 事件循环
+     * </p>
+     */
+    private CompletableFuture<Long> admitAsync(Long goodsId, Long userId, Integer count) {
+        return stockCacheService.admitSeckillAsync(goodsId, userId, count)
+                .thenCompose(remaining -> remaining != null && remaining == -2
+                        ? initGoodsStockAsync(goodsId)
+                                .thenCompose(v -> stockCacheService.admitSeckillAsync(goodsId, userId, count))
+                        : CompletableFuture.completedFuture(remaining))
+                .thenApply(remaining -> {
+                    if (remaining != null && remaining == -3) {
+                        throw new BusinessException(ResultCode.REPEAT_ORDER);
+                    }
+                    return Optional.ofNullable(remaining)
+                            .filter(r -> r >= 0)
+                            .orElseThrow(() -> new BusinessException(ResultCode.STOCK_NOT_ENOUGH));
+                });
+    }
+
+    /**
+     * 在工作线程上回源初始化库存，线程池已满时按系统繁忙失败（此时尚未准入，无需撤销）
+     */
+    private CompletableFuture<Void> initGoodsStockAsync(Long goodsId) {
+        try {
+            return CompletableFuture.runAsync(() -> initGoodsStock(goodsId), asyncExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new BusinessException(ResultCode.SYSTEM_ERROR));
+        }
+    }
+
+    /**
+     * 原子准入（带重试）
+     */
+    private Long admitWithRetry(Long goodsId, Long userId, Integer count) {
+        Supplier<Long> admitOperation = () -> stockCacheService.admitSeckill(goodsId, userId, count);
+
+        Long remaining = admitOperation.get();
+
+        // 库存未初始化，尝试初始化后重试
+        if (remaining != null && remaining == -2) {
+            initGoodsStock(goodsId);
+            remaining = admitOperation.get();
+        }
+
+        if (remaining != null && remaining == -3) {
+            throw new BusinessException(ResultCode.REPEAT_ORDER);
+        }
+
+        return Optional.ofNullable(remaining)
+                .filter(r -> r >= 0)
+                .orElseThrow(() -> new BusinessException(ResultCode.STOCK_NOT_ENOUGH));
+    }
+
+    /**
+     * 撤销准入（回滚库存 + 清除标记）
+     */
+    private void revokeAdmission(Long goodsId, Long userId, Integer count) {
+        try {
+            stockCacheService.revokeSeckill(goodsId, userId, count);
+            log.info("秒杀失败回滚完成 - userId: {}, goodsId: {}", userId, goodsId);
+        } catch (Exception rollbackEx) {
+            log.error("回滚操作失败 - userId: {}, goodsId: {}", userId, goodsId, rollbackEx);
+        }
+    }
+
+    /**
+     * 异步撤销准入，运行在 MQ 回调线程上，同样走响应式 Redis 不阻塞回调线程
+     */
+    private void revokeAdmissionAsync(Long goodsId, Long userId, Integer count) {
+        stockCacheService.revokeSeckillAsync(goodsId, userId, count)
+                .whenComplete((current, rollbackEx) -> Optional.ofNullable(rollbackEx)
+                        .ifPresentOrElse(
+                                e -> log.error("回滚操作失败 - userId: {}, goodsId: {}", userId, goodsId, e),
+                                () -> log.info("秒杀失败回滚完成 - userId: {}, goodsId: {}", userId, goodsId)));
+    }
+
     /**
      * 扣减库存（带重试）
      */
-    private Long deductStockWithRetry(Long goodsId, Integer count) {
+    private Long deductStockWithRetry(Long goodsId, Long userId, Integer count) {
         // 使用 Supplier 封装重试逻辑
-        Supplier<Long> deductOperation = () -> stockCacheService.deductStock(goodsId, count);
+        Supplier<Long> deductOperation = () -> stockCacheService.deductStock(goodsId, userId, count);
 
         Long remaining = deductOperation.get();
 
@@ -141,6 +378,28 @@ public class SeckillServiceImpl implements SeckillService {
      * 发送秒杀消息
      */
     private void sendSeckillMessage(SeckillGoods goods, SeckillRequest request, Long orderNo) {
+        SeckillMessage message = buildSeckillMessage(goods, request, orderNo);
+        if (journalRelay.isEnabled()) {
+            // 写入本地预写日志即视为受理，由后台投递到 MQ
+            journalRelay.write(message);
+            return;
+        }
+        messageProducer.sendSeckillMessage(message, orderNo);
+    }
+
+    /**
+     * 异步发送秒杀消息（启用预写日志时改为异步写日志）
+     */
+    private CompletableFuture<?> sendSeckillMessageAsync(SeckillMessage message, Long orderNo) {
+        return journalRelay.isEnabled()
+                ? journalRelay.writeAsync(message)
+                : messageProducer.sendSeckillMessageAsync(message, orderNo);
+    }
+
+    /**
+     * 构建秒杀消息
+     */
+    private SeckillMessage buildSeckillMessage(SeckillGoods goods, SeckillRequest request, Long orderNo) {
         SeckillMessage message = new SeckillMessage();
         message.setUserId(request.getUserId());
         message.setGoodsId(request.getGoodsId());
@@ -151,8 +410,7 @@ public class SeckillServiceImpl implements SeckillService {
         message.setChannel(request.getChannel());
         message.setOrderNo(orderNo);
         message.setTimestamp(System.currentTimeMillis());
-
-        messageProducer.sendSeckillMessage(message, orderNo);
+        return message;
     }
 
     /**
@@ -184,8 +442,7 @@ public class SeckillServiceImpl implements SeckillService {
 
     @Override
     public void removeKilledMark(Long userId, Long goodsId) {
-        String key = RedisKeyConstants.killedKey(goodsId, userId);
-        redisTemplate.delete(key);
+        killedMarkStore.removeKilledMark(goodsId, userId);
         log.debug("清除已秒杀标记 - userId: {}, goodsId: {}", userId, goodsId);
     }
 
@@ -210,14 +467,12 @@ public class SeckillServiceImpl implements SeckillService {
 
     @Override
     public boolean hasKilled(Long userId, Long goodsId) {
-        String key = RedisKeyConstants.killedKey(goodsId, userId);
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        return killedMarkStore.hasKilled(goodsId, userId);
     }
 
     @Override
     public void markKilled(Long userId, Long goodsId) {
-        String key = RedisKeyConstants.killedKey(goodsId, userId);
-        redisTemplate.opsForValue().set(key, "1", RedisKeyConstants.KILLED_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        killedMarkStore.markKilled(goodsId, userId);
     }
 
     /**
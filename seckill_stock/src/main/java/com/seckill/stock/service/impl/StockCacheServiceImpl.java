@@ -1,16 +1,41 @@
 package com.seckill.stock.service.impl;
 
 import com.seckill.common.constant.RedisKeyConstants;
+import com.seckill.common.dto.StockRollbackItem;
+import com.seckill.common.killed.KilledMarkStore;
+import com.seckill.stock.batch.StockDeductBatcher;
+import com.seckill.stock.cache.SoldOutFlagCache;
+import com.seckill.stock.config.StockShardProperties;
+import com.seckill.stock.lease.StockLeaseManager;
 import com.seckill.stock.service.StockCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * 库存缓存服务实现
@@ -32,6 +57,18 @@ import java.util.concurrent.TimeUnit;
 public class StockCacheServiceImpl implements StockCacheService {
 
     private final StringRedisTemplate redisTemplate;
+    private final SoldOutFlagCache soldOutFlagCache;
+    private final StockShardProperties shardProperties;
+    private final StockLeaseManager stockLeaseManager;
+    private final StockDeductBatcher stockDeductBatcher;
+    private final KilledMarkStore killedMarkStore;
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    /**
+     * 微批扣减等待结果的超时时间（毫秒）
+     */
+    @Value("${seckill.stock.batch.await-timeout-ms:200}")
+    private long batchAwaitTimeoutMillis;
 
     /**
      * Lua 脚本：原子性扣减库存（static 缓存，复用 SHA1）
@@ -54,6 +91,88 @@ public class StockCacheServiceImpl implements StockCacheService {
             "redis.call('set', KEYS[1], newStock) " +
             "return newStock";
 
+    /**
+     * Lua 脚本：按订单幂等回滚库存
+     * <p>
+     * KEYS[1] 库存 key，KEYS[2] 回滚幂等标记 key（与库存 key 同槽位）；ARGV[1] 回滚数量，ARGV[2] 标记过期秒数。
+     * 返回 -3 表示该订单已回滚过，-1 表示库存 key 不存在（只回滚 MySQL）。
+     * 使用 INCRBY 以保留库存 key 的过期时间
+     * </p>
+     */
+    private static final String ROLLBACK_ONCE_LUA = "if not redis.call('set', KEYS[2], '1', 'NX', 'EX', ARGV[2]) then return -3 end " +
+            "if redis.call('exists', KEYS[1]) == 0 then return -1 end " +
+            "return redis.call('incrby', KEYS[1], ARGV[1])";
+
+    private static final byte[] ROLLBACK_ONCE_SCRIPT = ROLLBACK_ONCE_LUA.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Lua 脚本：秒杀准入（一人一单校验 + 库存扣减 + 已秒杀标记）
+     * <p>
+     * 仅用于未分片商品；Redis Cluster 下标记 key 需与库存 key 同槽位（见 seckill.killed.colocate-with-stock）。
+     * KEYS[1] 库存 key，KEYS[2] 已秒杀标记 key；ARGV[1] 扣减数量，ARGV[2] 标记过期秒数，
+     * ARGV[3] 标记存储类型（string / bitmap / hash），ARGV[4] 标记成员（位图偏移量或哈希字段）。
+     * 使用 DECRBY 扣减以保留库存 key 的过期时间
+     * </p>
+     */
+    private static final String ADMIT_SECKILL_LUA = "local t = ARGV[3] " +
+            "local killed " +
+            "if t == 'bitmap' then killed = redis.call('getbit', KEYS[2], ARGV[4]) == 1 " +
+            "elseif t == 'hash' then killed = redis.call('hexists', KEYS[2], ARGV[4]) == 1 " +
+            "else killed = redis.call('exists', KEYS[2]) == 1 end " +
+            "if killed then return -3 end " +
+            "local stock = redis.call('get', KEYS[1]) " +
+            "if stock == false then return -2 end " +
+            "local count = tonumber(ARGV[1]) " +
+            "if tonumber(stock) < count then return -1 end " +
+            "local newStock = redis.call('decrby', KEYS[1], count) " +
+            "if t == 'bitmap' then redis.call('setbit', KEYS[2], ARGV[4], 1) redis.call('expire', KEYS[2], ARGV[2]) " +
+            "elseif t == 'hash' then redis.call('hset', KEYS[2], ARGV[4], '1') redis.call('expire', KEYS[2], ARGV[2]) " +
+            "else redis.call('set', KEYS[2], '1', 'EX', ARGV[2]) end " +
+            "return newStock";
+
+    /**
+     * Lua 脚本：撤销秒杀准入（清除已秒杀标记 + 回滚库存）
+     * <p>
+     * 仅用于未分片商品。ARGV[1] 回滚数量，ARGV[2] 标记存储类型，ARGV[3] 标记成员
+     * </p>
+     */
+    private static final String REVOKE_SECKILL_LUA = "local t = ARGV[2] " +
+            "if t == 'bitmap' then redis.call('setbit', KEYS[2], ARGV[3], 0) " +
+            "elseif t == 'hash' then redis.call('hdel', KEYS[2], ARGV[3]) " +
+            "else redis.call('del', KEYS[2]) end " +
+            "local stock = redis.call('get', KEYS[1]) " +
+            "if stock == false then return -1 end " +
+            "return redis.call('incrby', KEYS[1], ARGV[1])";
+
+    /**
+     * Lua 脚本：占用已秒杀标记（分片商品准入的第一步）
+     * <p>
+     * KEYS[1] 已秒杀标记 key；ARGV[1] 标记过期秒数，ARGV[2] 标记存储类型，ARGV[3] 标记成员。
+     * 返回 -3 表示已秒杀过，1 表示占用成功
+     * </p>
+     */
+    private static final String MARK_KILLED_LUA = "local t = ARGV[2] " +
+            "if t == 'bitmap' then " +
+            "if redis.call('setbit', KEYS[1], ARGV[3], 1) == 1 then return -3 end " +
+            "redis.call('expire', KEYS[1], ARGV[1]) " +
+            "elseif t == 'hash' then " +
+            "if redis.call('hsetnx', KEYS[1], ARGV[3], '1') == 0 then return -3 end " +
+            "redis.call('expire', KEYS[1], ARGV[1]) " +
+            "elseif not redis.call('set', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then return -3 end " +
+            "return 1";
+
+    /**
+     * Lua 脚本：清除已秒杀标记
+     * <p>
+     * KEYS[1] 已秒杀标记 key；ARGV[1] 标记存储类型，ARGV[2] 标记成员
+     * </p>
+     */
+    private static final String UNMARK_KILLED_LUA = "local t = ARGV[1] " +
+            "if t == 'bitmap' then redis.call('setbit', KEYS[1], ARGV[2], 0) " +
+            "elseif t == 'hash' then redis.call('hdel', KEYS[1], ARGV[2]) " +
+            "else redis.call('del', KEYS[1]) end " +
+            "return 1";
+
     /**
      * 预编译脚本对象（避免每次 new）
      */
@@ -61,22 +180,50 @@ public class StockCacheServiceImpl implements StockCacheService {
             Long.class);
     private static final DefaultRedisScript<Long> ROLLBACK_SCRIPT = new DefaultRedisScript<>(ROLLBACK_STOCK_LUA,
             Long.class);
+    private static final DefaultRedisScript<Long> ADMIT_SCRIPT = new DefaultRedisScript<>(ADMIT_SECKILL_LUA,
+            Long.class);
+    private static final DefaultRedisScript<Long> REVOKE_SCRIPT = new DefaultRedisScript<>(REVOKE_SECKILL_LUA,
+            Long.class);
+    private static final DefaultRedisScript<Long> MARK_KILLED_SCRIPT = new DefaultRedisScript<>(MARK_KILLED_LUA,
+            Long.class);
+    private static final DefaultRedisScript<Long> UNMARK_KILLED_SCRIPT = new DefaultRedisScript<>(UNMARK_KILLED_LUA,
+            Long.class);
 
     @Override
     public void initStock(Long goodsId, Integer stockCount) {
-        String key = RedisKeyConstants.stockKey(goodsId);
-        redisTemplate.opsForValue().set(
-                key,
-                String.valueOf(stockCount),
-                RedisKeyConstants.STOCK_EXPIRE_SECONDS,
-                TimeUnit.SECONDS);
-        log.info("初始化商品库存到 Redis - goodsId: {}, stock: {}", goodsId, stockCount);
+        int shardCount = shardProperties.shardCount(goodsId);
+        if (shardCount > 1) {
+            initShardedStock(goodsId, stockCount, shardCount);
+        } else {
+            String key = RedisKeyConstants.stockKey(goodsId);
+            redisTemplate.opsForValue().set(
+                    key,
+                    String.valueOf(stockCount),
+                    RedisKeyConstants.STOCK_EXPIRE_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+        if (stockCount != null && stockCount > 0) {
+            soldOutFlagCache.clear(goodsId);
+        }
+        log.info("初始化商品库存到 Redis - goodsId: {}, stock: {}, shards: {}", goodsId, stockCount, shardCount);
     }
 
     @Override
     public Long deductStock(Long goodsId, Integer count) {
-        String key = RedisKeyConstants.stockKey(goodsId);
-        Long result = redisTemplate.execute(DEDUCT_SCRIPT, Collections.singletonList(key), count.toString());
+        return deductStock(goodsId, null, count);
+    }
+
+    @Override
+    public Long deductStock(Long goodsId, Long userId, Integer count) {
+        Long result;
+        if (isLeased(goodsId)) {
+            result = deductFromLease(goodsId, count);
+        } else if (isBatched(goodsId)) {
+            result = awaitBatchResult(goodsId, count, deductStockAsync(goodsId, userId, count));
+        } else {
+            result = deductOnShards(goodsId, userId, count,
+                    key -> redisTemplate.execute(DEDUCT_SCRIPT, Collections.singletonList(key), count.toString()));
+        }
 
         // 使用 Optional 处理日志
         Optional.ofNullable(result).ifPresent(r -> {
@@ -92,27 +239,197 @@ public class StockCacheServiceImpl implements StockCacheService {
         return result;
     }
 
+    @Override
+    public CompletableFuture<Long> deductStockAsync(Long goodsId, Long userId, Integer count) {
+        if (!isBatched(goodsId)) {
+            return CompletableFuture.completedFuture(deductStock(goodsId, userId, count));
+        }
+        return stockDeductBatcher.submit(goodsId, count)
+                .thenApply(result -> {
+                    refreshSoldOutFlag(goodsId, count, result);
+                    return result;
+                });
+    }
+
     @Override
     public Long rollbackStock(Long goodsId, Integer count) {
-        String key = RedisKeyConstants.stockKey(goodsId);
+        String key = restockKey(goodsId, null);
         Long result = redisTemplate.execute(ROLLBACK_SCRIPT, Collections.singletonList(key), count.toString());
 
         Optional.ofNullable(result)
                 .filter(r -> r >= 0)
                 .ifPresent(r -> log.info("Redis 库存回滚成功 - goodsId: {}, count: {}, current: {}",
                         goodsId, count, r));
+        clearSoldOutFlagIfRestocked(goodsId, result);
 
         return result;
     }
 
+    @Override
+    public Map<Long, Integer> rollbackStockBatch(List<StockRollbackItem> items) {
+        byte[] expire = bytes(String.valueOf(RedisKeyConstants.STOCK_ROLLBACK_DONE_EXPIRE_SECONDS));
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            items.forEach(item -> {
+                // 分片按订单号选择，重试时回补到同一分片并命中同一幂等标记
+                String stockKey = restockKey(item.getGoodsId(), item.getOrderNo());
+                connection.scriptingCommands().eval(ROLLBACK_ONCE_SCRIPT, ReturnType.INTEGER, 2,
+                        bytes(stockKey),
+                        bytes(RedisKeyConstants.stockRollbackDoneKey(stockKey, item.getOrderNo())),
+                        bytes(item.getCount().toString()),
+                        expire);
+            });
+            return null;
+        });
+
+        Map<Long, Integer> applied = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            StockRollbackItem item = items.get(i);
+            Long result = (Long) results.get(i);
+            if (result != null && result == -3) {
+                log.info("订单库存已回滚过，跳过 - orderNo: {}, goodsId: {}", item.getOrderNo(), item.getGoodsId());
+                continue;
+            }
+            applied.merge(item.getGoodsId(), item.getCount(), Integer::sum);
+            clearSoldOutFlagIfRestocked(item.getGoodsId(), result);
+        }
+        log.info("Redis 库存批量回滚完成 - items: {}, applied: {}", items.size(), applied);
+        return applied;
+    }
+
+    @Override
+    public Long admitSeckill(Long goodsId, Long userId, Integer count) {
+        String killedKey = killedMarkStore.storeKey(goodsId, userId);
+        String storeType = killedMarkStore.type().code();
+        String member = killedMarkStore.member(userId);
+        Long result = shardProperties.shardCount(goodsId) <= 1
+                ? deductOnShards(goodsId, userId, count,
+                        key -> redisTemplate.execute(ADMIT_SCRIPT, Arrays.asList(key, killedKey),
+                                count.toString(), String.valueOf(RedisKeyConstants.KILLED_EXPIRE_SECONDS),
+                                storeType, member))
+                : admitOnShards(goodsId, userId, count, killedKey, storeType, member);
+
+        Optional.ofNullable(result).ifPresent(r -> {
+            if (r >= 0) {
+                log.debug("秒杀准入成功 - goodsId: {}, userId: {}, remaining: {}", goodsId, userId, r);
+            } else if (r == -1) {
+                log.warn("Redis 库存不足 - goodsId: {}, count: {}", goodsId, count);
+            } else if (r == -2) {
+                log.warn("Redis 库存未初始化 - goodsId: {}", goodsId);
+            } else if (r == -3) {
+                log.warn("用户已秒杀过该商品 - userId: {}, goodsId: {}", userId, goodsId);
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public Long revokeSeckill(Long goodsId, Long userId, Integer count) {
+        String stockKey = restockKey(goodsId, userId);
+        String killedKey = killedMarkStore.storeKey(goodsId, userId);
+        String storeType = killedMarkStore.type().code();
+        String member = killedMarkStore.member(userId);
+        Long result;
+        if (shardProperties.shardCount(goodsId) <= 1) {
+            result = redisTemplate.execute(REVOKE_SCRIPT, Arrays.asList(stockKey, killedKey),
+                    count.toString(), storeType, member);
+        } else {
+            // 分片 key 与标记 key 不同槽位，分两次调用：先清标记再回补分片
+            redisTemplate.execute(UNMARK_KILLED_SCRIPT, Collections.singletonList(killedKey), storeType, member);
+            result = redisTemplate.execute(ROLLBACK_SCRIPT, Collections.singletonList(stockKey), count.toString());
+        }
+        clearSoldOutFlagIfRestocked(goodsId, result);
+
+        log.info("撤销秒杀准入 - goodsId: {}, userId: {}, count: {}, current: {}", goodsId, userId, count, result);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Long> admitSeckillAsync(Long goodsId, Long userId, Integer count) {
+        String expire = String.valueOf(RedisKeyConstants.KILLED_EXPIRE_SECONDS);
+        String storeType = killedMarkStore.type().code();
+        String member = killedMarkStore.member(userId);
+        String killedKey = killedMarkStore.storeKey(goodsId, userId);
+
+        int shardCount = shardProperties.shardCount(goodsId);
+        if (shardCount <= 1) {
+            return executeAsync(ADMIT_SCRIPT, Arrays.asList(RedisKeyConstants.stockKey(goodsId), killedKey),
+                    count.toString(), expire, storeType, member)
+                    .thenApply(result -> {
+                        refreshSoldOutFlag(goodsId, count, result);
+                        return result;
+                    });
+        }
+
+        // 分片商品：先占用已秒杀标记，再扣减分片，扣减失败时释放标记
+        return executeAsync(MARK_KILLED_SCRIPT, Collections.singletonList(killedKey), expire, storeType, member)
+                .thenCompose(marked -> {
+                    if (marked == null || marked < 0) {
+                        return CompletableFuture.completedFuture(marked);
+                    }
+                    return deductOnShardsAsync(goodsId, count,
+                            key -> executeAsync(DEDUCT_SCRIPT, Collections.singletonList(key), count.toString()),
+                            startShard(userId, shardCount), 0, shardCount)
+                            .handle((result, error) -> {
+                                if (error == null && result != null && result >= 0) {
+                                    return CompletableFuture.completedFuture(result);
+                                }
+                                return executeAsync(UNMARK_KILLED_SCRIPT, Collections.singletonList(killedKey),
+                                        storeType, member)
+                                        .handle((ignored, unmarkError) -> {
+                                            if (unmarkError != null) {
+                                                log.warn("释放已秒杀标记失败 - goodsId: {}, userId: {}", goodsId, userId,
+                                                        unmarkError);
+                                            }
+                                            if (error != null) {
+                                                throw error instanceof CompletionException
+                                                        ? (CompletionException) error
+                                                        : new CompletionException(error);
+                                            }
+                                            return result;
+                                        });
+                            })
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    @Override
+    public CompletableFuture<Long> revokeSeckillAsync(Long goodsId, Long userId, Integer count) {
+        String stockKey = restockKey(goodsId, userId);
+        String killedKey = killedMarkStore.storeKey(goodsId, userId);
+        String storeType = killedMarkStore.type().code();
+        String member = killedMarkStore.member(userId);
+
+        CompletableFuture<Long> revoked = shardProperties.shardCount(goodsId) <= 1
+                ? executeAsync(REVOKE_SCRIPT, Arrays.asList(stockKey, killedKey), count.toString(), storeType, member)
+                : executeAsync(UNMARK_KILLED_SCRIPT, Collections.singletonList(killedKey), storeType, member)
+                        .thenCompose(ignored -> executeAsync(ROLLBACK_SCRIPT, Collections.singletonList(stockKey),
+                                count.toString()));
+        return revoked
+                .thenApply(result -> {
+                    clearSoldOutFlagIfRestocked(goodsId, result);
+                    log.info("撤销秒杀准入 - goodsId: {}, userId: {}, count: {}, current: {}",
+                            goodsId, userId, count, result);
+                    return result;
+                });
+    }
+
     @Override
     public Long getStock(Long goodsId) {
+        int shardCount = shardProperties.shardCount(goodsId);
+        if (shardCount > 1) {
+            return getShardedStock(goodsId, shardCount);
+        }
+
         String key = RedisKeyConstants.stockKey(goodsId);
 
         // 使用 Optional 优雅处理空值和转换
-        return Optional.ofNullable(redisTemplate.opsForValue().get(key))
+        Long stock = Optional.ofNullable(redisTemplate.opsForValue().get(key))
                 .map(Long::parseLong)
                 .orElse(null);
+
+        // 租约模式下各实例持有的未售租约也计入库存
+        return stock != null && isLeased(goodsId) ? stock + stockLeaseManager.leasedAmount(goodsId) : stock;
     }
 
     @Override
@@ -123,10 +440,258 @@ public class StockCacheServiceImpl implements StockCacheService {
                 .isPresent();
     }
 
+    @Override
+    public boolean isSoldOut(Long goodsId) {
+        return soldOutFlagCache.isSoldOut(goodsId);
+    }
+
     @Override
     public void deleteStock(Long goodsId) {
-        String key = RedisKeyConstants.stockKey(goodsId);
-        redisTemplate.delete(key);
+        int shardCount = shardProperties.shardCount(goodsId);
+        if (shardCount > 1) {
+            List<String> keys = new ArrayList<>(shardKeys(goodsId, shardCount));
+            keys.add(RedisKeyConstants.stockKey(goodsId));
+            redisTemplate.delete(keys);
+        } else {
+            String key = RedisKeyConstants.stockKey(goodsId);
+            redisTemplate.delete(key);
+        }
         log.info("删除商品库存缓存 - goodsId: {}", goodsId);
     }
+
+    // ==================== 库存租约 ====================
+
+    /**
+     * 是否走本地租约扣减（租约模式仅作用于未分片商品）
+     */
+    private boolean isLeased(Long goodsId) {
+        return stockLeaseManager.isEnabled() && shardProperties.shardCount(goodsId) <= 1;
+    }
+
+    /**
+     * 从本地租约扣减
+     * <p>
+     * 售罄标记会广播到所有实例，本地租约用尽时还需确认库存 key 与租约登记均无剩余才标记
+     * </p>
+     */
+    private Long deductFromLease(Long goodsId, Integer count) {
+        Long result = stockLeaseManager.deduct(goodsId, count);
+        if (result != null && result == -1 && count == 1 && stockLeaseManager.isDepleted(goodsId)) {
+            soldOutFlagCache.markSoldOut(goodsId);
+        }
+        return result;
+    }
+
+    // ==================== 微批扣减 ====================
+
+    /**
+     * 是否走微批扣减（仅作用于未分片商品）
+     */
+    private boolean isBatched(Long goodsId) {
+        return stockDeductBatcher.isEnabled() && shardProperties.shardCount(goodsId) <= 1;
+    }
+
+    /**
+     * 同步等待微批扣减结果
+     * <p>
+     * 等待超时后扣减仍可能在批次中生效，此时登记回调：一旦扣减成功立即回滚，避免库存泄漏
+     * </p>
+     */
+    private Long awaitBatchResult(Long goodsId, Integer count, CompletableFuture<Long> future) {
+        try {
+            return future.get(batchAwaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.thenAccept(result -> {
+                if (result != null && result >= 0) {
+                    rollbackStock(goodsId, count);
+                }
+            });
+            throw new IllegalStateException("库存微批扣减超时 - goodsId: " + goodsId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("库存微批扣减被中断 - goodsId: " + goodsId, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("库存微批扣减失败 - goodsId: " + goodsId, e.getCause());
+        }
+    }
+
+    // ==================== 分片库存 ====================
+
+    /**
+     * 在库存分片上执行扣减
+     * <p>
+     * 未分片商品直接操作主库存 key；分片商品按用户哈希选择起始分片，
+     * 分片库存不足（-1）时依次尝试兄弟分片，其余结果（成功、未初始化、已秒杀）立即返回。
+     * 注意：单个分片无法满足多件购买时不会跨分片拼凑，热点商品建议限购单件
+     * </p>
+     *
+     * @param deductOnKey 在指定库存 key 上执行的扣减脚本
+     */
+    private Long deductOnShards(Long goodsId, Long userId, Integer count, Function<String, Long> deductOnKey) {
+        int shardCount = shardProperties.shardCount(goodsId);
+        if (shardCount <= 1) {
+            Long result = deductOnKey.apply(RedisKeyConstants.stockKey(goodsId));
+            refreshSoldOutFlag(goodsId, count, result);
+            return result;
+        }
+
+        int start = startShard(userId, shardCount);
+        Long result = -1L;
+        for (int i = 0; i < shardCount && result != null && result == -1; i++) {
+            result = deductOnKey.apply(RedisKeyConstants.stockShardKey(goodsId, (start + i) % shardCount));
+        }
+
+        // 单个分片剩余 0 不代表售罄，只有全部分片不足才标记
+        if (result != null && result == -1 && count == 1) {
+            soldOutFlagCache.markSoldOut(goodsId);
+        }
+        return result;
+    }
+
+    /**
+     * 在库存分片上异步执行扣减，分片不足时依次尝试兄弟分片
+     */
+    private CompletableFuture<Long> deductOnShardsAsync(Long goodsId, Integer count,
+                                                        Function<String, CompletableFuture<Long>> deductOnKey,
+                                                        int start, int attempt, int shardCount) {
+        String key = RedisKeyConstants.stockShardKey(goodsId, (start + attempt) % shardCount);
+        return deductOnKey.apply(key).thenCompose(result -> {
+            boolean insufficient = result != null && result == -1;
+            if (insufficient && attempt + 1 < shardCount) {
+                return deductOnShardsAsync(goodsId, count, deductOnKey, start, attempt + 1, shardCount);
+            }
+            if (insufficient && count == 1) {
+                soldOutFlagCache.markSoldOut(goodsId);
+            }
+            return CompletableFuture.completedFuture(result);
+        });
+    }
+
+    /**
+     * 分片商品的秒杀准入
+     * <p>
+     * 分片 key 与已秒杀标记 key 不在同一槽位，Redis Cluster 下不能在同一脚本中访问：
+     * 先占用已秒杀标记，再依次扣减分片，全部分片扣减失败时释放标记。
+     * 两步之间宕机只会留下没有扣减库存的标记（少卖不超卖）
+     * </p>
+     */
+    private Long admitOnShards(Long goodsId, Long userId, Integer count,
+                               String killedKey, String storeType, String member) {
+        Long marked = redisTemplate.execute(MARK_KILLED_SCRIPT, Collections.singletonList(killedKey),
+                String.valueOf(RedisKeyConstants.KILLED_EXPIRE_SECONDS), storeType, member);
+        if (marked == null || marked < 0) {
+            return marked;
+        }
+
+        Long result = null;
+        try {
+            result = deductOnShards(goodsId, userId, count,
+                    key -> redisTemplate.execute(DEDUCT_SCRIPT, Collections.singletonList(key), count.toString()));
+            return result;
+        } finally {
+            if (result == null || result < 0) {
+                redisTemplate.execute(UNMARK_KILLED_SCRIPT, Collections.singletonList(killedKey), storeType, member);
+            }
+        }
+    }
+
+    /**
+     * 通过响应式客户端执行脚本
+     */
+    private CompletableFuture<Long> executeAsync(DefaultRedisScript<Long> script, List<String> keys, String... args) {
+        return reactiveRedisTemplate.execute(script, keys, Arrays.asList(args))
+                .next()
+                .toFuture();
+    }
+
+    /**
+     * 库存回补使用的 key（分片商品按路由值哈希选择分片，路由值为空时随机选择）
+     *
+     * @param routeId 路由值：用户ID或订单号
+     */
+    private String restockKey(Long goodsId, Long routeId) {
+        int shardCount = shardProperties.shardCount(goodsId);
+        if (shardCount <= 1) {
+            return RedisKeyConstants.stockKey(goodsId);
+        }
+        return RedisKeyConstants.stockShardKey(goodsId, startShard(routeId, shardCount));
+    }
+
+    private int startShard(Long userId, int shardCount) {
+        return Optional.ofNullable(userId)
+                .map(id -> Math.floorMod(id.hashCode(), shardCount))
+                .orElseGet(() -> ThreadLocalRandom.current().nextInt(shardCount));
+    }
+
+    /**
+     * 初始化分片库存：平均拆分，余数分配给前几个分片
+     */
+    private void initShardedStock(Long goodsId, Integer stockCount, int shardCount) {
+        int total = Optional.ofNullable(stockCount).orElse(0);
+        int base = total / shardCount;
+        int remainder = total % shardCount;
+
+        for (int i = 0; i < shardCount; i++) {
+            int shardStock = base + (i < remainder ? 1 : 0);
+            redisTemplate.opsForValue().set(
+                    RedisKeyConstants.stockShardKey(goodsId, i),
+                    String.valueOf(shardStock),
+                    RedisKeyConstants.STOCK_EXPIRE_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+        // 清理未分片时遗留的主库存 key，避免两套计数并存
+        redisTemplate.delete(RedisKeyConstants.stockKey(goodsId));
+    }
+
+    /**
+     * 汇总分片库存，全部分片未初始化时返回 null
+     */
+    private Long getShardedStock(Long goodsId, int shardCount) {
+        List<String> values = redisTemplate.opsForValue().multiGet(shardKeys(goodsId, shardCount));
+        if (values == null || values.stream().allMatch(Objects::isNull)) {
+            return null;
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::parseLong)
+                .sum();
+    }
+
+    private List<String> shardKeys(Long goodsId, int shardCount) {
+        return IntStream.range(0, shardCount)
+                .mapToObj(i -> RedisKeyConstants.stockShardKey(goodsId, i))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 根据扣减结果刷新售罄标记
+     * <p>
+     * 扣减后剩余 0，或单件扣减返回库存不足，即可判定售罄；
+     * 多件扣减不足时剩余库存可能仍可满足单件请求，不做标记
+     * </p>
+     */
+    private void refreshSoldOutFlag(Long goodsId, Integer count, Long result) {
+        if (result == null) {
+            return;
+        }
+        if (result == 0 || (result == -1 && count == 1)) {
+            soldOutFlagCache.markSoldOut(goodsId);
+        }
+    }
+
+    /**
+     * 库存回补后清除售罄标记
+     */
+    private void clearSoldOutFlagIfRestocked(Long goodsId, Long result) {
+        if (result != null && result > 0) {
+            soldOutFlagCache.clear(goodsId);
+        }
+    }
+
+    /**
+     * 脚本参数按 UTF-8 编码（管道内直接调用连接，不经过模板的序列化器）
+     */
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,13 @@
+-- ============================================================================
+-- Flyway Migration: V3__add_stock_log_rollback_unique_key.sql
+-- 描述: 库存流水表按 (订单号, 变更类型) 唯一，作为订单库存回滚的幂等记录
+-- 作者: seckill
+-- 时间: 2026-10-16
+-- ============================================================================
+
+-- 1. 回滚流水与库存 UPDATE 在同一事务中写入，重复回滚同一订单时唯一键冲突
+--    order_no 为 NULL 的历史流水不受唯一键约束
+ALTER TABLE stock_log ADD UNIQUE KEY `uk_order_no_change_type` (`order_no`, `change_type`);
+
+-- 2. 唯一键已覆盖按订单号查询，删除冗余的普通索引
+ALTER TABLE stock_log DROP INDEX `idx_order_no`;
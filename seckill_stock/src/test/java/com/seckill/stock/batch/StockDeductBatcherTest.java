@@ -0,0 +1,110 @@
+package com.seckill.stock.batch;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 库存扣减微批处理单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("库存扣减微批处理单元测试")
+class StockDeductBatcherTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @InjectMocks
+    private StockDeductBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(batcher, "deductMode", "batch");
+        // 凑满 4 个请求立即刷出；窗口足够长，保证测试中的请求落在同一批
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 4);
+        ReflectionTestUtils.setField(batcher, "windowMicros", 5_000_000L);
+        ReflectionTestUtils.setField(batcher, "queueCapacity", 16);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    @DisplayName("同一批按商品合并为一次脚本调用，结果按到达顺序分发给各调用方")
+    @SuppressWarnings("unchecked")
+    void testSubmit_BatchFlush() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(RedisKeyConstants.stockKey(1L))),
+                any(Object[].class))).thenReturn(List.of(9L, 7L, -1L));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(RedisKeyConstants.stockKey(2L))),
+                any(Object[].class))).thenReturn(List.of(-2L));
+
+        CompletableFuture<Long> first = batcher.submit(1L, 1);
+        CompletableFuture<Long> second = batcher.submit(1L, 2);
+        CompletableFuture<Long> other = batcher.submit(2L, 1);
+        CompletableFuture<Long> third = batcher.submit(1L, 10);
+
+        assertEquals(9L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(7L, second.get(5, TimeUnit.SECONDS));
+        assertEquals(-1L, third.get(5, TimeUnit.SECONDS));
+        assertEquals(-2L, other.get(5, TimeUnit.SECONDS));
+
+        // 商品 1 的三个请求合并为一次调用，参数保持到达顺序
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(RedisKeyConstants.stockKey(1L))),
+                eq("1"), eq("2"), eq("10"));
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("脚本执行失败时同一商品的调用方全部收到异常")
+    @SuppressWarnings("unchecked")
+    void testSubmit_ScriptFailure() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("Redis 不可用"));
+
+        List<CompletableFuture<Long>> futures = List.of(batcher.submit(1L, 1), batcher.submit(1L, 1),
+                batcher.submit(1L, 1), batcher.submit(1L, 1));
+
+        futures.forEach(future -> {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RedisConnectionFailureException.class, e.getCause());
+        });
+    }
+
+    @Test
+    @DisplayName("停止后提交的请求被拒绝")
+    void testSubmit_AfterStop() {
+        batcher.stop();
+
+        CompletableFuture<Long> future = batcher.submit(1L, 1);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,107 @@
+package com.seckill.stock.benchmark;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已秒杀标记存储内存对比测试
+ * <p>
+ * 分别以字符串 key、位图、哈希三种方式写入 1M / 10M 个用户的已秒杀标记，
+ * 通过 INFO memory 的 used_memory 差值对比内存占用。需连接本地 Redis 手动运行，
+ * 测试数据写入独立的商品ID并在结束后清理。
+ * </p>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+public class KilledMarkMemoryBenchmark {
+
+    private static final String REDIS_URI = "redis://root@localhost:6379/15";
+    private static final int[] USER_COUNTS = {1_000_000, 10_000_000};
+    private static final int PIPELINE_BATCH = 10_000;
+    private static final long BENCHMARK_GOODS_ID = 900_000_001L;
+
+    public static void main(String[] args) throws Exception {
+        RedisClient client = RedisClient.create(REDIS_URI);
+        try (StatefulRedisConnection<String, String> connection = client.connect()) {
+            RedisCommands<String, String> sync = connection.sync();
+
+            System.out.println("╔════════════════════════════════════════════════════════╗");
+            System.out.println("║            已秒杀标记存储内存对比测试                    ║");
+            System.out.println("╚════════════════════════════════════════════════════════╝");
+            System.out.printf("%-10s %-10s %15s %15s%n", "用户数", "存储类型", "内存占用(MB)", "每用户(字节)");
+
+            for (int users : USER_COUNTS) {
+                report(users, "string", measure(connection, users, "string"));
+                report(users, "bitmap", measure(connection, users, "bitmap"));
+                report(users, "hash", measure(connection, users, "hash"));
+            }
+            sync.flushdb();
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static long measure(StatefulRedisConnection<String, String> connection, int users, String type)
+            throws Exception {
+        RedisCommands<String, String> sync = connection.sync();
+        sync.flushdb();
+        long before = usedMemory(sync);
+
+        RedisAsyncCommands<String, String> async = connection.async();
+        connection.setAutoFlushCommands(false);
+        List<RedisFuture<?>> futures = new ArrayList<>(PIPELINE_BATCH);
+
+        String bitmapKey = RedisKeyConstants.killedBitmapKey(BENCHMARK_GOODS_ID);
+        String hashKey = RedisKeyConstants.killedHashKey(BENCHMARK_GOODS_ID);
+        for (long userId = 1; userId <= users; userId++) {
+            switch (type) {
+                case "bitmap" -> futures.add(async.setbit(bitmapKey, userId, 1));
+                case "hash" -> futures.add(async.hset(hashKey, String.valueOf(userId), "1"));
+                default -> futures.add(async.setex(RedisKeyConstants.killedKey(BENCHMARK_GOODS_ID, userId),
+                        RedisKeyConstants.KILLED_EXPIRE_SECONDS, "1"));
+            }
+            if (futures.size() == PIPELINE_BATCH) {
+                flush(connection, futures);
+            }
+        }
+        flush(connection, futures);
+        connection.setAutoFlushCommands(true);
+
+        if (!"string".equals(type)) {
+            sync.expire("bitmap".equals(type) ? bitmapKey : hashKey, RedisKeyConstants.KILLED_EXPIRE_SECONDS);
+        }
+        long after = usedMemory(sync);
+        sync.flushdb();
+        return after - before;
+    }
+
+    private static void flush(StatefulRedisConnection<String, String> connection, List<RedisFuture<?>> futures)
+            throws Exception {
+        connection.flushCommands();
+        for (RedisFuture<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        futures.clear();
+    }
+
+    private static long usedMemory(RedisCommands<String, String> sync) {
+        return sync.info("memory").lines()
+                .filter(line -> line.startsWith("used_memory:"))
+                .map(line -> Long.parseLong(line.substring("used_memory:".length()).trim()))
+                .findFirst()
+                .orElse(0L);
+    }
+
+    private static void report(int users, String type, long bytes) {
+        System.out.printf("%-10d %-10s %15.2f %15.2f%n", users, type, bytes / 1024.0 / 1024.0, (double) bytes / users);
+    }
+}
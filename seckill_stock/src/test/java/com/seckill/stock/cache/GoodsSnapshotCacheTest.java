@@ -0,0 +1,100 @@
+package com.seckill.stock.cache;
+
+import com.seckill.stock.entity.SeckillGoods;
+import com.seckill.stock.mapper.GoodsMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品快照本地缓存单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("商品快照本地缓存单元测试")
+class GoodsSnapshotCacheTest {
+
+    private static final Long GOODS_ID = 1L;
+
+    @Mock
+    private GoodsMapper goodsMapper;
+
+    @InjectMocks
+    private GoodsSnapshotCache goodsSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(goodsSnapshotCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(goodsSnapshotCache, "ttlSeconds", 60L);
+        goodsSnapshotCache.init();
+    }
+
+    @Test
+    @DisplayName("命中缓存时不再查询数据库")
+    void testGet_CacheHit() {
+        when(goodsMapper.selectSnapshotById(GOODS_ID)).thenReturn(snapshot(100));
+
+        assertEquals(100, goodsSnapshotCache.get(GOODS_ID).map(SeckillGoods::getStockCount).orElse(null));
+        assertEquals(100, goodsSnapshotCache.get(GOODS_ID).map(SeckillGoods::getStockCount).orElse(null));
+
+        verify(goodsMapper, times(1)).selectSnapshotById(GOODS_ID);
+    }
+
+    @Test
+    @DisplayName("失效后重新加载最新快照")
+    void testInvalidate() {
+        when(goodsMapper.selectSnapshotById(GOODS_ID)).thenReturn(snapshot(100), snapshot(99));
+        goodsSnapshotCache.get(GOODS_ID);
+
+        goodsSnapshotCache.invalidate(GOODS_ID);
+
+        assertEquals(99, goodsSnapshotCache.get(GOODS_ID).map(SeckillGoods::getStockCount).orElse(null));
+        verify(goodsMapper, times(2)).selectSnapshotById(GOODS_ID);
+    }
+
+    @Test
+    @DisplayName("失效只影响指定商品")
+    void testInvalidate_OtherGoodsKept() {
+        when(goodsMapper.selectSnapshotById(GOODS_ID)).thenReturn(snapshot(100));
+        when(goodsMapper.selectSnapshotById(2L)).thenReturn(snapshot(50));
+        goodsSnapshotCache.get(GOODS_ID);
+        goodsSnapshotCache.get(2L);
+
+        goodsSnapshotCache.invalidate(GOODS_ID);
+        goodsSnapshotCache.get(GOODS_ID);
+        goodsSnapshotCache.get(2L);
+
+        verify(goodsMapper, times(2)).selectSnapshotById(GOODS_ID);
+        verify(goodsMapper, times(1)).selectSnapshotById(2L);
+    }
+
+    @Test
+    @DisplayName("不存在的商品同样缓存，失效前不再穿透数据库")
+    void testGet_MissingGoodsCached() {
+        when(goodsMapper.selectSnapshotById(999L)).thenReturn(null);
+
+        assertEquals(Optional.empty(), goodsSnapshotCache.get(999L));
+        assertEquals(Optional.empty(), goodsSnapshotCache.get(999L));
+
+        verify(goodsMapper, times(1)).selectSnapshotById(999L);
+    }
+
+    private static SeckillGoods snapshot(int stock) {
+        SeckillGoods goods = new SeckillGoods();
+        goods.setId(GOODS_ID);
+        goods.setStockCount(stock);
+        return goods;
+    }
+}
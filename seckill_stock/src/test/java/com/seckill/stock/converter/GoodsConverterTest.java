@@ -0,0 +1,75 @@
+package com.seckill.stock.converter;
+
+import com.seckill.common.constant.GoodsStatus;
+import com.seckill.stock.entity.SeckillGoods;
+import com.seckill.stock.vo.GoodsVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品 VO 转换器单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("商品VO转换器单元测试")
+public class GoodsConverterTest {
+
+    private final GoodsConverter converter = Mappers.getMapper(GoodsConverter.class);
+
+    @Test
+    @DisplayName("字段拷贝与派生字段")
+    void testToVO() {
+        SeckillGoods goods = new SeckillGoods();
+        goods.setId(1L);
+        goods.setGoodsName("测试商品");
+        goods.setGoodsPrice(new BigDecimal("199.00"));
+        goods.setSeckillPrice(new BigDecimal("99.00"));
+        goods.setStockCount(10);
+        goods.setStartTime(LocalDateTime.now());
+        goods.setStatus(GoodsStatus.ONGOING);
+
+        GoodsVO vo = converter.toVO(goods);
+
+        assertEquals(1L, vo.getId());
+        assertEquals("测试商品", vo.getGoodsName());
+        assertEquals(goods.getStartTime(), vo.getStartTime());
+        assertEquals("进行中", vo.getStatusDesc());
+        assertEquals(50, vo.getDiscountPercent());
+    }
+
+    @Test
+    @DisplayName("折扣百分比与 BigDecimal HALF_UP 结果一致")
+    void testDiscountPercentMatchesBigDecimal() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal goodsPrice = BigDecimal.valueOf(random.nextLong(1, 10_000_000), 2);
+            BigDecimal seckillPrice = BigDecimal.valueOf(random.nextLong(0, 10_000_000), 2);
+            int expected = seckillPrice.multiply(BigDecimal.valueOf(100))
+                    .divide(goodsPrice, 0, RoundingMode.HALF_UP)
+                    .intValue();
+            assertEquals(expected, converter.discountPercent(seckillPrice, goodsPrice),
+                    seckillPrice + " / " + goodsPrice);
+        }
+        // 标度不同时回退到 BigDecimal 计算
+        assertEquals(33, converter.discountPercent(new BigDecimal("1"), new BigDecimal("3.00")));
+    }
+
+    @Test
+    @DisplayName("价格缺失或状态未知")
+    void testMissingValues() {
+        assertNull(converter.discountPercent(null, BigDecimal.TEN));
+        assertNull(converter.discountPercent(BigDecimal.ONE, BigDecimal.ZERO));
+        assertEquals("未知", converter.statusDesc(null));
+        assertEquals("未知", converter.statusDesc(99));
+        assertEquals("已下架", converter.statusDesc(GoodsStatus.OFF_SHELF));
+    }
+}
@@ -0,0 +1,179 @@
+package com.seckill.stock.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 秒杀预写日志恢复测试
+ * <p>
+ * 测试重点：
+ * </p>
+ * <ul>
+ * <li>重启后只重放未 ACK 的条目</li>
+ * <li>段轮转与压缩后条目不丢失</li>
+ * <li>写入进程被强制杀死后，已确认刷盘的条目全部可恢复</li>
+ * </ul>
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@DisplayName("秒杀预写日志恢复测试")
+public class SeckillJournalRecoveryTest {
+
+    private static final int SMALL_SEGMENT = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("重启后只重放未ACK的条目")
+    void testReplayUnacked() throws Exception {
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT, 0)) {
+            for (int i = 1; i <= 10; i++) {
+                long seq = journal.append(payload(i));
+                if (i % 3 == 0) {
+                    journal.ack(seq);
+                }
+            }
+            journal.sync();
+        }
+
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT, 0)) {
+            assertEquals(List.of(1L, 2L, 4L, 5L, 7L, 8L, 10L), journal.pendingSeqs());
+            assertArrayEquals(payload(4), journal.payload(4L));
+            // 序号在重启后继续递增
+            assertEquals(11L, journal.append(payload(11)));
+        }
+    }
+
+    @Test
+    @DisplayName("撤销的条目在重启后不重放")
+    void testRevoke() throws Exception {
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT, 0)) {
+            long first = journal.append(payload(1));
+            long second = journal.append(payload(2));
+            journal.sync();
+
+            // 撤销自行刷盘，不依赖后续的 sync
+            journal.revoke(second);
+            assertFalse(journal.isPending(second));
+            assertTrue(journal.isPending(first));
+            // 重复撤销无副作用
+            journal.revoke(second);
+        }
+
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT, 0)) {
+            assertEquals(List.of(1L), journal.pendingSeqs());
+        }
+    }
+
+    @Test
+    @DisplayName("段轮转与压缩")
+    void testRotateAndCompact() throws Exception {
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT, 2)) {
+            for (int i = 1; i <= 500; i++) {
+                journal.append(payload(i));
+            }
+            int segments = journal.segmentCount();
+            assertTrue(segments > 3, "应发生多次轮转");
+
+            // 只留下第 1、2 条未投递，压缩时它们被重写到当前段
+            journal.pendingSeqs().stream().filter(seq -> seq > 2).forEach(journal::ack);
+            assertTrue(journal.compact() > 0);
+            assertEquals(1, journal.segmentCount());
+            journal.sync();
+        }
+
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT, 2)) {
+            assertEquals(List.of(1L, 2L), journal.pendingSeqs());
+            assertArrayEquals(payload(2), journal.payload(2L));
+        }
+    }
+
+    @Test
+    @DisplayName("写入进程被杀死后恢复")
+    void testRecoverAfterKill() throws Exception {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(javaBin, "-cp", System.getProperty("java.class.path"),
+                Writer.class.getName(), dir.toString())
+                .redirectErrorStream(false)
+                .start();
+
+        Set<Long> durable = new HashSet<>();
+        Set<Long> acked = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (durable.size() < 2000 && (line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if ("durable".equals(parts[0])) {
+                    durable.add(Long.parseLong(parts[1]));
+                } else if ("acked".equals(parts[0])) {
+                    acked.add(Long.parseLong(parts[1]));
+                }
+            }
+            // 写入仍在进行时强制杀死
+            process.destroyForcibly();
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        }
+        assertEquals(2000, durable.size(), "写入进程未正常运行");
+
+        try (SeckillJournal journal = new SeckillJournal(dir, SMALL_SEGMENT * 4, 0)) {
+            Set<Long> pending = new HashSet<>(journal.pendingSeqs());
+            for (long seq : durable) {
+                if (acked.contains(seq)) {
+                    assertFalse(pending.contains(seq), "已ACK条目不应重放: " + seq);
+                } else {
+                    assertTrue(pending.contains(seq), "已刷盘条目丢失: " + seq);
+                    assertArrayEquals(payload(seq), journal.payload(seq));
+                }
+            }
+        }
+    }
+
+    private static byte[] payload(long i) {
+        return ("{\"orderNo\":" + i + ",\"userId\":" + (1000 + i) + ",\"goodsId\":1}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 子进程：持续写入并在刷盘后输出序号，奇数序号随后 ACK
+     */
+    public static class Writer {
+
+        public static void main(String[] args) throws Exception {
+            SeckillJournal journal = new SeckillJournal(Path.of(args[0]), SMALL_SEGMENT * 4, 0);
+            for (long i = 1; ; i++) {
+                long seq = journal.append(payload(i));
+                if (i % 16 == 0) {
+                    journal.sync();
+                    System.out.println("durable " + seq);
+                    for (long s = seq - 15; s < seq; s++) {
+                        System.out.println("durable " + s);
+                    }
+                } else {
+                    continue;
+                }
+                for (long s = seq - 15; s <= seq; s++) {
+                    if (s % 2 == 1) {
+                        journal.ack(s);
+                        System.out.println("acked " + s);
+                    }
+                }
+                System.out.flush();
+            }
+        }
+    }
+}
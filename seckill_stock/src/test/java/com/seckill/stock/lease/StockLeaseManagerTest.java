@@ -0,0 +1,194 @@
+package com.seckill.stock.lease;
+
+import com.seckill.common.constant.RedisKeyConstants;
+import com.seckill.stock.cache.SoldOutFlagCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 本地库存租约单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("本地库存租约单元测试")
+class StockLeaseManagerTest {
+
+    private static final Long GOODS_ID = 1L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private SoldOutFlagCache soldOutFlagCache;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private StockLeaseManager stockLeaseManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockLeaseManager, "deductMode", "lease");
+        ReflectionTestUtils.setField(stockLeaseManager, "blockSize", 50);
+        ReflectionTestUtils.setField(stockLeaseManager, "reportStep", 10);
+        ReflectionTestUtils.setField(stockLeaseManager, "ttlSeconds", 30L);
+        stockLeaseManager.init();
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Test
+    @DisplayName("租入库存块 - 按上报步长从登记中扣除后本地售卖")
+    @SuppressWarnings("unchecked")
+    void testDeduct_Acquire() {
+        stubScript("hincrby', KEYS[2], ARGV[2], n", 50L);
+
+        assertEquals(9L, stockLeaseManager.deduct(GOODS_ID, 1));
+        assertEquals(8L, stockLeaseManager.deduct(GOODS_ID, 1));
+
+        // 只租入一次，登记按步长扣除一次
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(hashOperations).increment(eq(RedisKeyConstants.stockLeaseKey(GOODS_ID)), anyString(), eq(-10L));
+    }
+
+    @Test
+    @DisplayName("租入库存块 - 脚本只访问同槽位的库存与登记，心跳与商品集合单独写入")
+    @SuppressWarnings("unchecked")
+    void testDeduct_AcquireSingleSlot() {
+        stubScript("hincrby', KEYS[2], ARGV[2], n", 50L);
+
+        stockLeaseManager.deduct(GOODS_ID, 1);
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(Arrays.asList(RedisKeyConstants.stockKey(GOODS_ID), RedisKeyConstants.stockLeaseKey(GOODS_ID))),
+                any(Object[].class));
+        verify(valueOperations).set(startsWith(RedisKeyConstants.STOCK_LEASE_PREFIX + "heartbeat:"), eq("1"),
+                eq(30L), eq(TimeUnit.SECONDS));
+        verify(setOperations).add(RedisKeyConstants.STOCK_LEASE_GOODS_KEY, String.valueOf(GOODS_ID));
+    }
+
+    @Test
+    @DisplayName("回收租约 - 只回收心跳已过期的持有者")
+    @SuppressWarnings("unchecked")
+    void testReclaimExpiredLeases() {
+        String leaseKey = RedisKeyConstants.stockLeaseKey(GOODS_ID);
+        when(setOperations.members(RedisKeyConstants.STOCK_LEASE_GOODS_KEY))
+                .thenReturn(Set.of(String.valueOf(GOODS_ID)));
+        when(hashOperations.keys(leaseKey)).thenReturn(new LinkedHashSet<>(List.of("alive", "dead")));
+        when(redisTemplate.hasKey(RedisKeyConstants.stockLeaseHeartbeatKey("alive"))).thenReturn(true);
+        when(redisTemplate.hasKey(RedisKeyConstants.stockLeaseHeartbeatKey("dead"))).thenReturn(false);
+        stubScript("hdel', KEYS[2], ARGV[1]", 20L);
+
+        stockLeaseManager.reclaimExpiredLeases();
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(Arrays.asList(RedisKeyConstants.stockKey(GOODS_ID), leaseKey)), eq("dead"));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), eq("alive"));
+        verify(soldOutFlagCache).clear(GOODS_ID);
+    }
+
+    @Test
+    @DisplayName("库存耗尽 - 租入剩余全部后返回库存不足")
+    void testDeduct_Exhausted() {
+        stubScript("hincrby', KEYS[2], ARGV[2], n", 2L, 0L);
+
+        assertEquals(1L, stockLeaseManager.deduct(GOODS_ID, 1));
+        assertEquals(0L, stockLeaseManager.deduct(GOODS_ID, 1));
+        assertEquals(-1L, stockLeaseManager.deduct(GOODS_ID, 1));
+        verify(hashOperations).increment(eq(RedisKeyConstants.stockLeaseKey(GOODS_ID)), anyString(), eq(-2L));
+    }
+
+    @Test
+    @DisplayName("库存未初始化")
+    void testDeduct_NotInitialized() {
+        stubScript("hincrby', KEYS[2], ARGV[2], n", -2L);
+
+        assertEquals(-2L, stockLeaseManager.deduct(GOODS_ID, 1));
+    }
+
+    @Test
+    @DisplayName("停机归还 - 可售与登记中的租约全部归还")
+    @SuppressWarnings("unchecked")
+    void testReleaseAll() {
+        stubScript("hincrby', KEYS[2], ARGV[2], n", 50L);
+        stubScript("-tonumber(ARGV[2])", 49L);
+        stockLeaseManager.deduct(GOODS_ID, 1);
+
+        stockLeaseManager.releaseAll();
+
+        // 本地可售 9 + 登记中 40
+        verify(redisTemplate).execute(argThat((RedisScript<Long> script) -> script != null
+                        && script.getScriptAsString().contains("-tonumber(ARGV[2])")),
+                eq(Arrays.asList(RedisKeyConstants.stockKey(GOODS_ID), RedisKeyConstants.stockLeaseKey(GOODS_ID))),
+                eq("49"), eq("40"), anyString());
+        verify(soldOutFlagCache).clear(GOODS_ID);
+        verify(redisTemplate).delete(startsWith(RedisKeyConstants.STOCK_LEASE_PREFIX + "heartbeat:"));
+
+        // 归还后再次停机不会重复归还
+        clearInvocations(redisTemplate);
+        stockLeaseManager.releaseAll();
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("售罄判定 - 库存 key 与租约登记均无剩余")
+    @SuppressWarnings("unchecked")
+    void testIsDepleted() {
+        List<String> keys = Arrays.asList(RedisKeyConstants.stockKey(GOODS_ID),
+                RedisKeyConstants.stockLeaseKey(GOODS_ID));
+        stubScript("hvals", 0L, 1L, null);
+
+        assertFalse(stockLeaseManager.isDepleted(GOODS_ID));
+        assertTrue(stockLeaseManager.isDepleted(GOODS_ID));
+        assertFalse(stockLeaseManager.isDepleted(GOODS_ID));
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), eq(keys), any(Object[].class));
+    }
+
+    /**
+     * 按脚本内容打桩
+     */
+    @SuppressWarnings("unchecked")
+    private void stubScript(String fragment, Long first, Long... rest) {
+        when(redisTemplate.execute(argThat((RedisScript<Long> script) -> script != null
+                        && script.getScriptAsString().contains(fragment)),
+                anyList(), any(Object[].class)))
+                .thenReturn(first, rest);
+    }
+}
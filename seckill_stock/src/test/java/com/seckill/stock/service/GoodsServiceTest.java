@@ -0,0 +1,134 @@
+package com.seckill.stock.service;
+
+import com.seckill.common.dto.StockRollbackItem;
+import com.seckill.common.exception.BusinessException;
+import com.seckill.common.result.ResultCode;
+import com.seckill.stock.cache.GoodsSnapshotCache;
+import com.seckill.stock.converter.GoodsConverter;
+import com.seckill.stock.mapper.GoodsMapper;
+import com.seckill.stock.mapper.StockLogMapper;
+import com.seckill.stock.service.impl.GoodsServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品服务单元测试
+ *
+ * @author seckill
+ * @since 2.1.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("商品服务单元测试")
+class GoodsServiceTest {
+
+    @Mock
+    private GoodsMapper goodsMapper;
+
+    @Mock
+    private StockLogMapper stockLogMapper;
+
+    @Mock
+    private StockCacheService stockCacheService;
+
+    @Mock
+    private GoodsSnapshotCache goodsSnapshotCache;
+
+    @Spy
+    private GoodsConverter goodsConverter = Mappers.getMapper(GoodsConverter.class);
+
+    @InjectMocks
+    private GoodsServiceImpl goodsService;
+
+    @Test
+    @DisplayName("批量回滚库存 - 按回滚流水跳过已回滚的订单")
+    void testRollbackStockBatch_SkipLogged() {
+        when(stockLogMapper.selectRolledBackOrderNos(anyCollection())).thenReturn(List.of(1001L));
+
+        Map<Long, Integer> applied = goodsService.rollbackStockBatch(List.of(
+                new StockRollbackItem(1001L, 1L, 1),
+                new StockRollbackItem(1002L, 1L, 1),
+                new StockRollbackItem(1003L, 2L, 2)));
+
+        List<StockRollbackItem> pending = List.of(
+                new StockRollbackItem(1002L, 1L, 1),
+                new StockRollbackItem(1003L, 2L, 2));
+        assertEquals(Map.of(1L, 1, 2L, 2), applied);
+        verify(stockLogMapper).insertRollbackLogs(pending);
+        verify(goodsMapper).rollbackStock(1L, 1);
+        verify(goodsMapper).rollbackStock(2L, 2);
+        verify(stockCacheService).rollbackStockBatch(pending);
+    }
+
+    @Test
+    @DisplayName("批量回滚库存 - 全部已回滚时不做任何更新")
+    void testRollbackStockBatch_AllLogged() {
+        when(stockLogMapper.selectRolledBackOrderNos(anyCollection())).thenReturn(List.of(1001L));
+
+        Map<Long, Integer> applied = goodsService.rollbackStockBatch(List.of(new StockRollbackItem(1001L, 1L, 1)));
+
+        assertTrue(applied.isEmpty());
+        verify(stockLogMapper, never()).insertRollbackLogs(anyList());
+        verify(goodsMapper, never()).rollbackStock(anyLong(), anyInt());
+        verifyNoInteractions(stockCacheService);
+    }
+
+    @Test
+    @DisplayName("批量回滚库存 - 空列表直接返回，不查询回滚流水")
+    void testRollbackStockBatch_Empty() {
+        assertTrue(goodsService.rollbackStockBatch(List.of()).isEmpty());
+
+        verifyNoInteractions(stockLogMapper, goodsMapper, stockCacheService);
+    }
+
+    @Test
+    @DisplayName("批量回滚库存 - 请求体或条目为空时拒绝")
+    void testRollbackStockBatch_NullRejected() {
+        BusinessException nullBody = assertThrows(BusinessException.class,
+                () -> goodsService.rollbackStockBatch(null));
+        BusinessException nullItem = assertThrows(BusinessException.class,
+                () -> goodsService.rollbackStockBatch(Arrays.asList(new StockRollbackItem(1001L, 1L, 1), null)));
+
+        assertEquals(ResultCode.BAD_REQUEST.getCode(), nullBody.getCode());
+        assertEquals(ResultCode.BAD_REQUEST.getCode(), nullItem.getCode());
+        verifyNoInteractions(stockLogMapper, goodsMapper, stockCacheService);
+    }
+
+    @Test
+    @DisplayName("批量回滚库存 - MySQL 失败后重试仍回补 MySQL")
+    void testRollbackStockBatch_RetryAfterMySQLFailure() {
+        List<StockRollbackItem> items = List.of(new StockRollbackItem(1001L, 1L, 1));
+        // 事务回滚后回滚流水不存在
+        when(stockLogMapper.selectRolledBackOrderNos(anyCollection())).thenReturn(List.of());
+        when(goodsMapper.rollbackStock(1L, 1))
+                .thenThrow(new DataAccessResourceFailureException("MySQL 不可用"))
+                .thenReturn(1);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> goodsService.rollbackStockBatch(items));
+        // MySQL 失败时 Redis 尚未回补
+        verifyNoInteractions(stockCacheService);
+
+        // 重试：即使 Redis 侧已有幂等标记（事务提交失败场景），MySQL 仍按流水回补
+        when(stockCacheService.rollbackStockBatch(items)).thenReturn(Map.of());
+        Map<Long, Integer> applied = goodsService.rollbackStockBatch(items);
+
+        assertEquals(Map.of(1L, 1), applied);
+        verify(goodsMapper, times(2)).rollbackStock(1L, 1);
+        verify(stockCacheService).rollbackStockBatch(items);
+        verify(goodsSnapshotCache).invalidate(1L);
+    }
+}
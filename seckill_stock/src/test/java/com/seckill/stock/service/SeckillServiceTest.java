@@ -1,9 +1,12 @@
 package com.seckill.stock.service;
 
 import com.seckill.common.exception.BusinessException;
-import com.seckill.common.id.DistributedIdGenerator;
+import com.seckill.common.id.IdGenerator;
+import com.seckill.common.killed.KilledMarkStore;
+import com.seckill.common.result.ResultCode;
 import com.seckill.stock.dto.SeckillRequest;
 import com.seckill.stock.entity.SeckillGoods;
+import com.seckill.stock.journal.SeckillJournalRelay;
 import com.seckill.stock.mq.SeckillMessageProducer;
 import com.seckill.stock.service.impl.SeckillServiceImpl;
 import org.junit.jupiter.api.*;
@@ -11,8 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -55,13 +57,13 @@ public class SeckillServiceTest {
     private SeckillMessageProducer messageProducer;
 
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private IdGenerator idGenerator;
 
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private KilledMarkStore killedMarkStore;
 
     @Mock
-    private DistributedIdGenerator idGenerator;
+    private SeckillJournalRelay journalRelay;
 
     @InjectMocks
     private SeckillServiceImpl seckillService;
@@ -79,8 +81,14 @@ public class SeckillServiceTest {
         testGoods.setStartTime(LocalDateTime.now().minusHours(1));
         testGoods.setEndTime(LocalDateTime.now().plusHours(1));
 
-        // 默认 Redis 模拟行为
-        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        ReflectionTestUtils.setField(seckillService, "asyncWorkerThreads", 2);
+        ReflectionTestUtils.setField(seckillService, "asyncQueueCapacity", 16);
+        seckillService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        seckillService.shutdown();
     }
 
     @Test
@@ -97,10 +105,10 @@ public class SeckillServiceTest {
 
         // Mock dependencies
         when(lockService.lockSeckill(eq(goodsId), eq(userId), anyLong())).thenReturn("lock-request-id");
-        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        when(killedMarkStore.hasKilled(anyLong(), anyLong())).thenReturn(false);
         when(goodsService.checkSeckillable(goodsId)).thenReturn(testGoods);
-        when(stockCacheService.deductStock(goodsId, 1)).thenReturn(99L);
-        when(idGenerator.nextId()).thenReturn(123456789L);
+        when(stockCacheService.deductStock(goodsId, userId, 1)).thenReturn(99L);
+        when(idGenerator.nextId(anyLong())).thenReturn(123456789L);
         doNothing().when(messageProducer).sendSeckillMessage(any(), anyLong());
         when(lockService.unlockSeckill(eq(goodsId), eq(userId), anyString())).thenReturn(true);
 
@@ -110,7 +118,7 @@ public class SeckillServiceTest {
         // Then
         assertNotNull(orderNo);
         assertEquals(123456789L, orderNo);
-        verify(stockCacheService).deductStock(goodsId, 1);
+        verify(stockCacheService).deductStock(goodsId, userId, 1);
         verify(messageProducer).sendSeckillMessage(any(), eq(123456789L));
     }
 
@@ -133,7 +141,7 @@ public class SeckillServiceTest {
                 () -> seckillService.doSeckill(request));
 
         assertTrue(exception.getMessage().contains("重复点击"));
-        verify(stockCacheService, never()).deductStock(anyLong(), anyInt());
+        verify(stockCacheService, never()).deductStock(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -148,12 +156,12 @@ public class SeckillServiceTest {
         request.setCount(1);
 
         when(lockService.lockSeckill(eq(goodsId), eq(userId), anyLong())).thenReturn("lock-id");
-        when(redisTemplate.hasKey(anyString())).thenReturn(true); // 已秒杀
+        when(killedMarkStore.hasKilled(anyLong(), anyLong())).thenReturn(true); // 已秒杀
         when(lockService.unlockSeckill(eq(goodsId), eq(userId), anyString())).thenReturn(true);
 
         // When & Then
         assertThrows(BusinessException.class, () -> seckillService.doSeckill(request));
-        verify(stockCacheService, never()).deductStock(anyLong(), anyInt());
+        verify(stockCacheService, never()).deductStock(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -168,9 +176,9 @@ public class SeckillServiceTest {
         request.setCount(1);
 
         when(lockService.lockSeckill(eq(goodsId), eq(userId), anyLong())).thenReturn("lock-id");
-        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        when(killedMarkStore.hasKilled(anyLong(), anyLong())).thenReturn(false);
         when(goodsService.checkSeckillable(goodsId)).thenReturn(testGoods);
-        when(stockCacheService.deductStock(goodsId, 1)).thenReturn(-1L); // 库存不足
+        when(stockCacheService.deductStock(goodsId, userId, 1)).thenReturn(-1L); // 库存不足
         when(lockService.unlockSeckill(eq(goodsId), eq(userId), anyString())).thenReturn(true);
 
         // When & Then
@@ -191,10 +199,10 @@ public class SeckillServiceTest {
         request.setChannel("PC");
 
         when(lockService.lockSeckill(eq(goodsId), eq(userId), anyLong())).thenReturn("lock-id");
-        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        when(killedMarkStore.hasKilled(anyLong(), anyLong())).thenReturn(false);
         when(goodsService.checkSeckillable(goodsId)).thenReturn(testGoods);
-        when(stockCacheService.deductStock(goodsId, 1)).thenReturn(99L);
-        when(idGenerator.nextId()).thenReturn(123456789L);
+        when(stockCacheService.deductStock(goodsId, userId, 1)).thenReturn(99L);
+        when(idGenerator.nextId(anyLong())).thenReturn(123456789L);
         doThrow(new RuntimeException("MQ失败")).when(messageProducer).sendSeckillMessage(any(), anyLong());
         when(stockCacheService.rollbackStock(goodsId, 1)).thenReturn(100L); // 回滚
         when(lockService.unlockSeckill(eq(goodsId), eq(userId), anyString())).thenReturn(true);
@@ -222,13 +230,13 @@ public class SeckillServiceTest {
 
         // Mock - 模拟并发库存扣减
         when(lockService.lockSeckill(anyLong(), anyLong(), anyLong())).thenAnswer(inv -> "lock-" + inv.getArgument(1));
-        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+        when(killedMarkStore.hasKilled(anyLong(), anyLong())).thenReturn(false);
         when(goodsService.checkSeckillable(anyLong())).thenReturn(testGoods);
-        when(idGenerator.nextId()).thenAnswer(inv -> System.nanoTime());
+        when(idGenerator.nextId(anyLong())).thenAnswer(inv -> System.nanoTime());
         when(lockService.unlockSeckill(anyLong(), anyLong(), anyString())).thenReturn(true);
 
         // 模拟原子库存扣减
-        when(stockCacheService.deductStock(anyLong(), anyInt())).thenAnswer(inv -> {
+        when(stockCacheService.deductStock(anyLong(), anyLong(), anyInt())).thenAnswer(inv -> {
             int current = remainingStock.getAndDecrement();
             return (long) (current - 1);
         });
@@ -267,4 +275,103 @@ public class SeckillServiceTest {
         System.out.println("成功秒杀: " + successCount.get() + ", 失败: " + failCount.get());
         assertTrue(successCount.get() <= totalStock, "成功数不应超过库存");
     }
+
+    @Test
+    @DisplayName("脚本准入模式 - 秒杀成功且不加锁")
+    void testDoSeckill_ScriptMode_Success() {
+        ReflectionTestUtils.setField(seckillService, "admissionMode", "script");
+        SeckillRequest request = new SeckillRequest();
+        request.setUserId(1001L);
+        request.setGoodsId(1L);
+        request.setCount(1);
+
+        when(goodsService.checkSeckillable(1L)).thenReturn(testGoods);
+        when(stockCacheService.admitSeckill(1L, 1001L, 1)).thenReturn(99L);
+        when(idGenerator.nextId(anyLong())).thenReturn(123456789L);
+
+        Long orderNo = seckillService.doSeckill(request);
+
+        assertEquals(123456789L, orderNo);
+        verifyNoInteractions(lockService);
+        verify(killedMarkStore, never()).hasKilled(anyLong(), anyLong());
+        verify(stockCacheService, never()).deductStock(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("脚本准入模式 - 重复秒杀")
+    void testDoSeckill_ScriptMode_AlreadyKilled() {
+        ReflectionTestUtils.setField(seckillService, "admissionMode", "script");
+        SeckillRequest request = new SeckillRequest();
+        request.setUserId(1001L);
+        request.setGoodsId(1L);
+        request.setCount(1);
+
+        when(goodsService.checkSeckillable(1L)).thenReturn(testGoods);
+        when(stockCacheService.admitSeckill(1L, 1001L, 1)).thenReturn(-3L);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> seckillService.doSeckill(request));
+
+        assertEquals(ResultCode.REPEAT_ORDER.getCode(), exception.getCode());
+        verify(stockCacheService, never()).revokeSeckill(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("脚本准入模式 - MQ发送失败撤销准入")
+    void testDoSeckill_ScriptMode_MQSendFailed_Revoke() {
+        ReflectionTestUtils.setField(seckillService, "admissionMode", "script");
+        SeckillRequest request = new SeckillRequest();
+        request.setUserId(1001L);
+        request.setGoodsId(1L);
+        request.setCount(1);
+
+        when(goodsService.checkSeckillable(1L)).thenReturn(testGoods);
+        when(stockCacheService.admitSeckill(1L, 1001L, 1)).thenReturn(99L);
+        when(idGenerator.nextId(anyLong())).thenReturn(123456789L);
+        doThrow(new RuntimeException("MQ失败")).when(messageProducer).sendSeckillMessage(any(), anyLong());
+
+        assertThrows(BusinessException.class, () -> seckillService.doSeckill(request));
+
+        verify(stockCacheService).revokeSeckill(1L, 1001L, 1);
+    }
+
+    @Test
+    @DisplayName("异步秒杀 - 成功")
+    void testDoSeckillAsync_Success() {
+        SeckillRequest request = new SeckillRequest();
+        request.setUserId(1001L);
+        request.setGoodsId(1L);
+        request.setCount(1);
+
+        when(goodsService.checkSeckillable(1L)).thenReturn(testGoods);
+        when(stockCacheService.admitSeckillAsync(1L, 1001L, 1)).thenReturn(CompletableFuture.completedFuture(99L));
+        when(idGenerator.nextId(anyLong())).thenReturn(123456789L);
+        when(messageProducer.sendSeckillMessageAsync(any(), eq(123456789L)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(123456789L, seckillService.doSeckillAsync(request).join());
+        verifyNoInteractions(lockService);
+    }
+
+    @Test
+    @DisplayName("异步秒杀 - MQ发送失败在回调中撤销准入")
+    void testDoSeckillAsync_MQSendFailed_Revoke() {
+        SeckillRequest request = new SeckillRequest();
+        request.setUserId(1001L);
+        request.setGoodsId(1L);
+        request.setCount(1);
+
+        when(goodsService.checkSeckillable(1L)).thenReturn(testGoods);
+        when(stockCacheService.admitSeckillAsync(1L, 1001L, 1)).thenReturn(CompletableFuture.completedFuture(99L));
+        when(stockCacheService.revokeSeckillAsync(1L, 1001L, 1)).thenReturn(CompletableFuture.completedFuture(100L));
+        when(idGenerator.nextId(anyLong())).thenReturn(123456789L);
+        when(messageProducer.sendSeckillMessageAsync(any(), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("MQ失败")));
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> seckillService.doSeckillAsync(request).join());
+
+        assertInstanceOf(BusinessException.class, exception.getCause());
+        verify(stockCacheService).revokeSeckillAsync(1L, 1001L, 1);
+    }
 }
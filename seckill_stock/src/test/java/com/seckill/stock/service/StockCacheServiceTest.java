@@ -1,6 +1,13 @@
 package com.seckill.stock.service;
 
 import com.seckill.common.constant.RedisKeyConstants;
+import com.seckill.common.dto.StockRollbackItem;
+import com.seckill.common.killed.KilledMarkStore;
+import com.seckill.common.killed.KilledStoreType;
+import com.seckill.stock.batch.StockDeductBatcher;
+import com.seckill.stock.cache.SoldOutFlagCache;
+import com.seckill.stock.config.StockShardProperties;
+import com.seckill.stock.lease.StockLeaseManager;
 import com.seckill.stock.service.impl.StockCacheServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,11 +15,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.script.RedisScript;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +48,21 @@ class StockCacheServiceTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
+    @Mock
+    private SoldOutFlagCache soldOutFlagCache;
+
+    @Mock
+    private StockLeaseManager stockLeaseManager;
+
+    @Mock
+    private StockDeductBatcher stockDeductBatcher;
+
+    @Mock
+    private KilledMarkStore killedMarkStore;
+
+    @Spy
+    private StockShardProperties shardProperties = new StockShardProperties();
+
     @InjectMocks
     private StockCacheServiceImpl stockCacheService;
 
@@ -86,6 +114,7 @@ class StockCacheServiceTest {
         Long result = stockCacheService.deductStock(goodsId, count);
 
         assertEquals(-1L, result);
+        verify(soldOutFlagCache).markSoldOut(goodsId);
     }
 
     @Test
@@ -116,6 +145,7 @@ class StockCacheServiceTest {
         Long result = stockCacheService.rollbackStock(goodsId, count);
 
         assertEquals(100L, result);
+        verify(soldOutFlagCache).clear(goodsId);
     }
 
     @Test
@@ -167,4 +197,159 @@ class StockCacheServiceTest {
 
         verify(redisTemplate).delete(key);
     }
+
+    @Test
+    @DisplayName("分片库存 - 初始化平均拆分")
+    void testInitStock_Sharded() {
+        Long goodsId = 1L;
+        shardProperties.getGoods().put(goodsId, 3);
+
+        stockCacheService.initStock(goodsId, 10);
+
+        verify(valueOperations).set(eq(RedisKeyConstants.stockShardKey(goodsId, 0)), eq("4"), anyLong(), any());
+        verify(valueOperations).set(eq(RedisKeyConstants.stockShardKey(goodsId, 1)), eq("3"), anyLong(), any());
+        verify(valueOperations).set(eq(RedisKeyConstants.stockShardKey(goodsId, 2)), eq("3"), anyLong(), any());
+        verify(redisTemplate).delete(RedisKeyConstants.stockKey(goodsId));
+    }
+
+    @Test
+    @DisplayName("分片库存 - 分片不足时切换兄弟分片")
+    @SuppressWarnings("unchecked")
+    void testDeductStock_Sharded_Failover() {
+        Long goodsId = 1L;
+        shardProperties.getGoods().put(goodsId, 2);
+
+        // 用户 2 落在分片 0，分片 0 不足后切换到分片 1
+        List<String> shard0 = Collections.singletonList(RedisKeyConstants.stockShardKey(goodsId, 0));
+        List<String> shard1 = Collections.singletonList(RedisKeyConstants.stockShardKey(goodsId, 1));
+        when(redisTemplate.execute(any(RedisScript.class), eq(shard0), anyString())).thenReturn(-1L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(shard1), anyString())).thenReturn(5L);
+
+        Long result = stockCacheService.deductStock(goodsId, 2L, 1);
+
+        assertEquals(5L, result);
+        verify(soldOutFlagCache, never()).markSoldOut(anyLong());
+    }
+
+    @Test
+    @DisplayName("分片库存 - 汇总各分片")
+    void testGetStock_Sharded() {
+        Long goodsId = 1L;
+        shardProperties.getGoods().put(goodsId, 2);
+
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList("3", "4"));
+
+        assertEquals(7L, stockCacheService.getStock(goodsId));
+    }
+
+    @Test
+    @DisplayName("批量回滚库存 - 已回滚过的订单跳过")
+    @SuppressWarnings("unchecked")
+    void testRollbackStockBatch_SkipRolledBack() {
+        // 第二条订单的幂等标记已存在（-3）
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(11L, -3L, 12L));
+
+        Map<Long, Integer> applied = stockCacheService.rollbackStockBatch(List.of(
+                new StockRollbackItem(1001L, 1L, 1),
+                new StockRollbackItem(1002L, 1L, 1),
+                new StockRollbackItem(1003L, 2L, 2)));
+
+        assertEquals(Map.of(1L, 1, 2L, 2), applied);
+        verify(soldOutFlagCache).clear(1L);
+        verify(soldOutFlagCache).clear(2L);
+    }
+
+    @Test
+    @DisplayName("租约模式 - 本地租约用尽但其他实例仍有租约时不标记售罄")
+    void testDeductFromLease_OtherLeasesRemain() {
+        Long goodsId = 1L;
+        when(stockLeaseManager.isEnabled()).thenReturn(true);
+        when(stockLeaseManager.deduct(goodsId, 1)).thenReturn(-1L);
+        when(stockLeaseManager.isDepleted(goodsId)).thenReturn(false);
+
+        assertEquals(-1L, stockCacheService.deductStock(goodsId, 1));
+        verify(soldOutFlagCache, never()).markSoldOut(anyLong());
+    }
+
+    @Test
+    @DisplayName("租约模式 - 库存与租约登记均无剩余时标记售罄")
+    void testDeductFromLease_Depleted() {
+        Long goodsId = 1L;
+        when(stockLeaseManager.isEnabled()).thenReturn(true);
+        when(stockLeaseManager.deduct(goodsId, 1)).thenReturn(-1L);
+        when(stockLeaseManager.isDepleted(goodsId)).thenReturn(true);
+
+        assertEquals(-1L, stockCacheService.deductStock(goodsId, 1));
+        verify(soldOutFlagCache).markSoldOut(goodsId);
+    }
+
+    @Test
+    @DisplayName("分片商品准入 - 先占用已秒杀标记再扣减分片")
+    @SuppressWarnings("unchecked")
+    void testAdmitSeckill_Sharded() {
+        Long goodsId = 1L;
+        Long userId = 2L;
+        shardProperties.getGoods().put(goodsId, 2);
+        List<String> killedKeys = stubKilledMarkStore(goodsId, userId);
+
+        // 用户 2 落在分片 0
+        List<String> shard0 = Collections.singletonList(RedisKeyConstants.stockShardKey(goodsId, 0));
+        when(redisTemplate.execute(any(RedisScript.class), eq(killedKeys), anyString(), anyString(), anyString()))
+                .thenReturn(1L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(shard0), anyString())).thenReturn(5L);
+
+        assertEquals(5L, stockCacheService.admitSeckill(goodsId, userId, 1));
+        // 每次脚本调用只访问一个 key，不会跨槽位
+        verify(redisTemplate, never()).execute(any(RedisScript.class),
+                argThat((List<String> keys) -> keys != null && keys.size() > 1), any(Object[].class));
+        // 扣减成功不释放标记
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(killedKeys), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("分片商品准入 - 全部分片不足时释放已秒杀标记")
+    @SuppressWarnings("unchecked")
+    void testAdmitSeckill_Sharded_ReleaseMark() {
+        Long goodsId = 1L;
+        Long userId = 2L;
+        shardProperties.getGoods().put(goodsId, 2);
+        List<String> killedKeys = stubKilledMarkStore(goodsId, userId);
+
+        when(redisTemplate.execute(any(RedisScript.class), eq(killedKeys), anyString(), anyString(), anyString()))
+                .thenReturn(1L);
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(Collections.singletonList(RedisKeyConstants.stockShardKey(goodsId, 0))), anyString()))
+                .thenReturn(-1L);
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(Collections.singletonList(RedisKeyConstants.stockShardKey(goodsId, 1))), anyString()))
+                .thenReturn(-1L);
+
+        assertEquals(-1L, stockCacheService.admitSeckill(goodsId, userId, 1));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(killedKeys), eq("string"), eq("2"));
+        verify(soldOutFlagCache).markSoldOut(goodsId);
+    }
+
+    @Test
+    @DisplayName("分片商品准入 - 已秒杀过时不扣减分片")
+    @SuppressWarnings("unchecked")
+    void testAdmitSeckill_Sharded_AlreadyKilled() {
+        Long goodsId = 1L;
+        Long userId = 2L;
+        shardProperties.getGoods().put(goodsId, 2);
+        List<String> killedKeys = stubKilledMarkStore(goodsId, userId);
+
+        when(redisTemplate.execute(any(RedisScript.class), eq(killedKeys), anyString(), anyString(), anyString()))
+                .thenReturn(-3L);
+
+        assertEquals(-3L, stockCacheService.admitSeckill(goodsId, userId, 1));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    private List<String> stubKilledMarkStore(Long goodsId, Long userId) {
+        String killedKey = RedisKeyConstants.killedKey(goodsId, userId);
+        when(killedMarkStore.storeKey(goodsId, userId)).thenReturn(killedKey);
+        when(killedMarkStore.type()).thenReturn(KilledStoreType.STRING);
+        when(killedMarkStore.member(userId)).thenReturn(String.valueOf(userId));
+        return Collections.singletonList(killedKey);
+    }
 }